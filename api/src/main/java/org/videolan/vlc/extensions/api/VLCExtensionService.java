@@ -35,12 +35,32 @@ import android.os.RemoteException;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public abstract class VLCExtensionService extends Service{
 
     private static final String TAG = "VLC/ExtensionService";
+
+    /**
+     * Protocol version of this API. Extensions keep declaring 1 in their protocolVersion
+     * meta-data, so that older hosts still load them: paging is negotiated at runtime,
+     * hosts supporting only version 1 get whole lists.
+     */
+    public static final int PROTOCOL_VERSION = 2;
+
+    /* Max number of items sent in one binder transaction */
+    private static final int PAGE_SIZE = 100;
+    private static final String CHUNK_TOKEN_PREFIX = "org.videolan.vlc.extensions.chunk:";
+
     private int mIndex = -1;
+    private volatile int mHostProtocolVersion = 1;
+
+    /* Remaining items of the last list, sent when the host asks for mChunkToken, guarded by this */
+    private List<VLCExtensionItem> mPendingItems;
+    private String mPendingTitle, mPendingPageToken, mChunkToken;
+    private boolean mPendingShowParams;
+    private int mChunkCount = 0;
 
     private static final ComponentName VLC_HOST_SERVICE =
             new ComponentName("org.videolan.vlc",
@@ -65,6 +85,14 @@ public abstract class VLCExtensionService extends Service{
      */
     protected abstract void refresh();
 
+    /**
+     * Called by VLC when user reaches the end of a list sent with a next page token.
+     * Answer with {@link #appendList(List, String)}.
+     *
+     * @param pageToken The token given with the previous page
+     */
+    protected void loadPage(@NonNull String pageToken) {}
+
     @Override
     public void onCreate() {
         super.onCreate();
@@ -115,13 +143,80 @@ public abstract class VLCExtensionService extends Service{
      * @param showParams Wether you want to show the FAB to launch your extension settings activity.
      */
     protected void updateList(String title, List<VLCExtensionItem> items, boolean showParams, boolean isrefresh){
+        updateList(title, items, showParams, isrefresh, null);
+    }
+
+    /**
+     * Displays given items in VLC browser, as the first page of a list.
+     *
+     * @param title The title shown in VLC action bar for this list display.
+     * @param items The items to show.
+     * @param showParams Wether you want to show the FAB to launch your extension settings activity.
+     * @param nextPageToken Optional - Token given to {@link #loadPage(String)} when user reaches the end of the list.
+     */
+    protected void updateList(String title, List<VLCExtensionItem> items, boolean showParams, boolean isrefresh, @Nullable String nextPageToken){
+        if (mHostProtocolVersion < 2) {
+            try {
+                mHost.updateList(title, items, showParams, isrefresh);
+            } catch (RemoteException e) {
+                e.printStackTrace();
+            }
+            return;
+        }
+        sendPage(title, items, showParams, isrefresh, false, nextPageToken);
+    }
+
+    /**
+     * Adds items at the end of the list displayed by VLC, in response to {@link #loadPage(String)}.
+     *
+     * @param items The items to add.
+     * @param nextPageToken Optional - Token of the following page, null if this is the last one.
+     */
+    protected void appendList(List<VLCExtensionItem> items, @Nullable String nextPageToken){
+        if (mHostProtocolVersion < 2)
+            return;
+        sendPage(null, items, false, false, true, nextPageToken);
+    }
+
+    /**
+     * Send at most PAGE_SIZE items, the remaining ones are kept until the host asks for them
+     */
+    private synchronized void sendPage(String title, List<VLCExtensionItem> items, boolean showParams, boolean isRefresh, boolean append, String nextPageToken) {
+        final String token;
+        final List<VLCExtensionItem> page;
+        if (items.size() > PAGE_SIZE) {
+            page = new ArrayList<>(items.subList(0, PAGE_SIZE));
+            mPendingItems = new ArrayList<>(items.subList(PAGE_SIZE, items.size()));
+            mPendingTitle = title;
+            mPendingShowParams = showParams;
+            mPendingPageToken = nextPageToken;
+            mChunkToken = CHUNK_TOKEN_PREFIX + (++mChunkCount);
+            token = mChunkToken;
+        } else {
+            page = items;
+            mPendingItems = null;
+            mChunkToken = null;
+            token = nextPageToken;
+        }
         try {
-            mHost.updateList(title, items, showParams, isrefresh);
+            mHost.updateListPage(title, page, showParams, isRefresh, append, token);
         } catch (RemoteException e) {
             e.printStackTrace();
         }
     }
 
+    private void onLoadPage(String pageToken) {
+        synchronized (this) {
+            if (pageToken.equals(mChunkToken) && mPendingItems != null) {
+                sendPage(mPendingTitle, mPendingItems, mPendingShowParams, false, true, mPendingPageToken);
+                return;
+            }
+        }
+        // Chunk tokens of a list which has been replaced since are dropped
+        if (!pageToken.startsWith(CHUNK_TOKEN_PREFIX))
+            loadPage(pageToken);
+    }
+
     /**
      * Called once VLC is binded to your service.
      * Use it to call {@link #updateList(String, List, boolean, boolean)} with root level elements
@@ -161,5 +256,22 @@ public abstract class VLCExtensionService extends Service{
                 }
             });
         }
+
+        @Override
+        public void setHostProtocolVersion(int version) {
+            mHostProtocolVersion = version;
+        }
+
+        @Override
+        public void loadPage(final String pageToken) {
+            if (pageToken == null)
+                return;
+            mServiceHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    onLoadPage(pageToken);
+                }
+            });
+        }
     };
 }
@@ -23,6 +23,7 @@
 #include <vlc/vlc.h>
 #include <pthread.h>
 #include <stdbool.h>
+#include <stdint.h>
 #include <time.h>
 #include <errno.h>
 #include <unistd.h>
@@ -65,6 +66,7 @@ enum {
     THUMB_SEEKED = 0x1,
     THUMB_VOUT   = 0x2,
     THUMB_DONE   = 0x4,
+    THUMB_CANCELLED = 0x8,
 };
 
 typedef struct
@@ -72,9 +74,13 @@ typedef struct
     int state;
 
     char *thumbData;
+    size_t thumbDataSize;
 
+    /* Allocated on display, unless given by the caller */
     char *frameData;
+    bool ownFrameData;
     unsigned frameSize;
+    bool frameCopied;
 
     unsigned blackBorders;
     unsigned frameWidth;
@@ -135,13 +141,19 @@ thumbnailer_setup(void **opaque, char *chroma,
     sys->thumbPitch  = thumbWidth * PIXEL_SIZE;
     sys->thumbHeight = thumbHeight;
 
-    /* Allocate the memory to store the frames. */
+    /* Allocate the memory to store the frames, kept from a previous thumbnail if big enough. */
     size_t thumbSize = sys->thumbPitch * (sys->thumbHeight+1);
-    sys->thumbData = malloc(thumbSize);
-    if (sys->thumbData == NULL)
+    if (thumbSize > sys->thumbDataSize)
     {
-        LOGE("Could not allocate the memory to store the frame!");
-        goto end;
+        free(sys->thumbData);
+        sys->thumbDataSize = 0;
+        sys->thumbData = malloc(thumbSize);
+        if (sys->thumbData == NULL)
+        {
+            LOGE("Could not allocate the memory to store the frame!");
+            goto end;
+        }
+        sys->thumbDataSize = thumbSize;
     }
 
     *width = thumbWidth;
@@ -204,16 +216,20 @@ static void thumbnailer_display(void *opaque, void *picture)
     /* If we have already received a thumbnail, or we are still seeking,
      * we skip this frame. */
     pthread_mutex_lock(&sys->doneMutex);
-    if ((sys->state & (THUMB_SEEKED|THUMB_VOUT)) != (THUMB_SEEKED|THUMB_VOUT))
+    if ((sys->state & (THUMB_SEEKED|THUMB_VOUT)) != (THUMB_SEEKED|THUMB_VOUT)
+        || (sys->state & (THUMB_DONE|THUMB_CANCELLED)))
     {
         pthread_mutex_unlock(&sys->doneMutex);
         return;
     }
     pthread_mutex_unlock(&sys->doneMutex);
 
-    /* Allocate the memory to store the thumbnail. */
+    /* Allocate the memory to store the thumbnail, or clear the given one. */
     sys->frameSize = sys->frameWidth * sys->frameHeight * PIXEL_SIZE;
-    sys->frameData = calloc(sys->frameSize, 1);
+    if (sys->ownFrameData)
+        sys->frameData = calloc(sys->frameSize, 1);
+    else if (sys->frameData != NULL)
+        memset(sys->frameData, 0, sys->frameSize);
     if (sys->frameData == NULL)
     {
         LOGE("Could not allocate the memory to store the thumbnail!");
@@ -231,6 +247,7 @@ static void thumbnailer_display(void *opaque, void *picture)
         dataDest += sys->frameWidth * PIXEL_SIZE;
         dataSrc += sys->thumbPitch;
     }
+    sys->frameCopied = true;
 
 end:
     /* Signal that the thumbnail was created. */
@@ -240,40 +257,45 @@ end:
     pthread_mutex_unlock(&sys->doneMutex);
 }
 
-/**
- * Thumbnailer main function.
- * return null if the thumbail generation failed.
- **/
-jbyteArray
-Java_org_videolan_libvlc_util_VLCUtil_nativeGetThumbnail(JNIEnv *env,
-                                                         jobject thiz,
-                                                         jobject jmedia,
-                                                         const jint frameWidth,
-                                                         const jint frameHeight)
+static void
+thumbnailer_sys_init(thumbnailer_sys_t *sys)
 {
-    vlcjni_object *p_obj = VLCJniObject_getInstance(env, jmedia);
-    jbyteArray byteArray = NULL;
-
-    /* Create the thumbnailer data structure */
-    thumbnailer_sys_t *sys = calloc(1, sizeof(thumbnailer_sys_t));
-    if (sys == NULL)
-    {
-        LOGE("Could not create the thumbnailer data structure!");
-        return NULL;
-    }
-
-    /* Initialize the barrier. */
     pthread_mutex_init(&sys->doneMutex, NULL);
     pthread_cond_init(&sys->doneCondVar, NULL);
+}
 
-    /* Create a media player playing environment */
-    libvlc_media_player_t *mp = libvlc_media_player_new_from_media(p_obj->u.p_m);
-    if (!mp)
-        goto end;
-    libvlc_media_player_set_video_title_display(mp, libvlc_position_disable, 0);
+static void
+thumbnailer_sys_destroy(thumbnailer_sys_t *sys)
+{
+    pthread_mutex_destroy(&sys->doneMutex);
+    pthread_cond_destroy(&sys->doneCondVar);
+    if (sys->ownFrameData)
+        free(sys->frameData);
+    free(sys->thumbData);
+    free(sys);
+}
 
+/**
+ * Play the media of mp until a frame is copied into sys->frameData, then stop.
+ * sys->state must have been reset, it is not here so that a cancellation
+ * arriving before is kept.
+ * return true if the thumbnail was generated.
+ **/
+static bool
+thumbnailer_run(thumbnailer_sys_t *sys, libvlc_media_player_t *mp,
+                unsigned frameWidth, unsigned frameHeight)
+{
+    pthread_mutex_lock(&sys->doneMutex);
+    bool cancelled = sys->state & THUMB_CANCELLED;
+    pthread_mutex_unlock(&sys->doneMutex);
+    if (cancelled)
+        return false;
+    sys->frameCopied = false;
+    sys->blackBorders = 0;
     sys->frameWidth = frameWidth;
     sys->frameHeight = frameHeight;
+
+    libvlc_media_player_set_video_title_display(mp, libvlc_position_disable, 0);
     /* Set the video format and the callbacks. */
     libvlc_video_set_callbacks(mp, thumbnailer_lock, thumbnailer_unlock,
                                thumbnailer_display, (void*)sys);
@@ -296,29 +318,65 @@ Java_org_videolan_libvlc_util_VLCUtil_nativeGetThumbnail(JNIEnv *env,
     /* Wait for a VOUT for 3 seconds, some input format like *.TS make some time
      * to initialize a VOUT */
     int ret = 0;
-    while (!(sys->state & THUMB_VOUT) && ret != ETIMEDOUT)
+    while (!(sys->state & (THUMB_VOUT|THUMB_CANCELLED)) && ret != ETIMEDOUT)
         ret = pthread_cond_timedwait(&sys->doneCondVar, &sys->doneMutex, &deadline);
 
-    if (sys->state & THUMB_VOUT)
+    if ((sys->state & (THUMB_VOUT|THUMB_CANCELLED)) == THUMB_VOUT)
     {
         ret = 0;
         /* Wait an additional 7 seconds for a frame */
         deadline.tv_sec += 7;
-        while (!(sys->state & THUMB_DONE) && ret != ETIMEDOUT)
+        while (!(sys->state & (THUMB_DONE|THUMB_CANCELLED)) && ret != ETIMEDOUT)
             ret = pthread_cond_timedwait(&sys->doneCondVar, &sys->doneMutex, &deadline);
     }
-    else
+    else if (!(sys->state & THUMB_CANCELLED))
         LOGE("media has not VOUT");
     pthread_mutex_unlock(&sys->doneMutex);
 
-    /* Stop and release the media player. */
+    /* Stop the media player, no callback is called after this. */
     libvlc_media_player_stop(mp);
     libvlc_event_detach(libvlc_media_player_event_manager(mp),
                         libvlc_MediaPlayerPositionChanged,
                         thumbnailer_event, sys);
+
+    return (sys->state & THUMB_DONE) && sys->frameCopied;
+}
+
+/**
+ * Thumbnailer main function.
+ * return null if the thumbail generation failed.
+ **/
+jbyteArray
+Java_org_videolan_libvlc_util_VLCUtil_nativeGetThumbnail(JNIEnv *env,
+                                                         jobject thiz,
+                                                         jobject jmedia,
+                                                         const jint frameWidth,
+                                                         const jint frameHeight)
+{
+    vlcjni_object *p_obj = VLCJniObject_getInstance(env, jmedia);
+    jbyteArray byteArray = NULL;
+
+    /* Create the thumbnailer data structure */
+    thumbnailer_sys_t *sys = calloc(1, sizeof(thumbnailer_sys_t));
+    if (sys == NULL)
+    {
+        LOGE("Could not create the thumbnailer data structure!");
+        return NULL;
+    }
+    sys->ownFrameData = true;
+
+    /* Initialize the barrier. */
+    thumbnailer_sys_init(sys);
+
+    /* Create a media player playing environment */
+    libvlc_media_player_t *mp = libvlc_media_player_new_from_media(p_obj->u.p_m);
+    if (!mp)
+        goto end;
+
+    bool done = thumbnailer_run(sys, mp, frameWidth, frameHeight);
     libvlc_media_player_release(mp);
 
-    if ((sys->state & THUMB_DONE) && sys->frameData) {
+    if (done) {
         /* Create the Java byte array to return the create thumbnail. */
         byteArray = (*env)->NewByteArray(env, sys->frameSize);
         if (byteArray == NULL)
@@ -332,10 +390,129 @@ Java_org_videolan_libvlc_util_VLCUtil_nativeGetThumbnail(JNIEnv *env,
     }
 
 end:
-    pthread_mutex_destroy(&sys->doneMutex);
-    pthread_cond_destroy(&sys->doneCondVar);
-    free(sys->frameData);
-    free(sys->thumbData);
-    free(sys);
+    thumbnailer_sys_destroy(sys);
     return byteArray;
 }
+
+/*
+ * Reusable thumbnailer of ThumbnailFarm: its media player and frame memory are
+ * kept from one thumbnail to the next. Used by one thread at a time, except
+ * for cancellation.
+ */
+typedef struct
+{
+    thumbnailer_sys_t *sys;
+    libvlc_instance_t *p_libvlc;
+    libvlc_media_player_t *mp;
+} thumbnailer_t;
+
+jlong
+Java_org_videolan_libvlc_util_ThumbnailFarm_nativeNew(JNIEnv *env, jclass clazz)
+{
+    thumbnailer_t *thumbnailer = calloc(1, sizeof(thumbnailer_t));
+    if (thumbnailer == NULL)
+        return 0;
+    thumbnailer->sys = calloc(1, sizeof(thumbnailer_sys_t));
+    if (thumbnailer->sys == NULL)
+    {
+        free(thumbnailer);
+        return 0;
+    }
+    thumbnailer_sys_init(thumbnailer->sys);
+    return (jlong)(intptr_t) thumbnailer;
+}
+
+jboolean
+Java_org_videolan_libvlc_util_ThumbnailFarm_nativeGetThumbnail(JNIEnv *env,
+                                                               jclass clazz,
+                                                               jlong handle,
+                                                               jobject jmedia,
+                                                               const jint frameWidth,
+                                                               const jint frameHeight,
+                                                               jobject jbuffer)
+{
+    thumbnailer_t *thumbnailer = (thumbnailer_t *)(intptr_t) handle;
+    vlcjni_object *p_obj = VLCJniObject_getInstance(env, jmedia);
+    if (!thumbnailer || !p_obj)
+        return JNI_FALSE;
+
+    thumbnailer_sys_t *sys = thumbnailer->sys;
+    sys->frameData = (*env)->GetDirectBufferAddress(env, jbuffer);
+    if (sys->frameData == NULL
+     || (*env)->GetDirectBufferCapacity(env, jbuffer) < (jlong) frameWidth * frameHeight * PIXEL_SIZE)
+    {
+        throw_IllegalArgumentException(env, "buffer is not a direct buffer big enough");
+        sys->frameData = NULL;
+        return JNI_FALSE;
+    }
+
+    /* A media player per libvlc instance, its media is replaced for each thumbnail */
+    if (thumbnailer->mp && thumbnailer->p_libvlc != p_obj->p_libvlc)
+    {
+        libvlc_media_player_release(thumbnailer->mp);
+        thumbnailer->mp = NULL;
+    }
+    if (!thumbnailer->mp)
+    {
+        thumbnailer->mp = libvlc_media_player_new(p_obj->p_libvlc);
+        thumbnailer->p_libvlc = p_obj->p_libvlc;
+    }
+    if (!thumbnailer->mp)
+    {
+        sys->frameData = NULL;
+        return JNI_FALSE;
+    }
+    libvlc_media_player_set_media(thumbnailer->mp, p_obj->u.p_m);
+
+    bool done = thumbnailer_run(sys, thumbnailer->mp, frameWidth, frameHeight);
+
+    /* Don't keep the media, nor the caller buffer */
+    libvlc_media_player_set_media(thumbnailer->mp, NULL);
+    sys->frameData = NULL;
+    return done ? JNI_TRUE : JNI_FALSE;
+}
+
+/* Called before the next thumbnail is cancellable: a cancellation of the previous
+ * thumbnail must not stop it */
+void
+Java_org_videolan_libvlc_util_ThumbnailFarm_nativePrepare(JNIEnv *env,
+                                                          jclass clazz,
+                                                          jlong handle)
+{
+    thumbnailer_t *thumbnailer = (thumbnailer_t *)(intptr_t) handle;
+    if (!thumbnailer)
+        return;
+    thumbnailer_sys_t *sys = thumbnailer->sys;
+    pthread_mutex_lock(&sys->doneMutex);
+    sys->state = THUMB_INIT;
+    pthread_mutex_unlock(&sys->doneMutex);
+}
+
+void
+Java_org_videolan_libvlc_util_ThumbnailFarm_nativeCancel(JNIEnv *env,
+                                                         jclass clazz,
+                                                         jlong handle)
+{
+    thumbnailer_t *thumbnailer = (thumbnailer_t *)(intptr_t) handle;
+    if (!thumbnailer)
+        return;
+    thumbnailer_sys_t *sys = thumbnailer->sys;
+    pthread_mutex_lock(&sys->doneMutex);
+    sys->state |= THUMB_CANCELLED;
+    pthread_cond_signal(&sys->doneCondVar);
+    pthread_mutex_unlock(&sys->doneMutex);
+}
+
+void
+Java_org_videolan_libvlc_util_ThumbnailFarm_nativeRelease(JNIEnv *env,
+                                                          jclass clazz,
+                                                          jlong handle)
+{
+    thumbnailer_t *thumbnailer = (thumbnailer_t *)(intptr_t) handle;
+    if (!thumbnailer)
+        return;
+    if (thumbnailer->mp)
+        libvlc_media_player_release(thumbnailer->mp);
+    thumbnailer_sys_destroy(thumbnailer->sys);
+    free(thumbnailer);
+}
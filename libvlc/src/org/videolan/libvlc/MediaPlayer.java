@@ -33,6 +33,7 @@ import android.media.AudioFormat;
 import android.media.AudioManager;
 import android.net.Uri;
 import android.os.Build;
+import android.os.Handler;
 import android.support.annotation.RequiresApi;
 import android.util.SparseArray;
 
@@ -1092,6 +1093,23 @@ public class MediaPlayer extends VLCObject<MediaPlayer.Event> {
         super.setEventListener(listener);
     }
 
+    /**
+     * Set an event listener, with events sent on the thread of handler.
+     *
+     * @param handler Handler in which events are sent, the main thread one if null
+     * @param coalesce if true, TimeChanged, PositionChanged and Buffering events not sent yet are
+     *                 replaced by the next ones of the same type. These events are reused, they
+     *                 must not be kept after {@link EventListener#onEvent}.
+     */
+    public synchronized void setEventListener(EventListener listener, Handler handler, boolean coalesce) {
+        super.setEventListener(listener, handler, coalesce);
+    }
+
+    @Override
+    protected boolean isCoalescable(int eventType) {
+        return eventType == Event.TimeChanged || eventType == Event.PositionChanged || eventType == Event.Buffering;
+    }
+
     @Override
     protected synchronized Event onEventNative(int eventType, long arg1, long arg2, float argf1) {
         switch (eventType) {
@@ -22,9 +22,10 @@ package org.videolan.libvlc;
 
 public abstract class VLCEvent {
     public final int type;
-    protected final long arg1;
-    protected final long arg2;
-    protected final float argf1;
+    /* Not final, events of coalesced types are reused */
+    protected long arg1;
+    protected long arg2;
+    protected float argf1;
 
     VLCEvent(int type) {
         this.type = type;
@@ -49,6 +50,12 @@ public abstract class VLCEvent {
         this.argf1 = argf;
     }
 
+    void update(long arg1, long arg2, float argf1) {
+        this.arg1 = arg1;
+        this.arg2 = arg2;
+        this.argf1 = argf1;
+    }
+
     void release() {
         /* do nothing */
     }
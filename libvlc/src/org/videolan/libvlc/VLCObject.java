@@ -24,6 +24,7 @@ import android.os.Handler;
 import android.os.Looper;
 
 import java.lang.ref.WeakReference;
+import java.util.ArrayList;
 
 @SuppressWarnings("JniMissingFunction")
 abstract class VLCObject<T extends VLCEvent> {
@@ -107,13 +108,39 @@ abstract class VLCObject<T extends VLCEvent> {
      * @param handler Handler in which events are sent. If null, a handler will be created running on the main thread
      */
     protected synchronized void setEventListener(VLCEvent.Listener<T> listener, Handler handler) {
+        setEventListener(listener, handler, false);
+    }
+
+    /**
+     * Set an event listener and an executor Handler
+     * @param listener see {@link VLCEvent.Listener}
+     * @param handler Handler in which events are sent. If null, the current one is kept, or a
+     *                handler will be created running on the main thread
+     * @param coalesce if true, an event of a type accepted by {@link #isCoalescable(int)} replaces
+     *                 the one of the same type not sent yet. Their event objects are reused, so
+     *                 listeners must not keep them after {@link VLCEvent.Listener#onEvent}.
+     */
+    protected synchronized void setEventListener(VLCEvent.Listener<T> listener, Handler handler, boolean coalesce) {
         if (mHandler != null)
             mHandler.removeCallbacksAndMessages(null);
         mEventListener = listener;
+        mCoalesce = coalesce;
+        // Removed from the handler, their pending state is lost
+        mSlots = null;
         if (mEventListener == null)
             mHandler = null;
+        else if (handler != null)
+            mHandler = handler;
         else if (mHandler == null)
-            mHandler = handler != null ? handler : new Handler(Looper.getMainLooper());
+            mHandler = new Handler(Looper.getMainLooper());
+    }
+
+    /**
+     * @return true for the event types whose only latest value matters, like time updates.
+     * Called with the object locked.
+     */
+    protected boolean isCoalescable(int eventType) {
+        return false;
     }
 
     /**
@@ -140,6 +167,10 @@ abstract class VLCObject<T extends VLCEvent> {
     private synchronized void dispatchEventFromNative(int eventType, long arg1, long arg2, float argf1) {
         if (isReleased())
             return;
+        if (mCoalesce && mEventListener != null && mHandler != null && isCoalescable(eventType)) {
+            coalesceEvent(eventType, arg1, arg2, argf1);
+            return;
+        }
         final T event = onEventNative(eventType, arg1, arg2, argf1);
 
         class EventRunnable implements Runnable {
@@ -157,8 +188,79 @@ abstract class VLCObject<T extends VLCEvent> {
             }
         }
 
-        if (event != null && mEventListener != null && mHandler != null)
+        if (event != null && mEventListener != null && mHandler != null) {
             mHandler.post(new EventRunnable(mEventListener, event));
+            ++mSequence;
+        }
+    }
+
+    /* Coalescing state, guarded by this */
+    private boolean mCoalesce = false;
+    private ArrayList<EventSlot> mSlots = null;
+    /* Number of events posted without coalescing, a slot posted before one of them can't be updated anymore */
+    private int mSequence = 0;
+
+    /**
+     * Latest pending event of a coalesced type, posted once and updated until sent
+     */
+    private final class EventSlot implements Runnable {
+        private final VLCEvent.Listener<T> listener;
+        private final T event;
+        private long arg1, arg2;
+        private float argf1;
+        private boolean posted = false;
+        private int sequence;
+
+        private EventSlot(VLCEvent.Listener<T> listener, T event) {
+            this.listener = listener;
+            this.event = event;
+        }
+
+        @Override
+        public void run() {
+            synchronized (VLCObject.this) {
+                if (!posted)
+                    return;
+                posted = false;
+                // Only written here, on the handler thread, so never while a listener reads it
+                event.update(arg1, arg2, argf1);
+            }
+            listener.onEvent(event);
+        }
+    }
+
+    private void coalesceEvent(int eventType, long arg1, long arg2, float argf1) {
+        int index = -1;
+        if (mSlots != null) {
+            for (int i = 0; i < mSlots.size(); ++i) {
+                if (mSlots.get(i).event.type == eventType) {
+                    index = i;
+                    break;
+                }
+            }
+        }
+        EventSlot slot = index != -1 ? mSlots.get(index) : null;
+        if (slot == null || (slot.posted && slot.sequence != mSequence)) {
+            final T event = onEventNative(eventType, arg1, arg2, argf1);
+            if (event == null)
+                return;
+            slot = new EventSlot(mEventListener, event);
+            if (index != -1)
+                mSlots.set(index, slot);
+            else {
+                if (mSlots == null)
+                    mSlots = new ArrayList<>(3);
+                mSlots.add(slot);
+            }
+        }
+        slot.arg1 = arg1;
+        slot.arg2 = arg2;
+        slot.argf1 = argf1;
+        if (!slot.posted) {
+            slot.posted = true;
+            slot.sequence = mSequence;
+            mHandler.post(slot);
+        }
     }
     private native void nativeDetachEvents();
 
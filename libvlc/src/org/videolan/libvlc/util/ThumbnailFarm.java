@@ -0,0 +1,294 @@
+/*****************************************************************************
+ * ThumbnailFarm.java
+ *****************************************************************************
+ * Copyright © 2018 VLC authors and VideoLAN
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston MA 02110-1301, USA.
+ *****************************************************************************/
+
+package org.videolan.libvlc.util;
+
+import android.support.annotation.Nullable;
+import android.support.annotation.WorkerThread;
+import android.util.Log;
+
+import org.videolan.libvlc.Media;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates RGBA thumbnails of many media, like {@link VLCUtil#getThumbnail(Media, int, int)}
+ * does for one.
+ *
+ * A bounded number of worker threads take the jobs in submission order. Each worker keeps its
+ * media player and frame memory from one thumbnail to the next, and stops after a while without
+ * jobs. Pixels are written into the direct buffer given with the job, or into a pooled one.
+ */
+public class ThumbnailFarm {
+    private static final String TAG = "LibVLC/ThumbnailFarm";
+
+    private static final long WORKER_IDLE_TIMEOUT = 30000L;
+
+    public interface Callback {
+        /**
+         * Called on a worker thread, not called if the job has been cancelled.
+         * @param pixels RGBA pixels of width x height, from position 0. Null if no thumbnail
+         *               could be generated. A pooled buffer is to be given back with
+         *               {@link ThumbnailFarm#recycle(ByteBuffer)} once read.
+         */
+        @WorkerThread
+        void onThumbnail(Job job, @Nullable ByteBuffer pixels);
+    }
+
+    public class Job {
+        public final Media media;
+        public final int width, height;
+        private final Callback mCallback;
+        private final ByteBuffer mBuffer;
+        /* Guarded by the farm */
+        private boolean mCancelled = false;
+        private long mRunningHandle = 0L;
+
+        private Job(Media media, int width, int height, ByteBuffer buffer, Callback callback) {
+            this.media = media;
+            this.width = width;
+            this.height = height;
+            mBuffer = buffer;
+            mCallback = callback;
+        }
+
+        /**
+         * Drop the job, or stop generating its thumbnail if it is running
+         */
+        public void cancel() {
+            synchronized (ThumbnailFarm.this) {
+                if (mCancelled)
+                    return;
+                mCancelled = true;
+                if (mRunningHandle != 0L)
+                    nativeCancel(mRunningHandle);
+                else if (mQueue.remove(this))
+                    media.release();
+            }
+        }
+    }
+
+    private final int mMaxWorkers;
+    private final int mMaxPooledBuffers;
+    /* Guarded by this */
+    private final ArrayDeque<Job> mQueue = new ArrayDeque<>();
+    private final ArrayList<Job> mRunning = new ArrayList<>();
+    private final ArrayDeque<ByteBuffer> mBufferPool = new ArrayDeque<>();
+    private int mWorkers = 0, mIdleWorkers = 0;
+    private boolean mReleased = false;
+
+    /**
+     * @param workers maximum number of thumbnails generated at the same time
+     */
+    public ThumbnailFarm(int workers) {
+        if (workers < 1)
+            throw new IllegalArgumentException("workers should be at least 1");
+        mMaxWorkers = workers;
+        mMaxPooledBuffers = 2 * workers;
+    }
+
+    /**
+     * Generate the thumbnails of medias into pooled buffers.
+     * Medias are retained until their thumbnail is done.
+     */
+    public List<Job> submit(List<Media> medias, int width, int height, Callback callback) {
+        final List<Job> jobs = new ArrayList<>(medias.size());
+        synchronized (this) {
+            for (Media media : medias)
+                jobs.add(enqueue(media, width, height, null, callback));
+        }
+        return jobs;
+    }
+
+    /**
+     * Generate the thumbnail of media.
+     * @param buffer direct buffer of at least width * height * 4 bytes, a pooled one if null
+     */
+    public synchronized Job submit(Media media, int width, int height, @Nullable ByteBuffer buffer, Callback callback) {
+        if (buffer != null && (!buffer.isDirect() || buffer.capacity() < width * height * 4))
+            throw new IllegalArgumentException("buffer should be direct, with at least width * height * 4 bytes");
+        return enqueue(media, width, height, buffer, callback);
+    }
+
+    private Job enqueue(Media media, int width, int height, ByteBuffer buffer, Callback callback) {
+        if (mReleased)
+            throw new IllegalStateException("ThumbnailFarm is released");
+        if (!media.retain())
+            throw new IllegalArgumentException("Media is released");
+        media.addOption(":no-audio");
+        media.addOption(":no-spu");
+        media.addOption(":no-osd");
+        media.addOption(":input-fast-seek");
+        final Job job = new Job(media, width, height, buffer, callback);
+        mQueue.add(job);
+        if (mIdleWorkers > 0)
+            notify();
+        else if (mWorkers < mMaxWorkers) {
+            ++mWorkers;
+            new Worker(mWorkers).start();
+        }
+        return job;
+    }
+
+    /**
+     * Give back a buffer received by a callback, when it was not given with the job
+     */
+    public synchronized void recycle(ByteBuffer buffer) {
+        if (!mReleased && mBufferPool.size() < mMaxPooledBuffers)
+            mBufferPool.add(buffer);
+    }
+
+    private synchronized ByteBuffer obtainBuffer(int size) {
+        for (Iterator<ByteBuffer> it = mBufferPool.iterator(); it.hasNext(); ) {
+            final ByteBuffer buffer = it.next();
+            if (buffer.capacity() >= size) {
+                it.remove();
+                return buffer;
+            }
+        }
+        return ByteBuffer.allocateDirect(size);
+    }
+
+    /**
+     * Cancel all jobs
+     */
+    public synchronized void cancelAll() {
+        for (Job job : mQueue) {
+            job.mCancelled = true;
+            job.media.release();
+        }
+        mQueue.clear();
+        for (Job job : mRunning) {
+            job.mCancelled = true;
+            nativeCancel(job.mRunningHandle);
+        }
+        // Idle workers check whether they have to stop
+        notifyAll();
+    }
+
+    /**
+     * Cancel all jobs and stop the workers once their current job is stopped
+     */
+    public synchronized void release() {
+        mReleased = true;
+        cancelAll();
+        mBufferPool.clear();
+    }
+
+    /**
+     * @return the next job, null when the worker has to stop
+     */
+    private synchronized Job take() {
+        long idle = WORKER_IDLE_TIMEOUT;
+        while (mQueue.isEmpty() && !mReleased && idle > 0L) {
+            final long start = System.nanoTime();
+            ++mIdleWorkers;
+            try {
+                wait(idle);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                idle = 0L;
+            } finally {
+                --mIdleWorkers;
+            }
+            idle -= TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        }
+        final Job job = mReleased ? null : mQueue.poll();
+        if (job == null)
+            --mWorkers;
+        return job;
+    }
+
+    private class Worker extends Thread {
+        private Worker(int index) {
+            super("vlc-thumbnailer-" + index);
+            setPriority(Thread.MIN_PRIORITY);
+        }
+
+        @Override
+        public void run() {
+            final long handle = nativeNew();
+            if (handle == 0L) {
+                Log.e(TAG, "Could not create a thumbnailer");
+                synchronized (ThumbnailFarm.this) {
+                    --mWorkers;
+                }
+                return;
+            }
+            try {
+                Job job;
+                while ((job = take()) != null)
+                    runJob(handle, job);
+            } finally {
+                nativeRelease(handle);
+            }
+        }
+
+        private void runJob(long handle, Job job) {
+            synchronized (ThumbnailFarm.this) {
+                // Cancelled after being taken
+                if (job.mCancelled) {
+                    job.media.release();
+                    return;
+                }
+                // Before the handle is published, cancel() then stops this job
+                nativePrepare(handle);
+                job.mRunningHandle = handle;
+                mRunning.add(job);
+            }
+            final boolean pooled = job.mBuffer == null;
+            final ByteBuffer buffer = pooled ? obtainBuffer(job.width * job.height * 4) : job.mBuffer;
+            boolean done = false;
+            try {
+                done = nativeGetThumbnail(handle, job.media, job.width, job.height, buffer);
+            } catch (IllegalArgumentException e) {
+                Log.e(TAG, "Could not generate the thumbnail", e);
+            }
+            final boolean cancelled;
+            synchronized (ThumbnailFarm.this) {
+                job.mRunningHandle = 0L;
+                mRunning.remove(job);
+                cancelled = job.mCancelled;
+            }
+            job.media.release();
+            if (cancelled || !done) {
+                if (pooled)
+                    recycle(buffer);
+                if (!cancelled)
+                    job.mCallback.onThumbnail(job, null);
+                return;
+            }
+            buffer.clear();
+            buffer.limit(job.width * job.height * 4);
+            job.mCallback.onThumbnail(job, buffer);
+        }
+    }
+
+    private static native long nativeNew();
+    private static native void nativePrepare(long handle);
+    private static native boolean nativeGetThumbnail(long handle, Media media, int width, int height, ByteBuffer buffer);
+    private static native void nativeCancel(long handle);
+    private static native void nativeRelease(long handle);
+}
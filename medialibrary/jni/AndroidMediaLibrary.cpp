@@ -1,3 +1,5 @@
+#include <algorithm>
+
 #include "AndroidMediaLibrary.h"
 #define LOG_TAG "VLC/JNI/AndroidMediaLibrary"
 #include "log.h"
@@ -281,9 +283,9 @@ AndroidMediaLibrary::audioFiles( medialibrary::SortingCriteria sort, bool desc )
 }
 
 std::vector<medialibrary::AlbumPtr>
-AndroidMediaLibrary::albums()
+AndroidMediaLibrary::albums( medialibrary::SortingCriteria sort, bool desc )
 {
-    return p_ml->albums();
+    return p_ml->albums(sort, desc);
 }
 
 medialibrary::AlbumPtr
@@ -293,9 +295,9 @@ AndroidMediaLibrary::album(int64_t albumId)
 }
 
 std::vector<medialibrary::ArtistPtr>
-AndroidMediaLibrary::artists(bool includeAll)
+AndroidMediaLibrary::artists( bool includeAll, medialibrary::SortingCriteria sort, bool desc )
 {
-    return p_ml->artists(includeAll);
+    return p_ml->artists(includeAll, sort, desc);
 }
 
 medialibrary::ArtistPtr
@@ -317,9 +319,9 @@ AndroidMediaLibrary::genre(int64_t genreId)
 }
 
 std::vector<medialibrary::PlaylistPtr>
-AndroidMediaLibrary::playlists()
+AndroidMediaLibrary::playlists( medialibrary::SortingCriteria sort, bool desc )
 {
-    return p_ml->playlists();
+    return p_ml->playlists(sort, desc);
 }
 
 medialibrary::PlaylistPtr
@@ -328,6 +330,84 @@ AndroidMediaLibrary::playlist( int64_t playlistId )
     return p_ml->playlist(playlistId);
 }
 
+/*
+ * The medialibrary has no offset nor limit on its queries: the first page of a pass
+ * fetches the sorted list once, the next pages are sliced from this snapshot until
+ * the last one releases it. Pages past the end of a released snapshot are empty, so
+ * that a caller can read until an empty page without a refetch. A change of the
+ * library or of the sorting refetches it.
+ */
+template <typename T, typename Fetch>
+std::vector<T>
+AndroidMediaLibrary::page( PageSnapshot<T>& snapshot, int key, int offset, int limit, Fetch fetch )
+{
+    std::lock_guard<std::mutex> guard(snapshot.lock);
+    const uint32_t generation = m_pagesGeneration.load();
+    const bool current = offset > 0 && snapshot.key == key && snapshot.generation == generation;
+    if (current && snapshot.released && (size_t) offset >= snapshot.releasedSize)
+        return std::vector<T>();
+    if (!current || snapshot.released)
+    {
+        snapshot.items = fetch();
+        snapshot.released = false;
+        snapshot.key = key;
+        snapshot.generation = generation;
+    }
+    const size_t size = snapshot.items.size();
+    const size_t start = offset > 0 ? std::min((size_t) offset, size) : 0;
+    const size_t end = limit >= 0 ? std::min(start + (size_t) limit, size) : size;
+    std::vector<T> result(snapshot.items.begin() + start, snapshot.items.begin() + end);
+    if (end == size)
+    {
+        snapshot.items = std::vector<T>();
+        snapshot.releasedSize = size;
+        snapshot.released = true;
+    }
+    return result;
+}
+
+static int
+pageKey( medialibrary::SortingCriteria sort, bool desc, bool all = false )
+{
+    return ((int) sort << 2) | (desc ? 2 : 0) | (all ? 1 : 0);
+}
+
+void
+AndroidMediaLibrary::invalidatePages()
+{
+    ++m_pagesGeneration;
+}
+
+std::vector<medialibrary::MediaPtr>
+AndroidMediaLibrary::videoFilesPage( medialibrary::SortingCriteria sort, bool desc, int offset, int limit )
+{
+    return page(m_videoPages, pageKey(sort, desc), offset, limit, [=]() { return p_ml->videoFiles(sort, desc); });
+}
+
+std::vector<medialibrary::MediaPtr>
+AndroidMediaLibrary::audioFilesPage( medialibrary::SortingCriteria sort, bool desc, int offset, int limit )
+{
+    return page(m_audioPages, pageKey(sort, desc), offset, limit, [=]() { return p_ml->audioFiles(sort, desc); });
+}
+
+std::vector<medialibrary::AlbumPtr>
+AndroidMediaLibrary::albumsPage( medialibrary::SortingCriteria sort, bool desc, int offset, int limit )
+{
+    return page(m_albumPages, pageKey(sort, desc), offset, limit, [=]() { return p_ml->albums(sort, desc); });
+}
+
+std::vector<medialibrary::ArtistPtr>
+AndroidMediaLibrary::artistsPage( bool includeAll, medialibrary::SortingCriteria sort, bool desc, int offset, int limit )
+{
+    return page(m_artistPages, pageKey(sort, desc, includeAll), offset, limit, [=]() { return p_ml->artists(includeAll, sort, desc); });
+}
+
+std::vector<medialibrary::PlaylistPtr>
+AndroidMediaLibrary::playlistsPage( medialibrary::SortingCriteria sort, bool desc, int offset, int limit )
+{
+    return page(m_playlistPages, pageKey(sort, desc), offset, limit, [=]() { return p_ml->playlists(sort, desc); });
+}
+
 medialibrary::PlaylistPtr
 AndroidMediaLibrary::PlaylistCreate( const std::string &name )
 {
@@ -416,6 +496,7 @@ AndroidMediaLibrary::PlaylistDelete( int64_t playlistId )
 void
 AndroidMediaLibrary::onMediaAdded( std::vector<medialibrary::MediaPtr> mediaList )
 {
+    invalidatePages();
     if (m_mediaAddedType & FLAG_MEDIA_ADDED_AUDIO || m_mediaAddedType & FLAG_MEDIA_ADDED_VIDEO
             || m_mediaAddedType & FLAG_MEDIA_ADDED_AUDIO_EMPTY) {
         JNIEnv *env = getEnv();
@@ -463,6 +544,7 @@ AndroidMediaLibrary::onMediaAdded( std::vector<medialibrary::MediaPtr> mediaList
 
 void AndroidMediaLibrary::onMediaUpdated( std::vector<medialibrary::MediaPtr> mediaList )
 {
+    invalidatePages();
     if (m_mediaUpdatedType & FLAG_MEDIA_UPDATED_AUDIO || m_mediaUpdatedType & FLAG_MEDIA_UPDATED_VIDEO
             || m_mediaUpdatedType & FLAG_MEDIA_UPDATED_AUDIO_EMPTY) {
         JNIEnv *env = getEnv();
@@ -509,11 +591,28 @@ void AndroidMediaLibrary::onMediaUpdated( std::vector<medialibrary::MediaPtr> me
 
 void AndroidMediaLibrary::onMediaDeleted( std::vector<int64_t> ids )
 {
-
+    invalidatePages();
+    if (ids.empty())
+        return;
+    JNIEnv *env = getEnv();
+    if (env == NULL)
+        return;
+    jobject thiz = getWeakReference(env);
+    if (thiz)
+    {
+        jlongArray idArray = env->NewLongArray(ids.size());
+        std::vector<jlong> values(ids.begin(), ids.end());
+        env->SetLongArrayRegion(idArray, 0, values.size(), values.data());
+        env->CallVoidMethod(thiz, p_fields->MediaLibrary.onMediaDeletedId, idArray);
+        env->DeleteLocalRef(idArray);
+        if (weak_compat)
+            env->DeleteLocalRef(thiz);
+    }
 }
 
 void AndroidMediaLibrary::onArtistsAdded( std::vector<medialibrary::ArtistPtr> artists )
 {
+    invalidatePages();
     if (m_mediaAddedType & FLAG_MEDIA_ADDED_AUDIO)
     {
         JNIEnv *env = getEnv();
@@ -531,6 +630,7 @@ void AndroidMediaLibrary::onArtistsAdded( std::vector<medialibrary::ArtistPtr> a
 
 void AndroidMediaLibrary::onArtistsModified( std::vector<medialibrary::ArtistPtr> artist )
 {
+    invalidatePages();
     if (m_mediaUpdatedType & FLAG_MEDIA_UPDATED_AUDIO)
     {
         JNIEnv *env = getEnv();
@@ -548,11 +648,12 @@ void AndroidMediaLibrary::onArtistsModified( std::vector<medialibrary::ArtistPtr
 
 void AndroidMediaLibrary::onArtistsDeleted( std::vector<int64_t> ids )
 {
-
+    invalidatePages();
 }
 
 void AndroidMediaLibrary::onAlbumsAdded( std::vector<medialibrary::AlbumPtr> albums )
 {
+    invalidatePages();
     if (m_mediaAddedType & FLAG_MEDIA_ADDED_AUDIO)
     {
         JNIEnv *env = getEnv();
@@ -570,6 +671,7 @@ void AndroidMediaLibrary::onAlbumsAdded( std::vector<medialibrary::AlbumPtr> alb
 
 void AndroidMediaLibrary::onAlbumsModified( std::vector<medialibrary::AlbumPtr> albums )
 {
+    invalidatePages();
     if (m_mediaUpdatedType & FLAG_MEDIA_UPDATED_AUDIO)
     {
         JNIEnv *env = getEnv();
@@ -587,31 +689,31 @@ void AndroidMediaLibrary::onAlbumsModified( std::vector<medialibrary::AlbumPtr>
 
 void AndroidMediaLibrary::onPlaylistsAdded( std::vector<medialibrary::PlaylistPtr> playlists )
 {
-
+    invalidatePages();
 }
 
 void AndroidMediaLibrary::onPlaylistsModified( std::vector<medialibrary::PlaylistPtr> playlist )
 {
-
+    invalidatePages();
 }
 
 void AndroidMediaLibrary::onPlaylistsDeleted( std::vector<int64_t> ids )
 {
-
+    invalidatePages();
 }
 
 void AndroidMediaLibrary::onAlbumsDeleted( std::vector<int64_t> ids )
 {
-
+    invalidatePages();
 }
 
 void AndroidMediaLibrary::onTracksAdded( std::vector<medialibrary::AlbumTrackPtr> tracks )
 {
-
+    invalidatePages();
 }
 void AndroidMediaLibrary::onTracksDeleted( std::vector<int64_t> trackIds )
 {
-
+    invalidatePages();
 }
 
 void AndroidMediaLibrary::onDiscoveryStarted( const std::string& entryPoint )
@@ -4,6 +4,8 @@
 #include <vector>
 #include <string>
 #include <tuple>
+#include <atomic>
+#include <mutex>
 #include <stdlib.h>
 #include <jni.h>
 #include <pthread.h>
@@ -64,15 +66,21 @@ public:
     medialibrary::MediaPtr addMedia(const std::string& mrl);
     std::vector<medialibrary::MediaPtr> videoFiles( medialibrary::SortingCriteria sort = medialibrary::SortingCriteria::Default, bool desc = false );
     std::vector<medialibrary::MediaPtr> audioFiles( medialibrary::SortingCriteria sort = medialibrary::SortingCriteria::Default, bool desc = false );
-    std::vector<medialibrary::AlbumPtr> albums();
+    std::vector<medialibrary::AlbumPtr> albums( medialibrary::SortingCriteria sort = medialibrary::SortingCriteria::Default, bool desc = false );
     medialibrary::AlbumPtr album(int64_t albumId);
-    std::vector<medialibrary::ArtistPtr> artists(bool includeAll);
+    std::vector<medialibrary::ArtistPtr> artists( bool includeAll, medialibrary::SortingCriteria sort = medialibrary::SortingCriteria::Default, bool desc = false );
     medialibrary::ArtistPtr artist(int64_t artistId);
     std::vector<medialibrary::GenrePtr> genres();
     medialibrary::GenrePtr genre(int64_t genreId);
-    std::vector<medialibrary::PlaylistPtr> playlists();
+    std::vector<medialibrary::PlaylistPtr> playlists( medialibrary::SortingCriteria sort = medialibrary::SortingCriteria::Default, bool desc = false );
     medialibrary::PlaylistPtr playlist( int64_t playlistId );
     medialibrary::PlaylistPtr PlaylistCreate( const std::string &name );
+    /* Paged queries, served from a snapshot of the list taken by the page at offset 0. A negative limit means no limit. */
+    std::vector<medialibrary::MediaPtr> videoFilesPage( medialibrary::SortingCriteria sort, bool desc, int offset, int limit );
+    std::vector<medialibrary::MediaPtr> audioFilesPage( medialibrary::SortingCriteria sort, bool desc, int offset, int limit );
+    std::vector<medialibrary::AlbumPtr> albumsPage( medialibrary::SortingCriteria sort, bool desc, int offset, int limit );
+    std::vector<medialibrary::ArtistPtr> artistsPage( bool includeAll, medialibrary::SortingCriteria sort, bool desc, int offset, int limit );
+    std::vector<medialibrary::PlaylistPtr> playlistsPage( medialibrary::SortingCriteria sort, bool desc, int offset, int limit );
     std::vector<medialibrary::MediaPtr> tracksFromAlbum( int64_t albumId );
     std::vector<medialibrary::MediaPtr> mediaFromArtist( int64_t artistId );
     std::vector<medialibrary::AlbumPtr> albumsFromArtist( int64_t artistId );
@@ -118,6 +126,20 @@ public:
     void onBackgroundTasksIdleChanged( bool isIdle );
 
 private:
+    template <typename T>
+    struct PageSnapshot
+    {
+        std::mutex lock;
+        std::vector<T> items;
+        /* Size of the list once its last page has been read and items released */
+        size_t releasedSize = 0;
+        bool released = false;
+        int key = -1;
+        uint32_t generation = 0;
+    };
+    template <typename T, typename Fetch>
+    std::vector<T> page( PageSnapshot<T>& snapshot, int key, int offset, int limit, Fetch fetch );
+    void invalidatePages();
     void jni_detach_thread(void *data);
     jobject getWeakReference(JNIEnv *env);
     JNIEnv *getEnv();
@@ -131,5 +153,11 @@ private:
     medialibrary::IDeviceListerCb* p_DeviceListerCb = nullptr;
     bool m_paused = false;
     uint32_t m_nbDiscovery = 0, m_progress = 0, m_mediaAddedType = 0, m_mediaUpdatedType = 0;
+    /* Bumped by every change of the library, snapshots of an older generation are refetched */
+    std::atomic<uint32_t> m_pagesGeneration{0};
+    PageSnapshot<medialibrary::MediaPtr> m_videoPages, m_audioPages;
+    PageSnapshot<medialibrary::AlbumPtr> m_albumPages;
+    PageSnapshot<medialibrary::ArtistPtr> m_artistPages;
+    PageSnapshot<medialibrary::PlaylistPtr> m_playlistPages;
 };
 #endif // ANDROIDMEDIALIBRARY_H
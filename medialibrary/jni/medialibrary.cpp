@@ -1,5 +1,6 @@
 #include <stdlib.h>
 #include <string>
+#include <algorithm>
 #include "jniloader.h"
 #include <medialibrary/IDeviceLister.h>
 #define LOG_TAG "VLC/JNI/MediaLibrary"
@@ -311,6 +312,39 @@ getRecentAudio(JNIEnv* env, jobject thiz)
     return getInternalAudio(env, thiz, medialibrary::SortingCriteria::InsertionDate, true);
 }
 
+/*
+ * Paged queries: pages of a pass are sliced from a single fetch of the list, see
+ * AndroidMediaLibrary::page(). A negative limit means no limit.
+ */
+static jobjectArray
+mediaPage(JNIEnv* env, const std::vector<medialibrary::MediaPtr>& mediaList)
+{
+    jobjectArray mediaRefs = (jobjectArray) env->NewObjectArray(mediaList.size(), ml_fields.MediaWrapper.clazz, NULL);
+    int index = -1, drops = 0;
+    for(medialibrary::MediaPtr const& media : mediaList) {
+        jobject item = mediaToMediaWrapper(env, &ml_fields, media);
+        env->SetObjectArrayElement(mediaRefs, ++index, item);
+        if (item == nullptr)
+            ++drops;
+        env->DeleteLocalRef(item);
+    }
+    return filteredArray(env, &ml_fields, mediaRefs, drops);
+}
+
+jobjectArray
+getPagedVideos(JNIEnv* env, jobject thiz, jint sort, jboolean desc, jint offset, jint limit)
+{
+    AndroidMediaLibrary *aml = MediaLibrary_getInstance(env, thiz);
+    return mediaPage(env, aml->videoFilesPage((medialibrary::SortingCriteria) sort, desc, offset, limit));
+}
+
+jobjectArray
+getPagedAudio(JNIEnv* env, jobject thiz, jint sort, jboolean desc, jint offset, jint limit)
+{
+    AndroidMediaLibrary *aml = MediaLibrary_getInstance(env, thiz);
+    return mediaPage(env, aml->audioFilesPage((medialibrary::SortingCriteria) sort, desc, offset, limit));
+}
+
 jobject
 search(JNIEnv* env, jobject thiz, jstring query)
 {
@@ -415,6 +449,24 @@ getMedia(JNIEnv* env, jobject thiz, jlong id) {
     return mediaToMediaWrapper(env, &ml_fields, aml->media(id));
 }
 
+jobjectArray
+getMediaFromIds(JNIEnv* env, jobject thiz, jlongArray ids) {
+    AndroidMediaLibrary *aml = MediaLibrary_getInstance(env, thiz);
+    const jsize count = env->GetArrayLength(ids);
+    jobjectArray mediaRefs = (jobjectArray) env->NewObjectArray(count, ml_fields.MediaWrapper.clazz, NULL);
+    jlong *idArray = env->GetLongArrayElements(ids, NULL);
+    for (jsize i = 0; i < count; ++i) {
+        // Unknown ids are left null, to keep indexes
+        jobject item = mediaToMediaWrapper(env, &ml_fields, aml->media(idArray[i]));
+        if (item == nullptr)
+            continue;
+        env->SetObjectArrayElement(mediaRefs, i, item);
+        env->DeleteLocalRef(item);
+    }
+    env->ReleaseLongArrayElements(ids, idArray, JNI_ABORT);
+    return mediaRefs;
+}
+
 jobject
 getMediaFromMrl(JNIEnv* env, jobject thiz, jstring mrl) {
     AndroidMediaLibrary *aml = MediaLibrary_getInstance(env, thiz);
@@ -448,6 +500,27 @@ getAlbums(JNIEnv* env, jobject thiz)
     return albumRefs;
 }
 
+jobjectArray
+getPagedAlbums(JNIEnv* env, jobject thiz, jint sort, jboolean desc, jint offset, jint limit)
+{
+    AndroidMediaLibrary *aml = MediaLibrary_getInstance(env, thiz);
+    std::vector<medialibrary::AlbumPtr> albums = aml->albumsPage((medialibrary::SortingCriteria) sort, desc, offset, limit);
+    jobjectArray albumRefs = (jobjectArray) env->NewObjectArray(albums.size(), ml_fields.Album.clazz, NULL);
+    int index = -1;
+    for(medialibrary::AlbumPtr const& album : albums) {
+        jobject item = convertAlbumObject(env, &ml_fields, album);
+        env->SetObjectArrayElement(albumRefs, ++index, item);
+        env->DeleteLocalRef(item);
+    }
+    return albumRefs;
+}
+
+jint
+getAlbumsCount(JNIEnv* env, jobject thiz)
+{
+    return MediaLibrary_getInstance(env, thiz)->albums().size();
+}
+
 jobject
 getAlbum(JNIEnv* env, jobject thiz, jlong id)
 {
@@ -471,6 +544,27 @@ getArtists(JNIEnv* env, jobject thiz, jboolean all)
     return artistRefs;
 }
 
+jobjectArray
+getPagedArtists(JNIEnv* env, jobject thiz, jboolean all, jint sort, jboolean desc, jint offset, jint limit)
+{
+    AndroidMediaLibrary *aml = MediaLibrary_getInstance(env, thiz);
+    std::vector<medialibrary::ArtistPtr> artists = aml->artistsPage(all, (medialibrary::SortingCriteria) sort, desc, offset, limit);
+    jobjectArray artistRefs = (jobjectArray) env->NewObjectArray(artists.size(), ml_fields.Artist.clazz, NULL);
+    int index = -1;
+    for(medialibrary::ArtistPtr const& artist : artists) {
+        jobject item = convertArtistObject(env, &ml_fields, artist);
+        env->SetObjectArrayElement(artistRefs, ++index, item);
+        env->DeleteLocalRef(item);
+    }
+    return artistRefs;
+}
+
+jint
+getArtistsCount(JNIEnv* env, jobject thiz, jboolean all)
+{
+    return MediaLibrary_getInstance(env, thiz)->artists(all).size();
+}
+
 jobject
 getArtist(JNIEnv* env, jobject thiz, jlong id)
 {
@@ -517,6 +611,27 @@ getPlaylists(JNIEnv* env, jobject thiz)
     return playlistRefs;
 }
 
+jobjectArray
+getPagedPlaylists(JNIEnv* env, jobject thiz, jint sort, jboolean desc, jint offset, jint limit)
+{
+    AndroidMediaLibrary *aml = MediaLibrary_getInstance(env, thiz);
+    std::vector<medialibrary::PlaylistPtr> playlists = aml->playlistsPage((medialibrary::SortingCriteria) sort, desc, offset, limit);
+    jobjectArray playlistRefs = (jobjectArray) env->NewObjectArray(playlists.size(), ml_fields.Playlist.clazz, NULL);
+    int index = -1;
+    for(medialibrary::PlaylistPtr const& playlist : playlists) {
+        jobject item = convertPlaylistObject(env, &ml_fields, playlist);
+        env->SetObjectArrayElement(playlistRefs, ++index, item);
+        env->DeleteLocalRef(item);
+    }
+    return playlistRefs;
+}
+
+jint
+getPlaylistsCount(JNIEnv* env, jobject thiz)
+{
+    return MediaLibrary_getInstance(env, thiz)->playlists().size();
+}
+
 jobject
 getPlaylist(JNIEnv* env, jobject thiz, jlong id)
 {
@@ -695,6 +810,72 @@ setMediaLongMetadata(JNIEnv* env, jobject thiz, jobject medialibrary, jlong id,
     media->setMetadata((medialibrary::IMedia::MetadataType)metadataType, meta);
 }
 
+/*
+ * Batched metadata: one media lookup per id for all the requested types.
+ * Values are stored row by row, at [media index * types count + type index].
+ */
+
+jlongArray
+getMediasLongMetadata(JNIEnv* env, jobject thiz, jlongArray ids, jintArray types)
+{
+    AndroidMediaLibrary *aml = MediaLibrary_getInstance(env, thiz);
+    const jsize idsCount = env->GetArrayLength(ids);
+    const jsize typesCount = env->GetArrayLength(types);
+    jlongArray values = env->NewLongArray(idsCount * typesCount);
+    if (values == nullptr || idsCount == 0 || typesCount == 0)
+        return values;
+    jlong *idsArray = env->GetLongArrayElements(ids, nullptr);
+    jint *typesArray = env->GetIntArrayElements(types, nullptr);
+    jlong *valuesArray = env->GetLongArrayElements(values, nullptr);
+    for (jsize i = 0; i < idsCount; ++i) {
+        medialibrary::MediaPtr media = aml->media(idsArray[i]);
+        for (jsize j = 0; j < typesCount; ++j) {
+            jlong value = 0L;
+            if (media != nullptr) {
+                const medialibrary::IMediaMetadata& metadata = media->metadata((medialibrary::IMedia::MetadataType)typesArray[j]);
+                if (metadata.isSet())
+                    value = metadata.integer();
+            }
+            valuesArray[i * typesCount + j] = value;
+        }
+    }
+    env->ReleaseLongArrayElements(values, valuesArray, 0);
+    env->ReleaseIntArrayElements(types, typesArray, JNI_ABORT);
+    env->ReleaseLongArrayElements(ids, idsArray, JNI_ABORT);
+    return values;
+}
+
+jobjectArray
+getMediasStringMetadata(JNIEnv* env, jobject thiz, jlongArray ids, jintArray types)
+{
+    AndroidMediaLibrary *aml = MediaLibrary_getInstance(env, thiz);
+    const jsize idsCount = env->GetArrayLength(ids);
+    const jsize typesCount = env->GetArrayLength(types);
+    jclass stringClass = env->FindClass("java/lang/String");
+    jobjectArray values = env->NewObjectArray(idsCount * typesCount, stringClass, NULL);
+    env->DeleteLocalRef(stringClass);
+    if (values == nullptr || idsCount == 0 || typesCount == 0)
+        return values;
+    jlong *idsArray = env->GetLongArrayElements(ids, nullptr);
+    jint *typesArray = env->GetIntArrayElements(types, nullptr);
+    for (jsize i = 0; i < idsCount; ++i) {
+        medialibrary::MediaPtr media = aml->media(idsArray[i]);
+        if (media == nullptr)
+            continue;
+        for (jsize j = 0; j < typesCount; ++j) {
+            const medialibrary::IMediaMetadata& metadata = media->metadata((medialibrary::IMedia::MetadataType)typesArray[j]);
+            if (!metadata.isSet())
+                continue;
+            jstring value = env->NewStringUTF(metadata.str().c_str());
+            env->SetObjectArrayElement(values, i * typesCount + j, value);
+            env->DeleteLocalRef(value);
+        }
+    }
+    env->ReleaseIntArrayElements(types, typesArray, JNI_ABORT);
+    env->ReleaseLongArrayElements(ids, idsArray, JNI_ABORT);
+    return values;
+}
+
 /*
  * Playlist methods
  */
@@ -787,6 +968,8 @@ static JNINativeMethod methods[] = {
     {"nativeGetRecentVideos", "()[Lorg/videolan/medialibrary/media/MediaWrapper;", (void*)getRecentVideos },
     {"nativeGetAudio", "()[Lorg/videolan/medialibrary/media/MediaWrapper;", (void*)getAudio },
     {"nativeGetRecentAudio", "()[Lorg/videolan/medialibrary/media/MediaWrapper;", (void*)getRecentAudio },
+    {"nativeGetPagedVideos", "(IZII)[Lorg/videolan/medialibrary/media/MediaWrapper;", (void*)getPagedVideos },
+    {"nativeGetPagedAudio", "(IZII)[Lorg/videolan/medialibrary/media/MediaWrapper;", (void*)getPagedAudio },
     {"nativeSearch", "(Ljava/lang/String;)Lorg/videolan/medialibrary/media/SearchAggregate;", (void*)search},
     {"nativeSearchMedia", "(Ljava/lang/String;)Lorg/videolan/medialibrary/media/MediaSearchAggregate;", (void*)searchMedia},
     {"nativeSearchAlbum", "(Ljava/lang/String;)[Lorg/videolan/medialibrary/media/Album;", (void*)searchAlbum },
@@ -794,17 +977,26 @@ static JNINativeMethod methods[] = {
     {"nativeSearchGenre", "(Ljava/lang/String;)[Lorg/videolan/medialibrary/media/Genre;", (void*)searchGenre },
     {"nativeSearchPlaylist", "(Ljava/lang/String;)[Lorg/videolan/medialibrary/media/Playlist;", (void*)searchPlaylist },
     {"nativeGetMedia", "(J)Lorg/videolan/medialibrary/media/MediaWrapper;", (void*)getMedia },
+    {"nativeGetMediaFromIds", "([J)[Lorg/videolan/medialibrary/media/MediaWrapper;", (void*)getMediaFromIds },
     {"nativeGetMediaFromMrl", "(Ljava/lang/String;)Lorg/videolan/medialibrary/media/MediaWrapper;", (void*)getMediaFromMrl },
     {"nativeAddMedia", "(Ljava/lang/String;)Lorg/videolan/medialibrary/media/MediaWrapper;", (void*)addMedia },
     {"nativeGetVideoCount", "()I", (void*)getVideoCount },
     {"nativeGetAudioCount", "()I", (void*)getAudioCount },
     {"nativeGetAlbums", "()[Lorg/videolan/medialibrary/media/Album;", (void*)getAlbums },
+    {"nativeGetPagedAlbums", "(IZII)[Lorg/videolan/medialibrary/media/Album;", (void*)getPagedAlbums },
+    {"nativeGetAlbumsCount", "()I", (void*)getAlbumsCount },
     {"nativeGetAlbum", "(J)Lorg/videolan/medialibrary/media/Album;", (void*)getAlbum },
     {"nativeGetArtists", "(Z)[Lorg/videolan/medialibrary/media/Artist;", (void*)getArtists },
+    {"nativeGetPagedArtists", "(ZIZII)[Lorg/videolan/medialibrary/media/Artist;", (void*)getPagedArtists },
+    {"nativeGetArtistsCount", "(Z)I", (void*)getArtistsCount },
     {"nativeGetArtist", "(J)Lorg/videolan/medialibrary/media/Artist;", (void*)getArtist },
     {"nativeGetGenres", "()[Lorg/videolan/medialibrary/media/Genre;", (void*)getGenres },
     {"nativeGetGenre", "(J)Lorg/videolan/medialibrary/media/Genre;", (void*)getGenre },
     {"nativeGetPlaylists", "()[Lorg/videolan/medialibrary/media/Playlist;", (void*)getPlaylists },
+    {"nativeGetPagedPlaylists", "(IZII)[Lorg/videolan/medialibrary/media/Playlist;", (void*)getPagedPlaylists },
+    {"nativeGetPlaylistsCount", "()I", (void*)getPlaylistsCount },
+    {"nativeGetMediasLongMetadata", "([J[I)[J", (void*)getMediasLongMetadata },
+    {"nativeGetMediasStringMetadata", "([J[I)[Ljava/lang/String;", (void*)getMediasStringMetadata },
     {"nativeGetPlaylist", "(J)Lorg/videolan/medialibrary/media/Playlist;", (void*)getPlaylist },
     {"nativePauseBackgroundOperations", "()V", (void*)pauseBackgroundOperations },
     {"nativeResumeBackgroundOperations", "()V", (void*)resumeBackgroundOperations },
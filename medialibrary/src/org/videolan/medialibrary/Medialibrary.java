@@ -20,6 +20,7 @@ import org.videolan.libvlc.util.VLCUtil;
 import org.videolan.medialibrary.interfaces.DevicesDiscoveryCb;
 import org.videolan.medialibrary.interfaces.EntryPointsEventsCb;
 import org.videolan.medialibrary.interfaces.MediaAddedCb;
+import org.videolan.medialibrary.interfaces.MediaDeletedCb;
 import org.videolan.medialibrary.interfaces.MediaUpdatedCb;
 import org.videolan.medialibrary.media.Album;
 import org.videolan.medialibrary.media.Artist;
@@ -51,6 +52,20 @@ public class Medialibrary {
     public static final int ML_INIT_FAILED = 2;
     public static final int ML_INIT_DB_RESET = 3;
 
+    /* Sorting criteria of paged queries, same values as medialibrary::SortingCriteria */
+    public static final int SORT_DEFAULT = 0;
+    public static final int SORT_ALPHA = 1;
+    public static final int SORT_DURATION = 2;
+    public static final int SORT_INSERTIONDATE = 3;
+    public static final int SORT_LASTMODIFICATIONDATE = 4;
+    public static final int SORT_RELEASEDATE = 5;
+    public static final int SORT_FILESIZE = 6;
+    public static final int SORT_ARTIST = 7;
+    public static final int SORT_PLAYCOUNT = 8;
+    public static final int SORT_ALBUM = 9;
+    public static final int SORT_FILENAME = 10;
+    public static final int SORT_TRACKNUMBER = 11;
+
     public static final String ACTION_IDLE = "action_idle";
     public static final String STATE_IDLE = "state_idle";
 
@@ -65,6 +80,7 @@ public class Medialibrary {
 
     private MediaUpdatedCb mediaUpdatedCb = null;
     private MediaAddedCb mediaAddedCb = null;
+    private MediaDeletedCb mediaDeletedCb = null;
     private ArtistsAddedCb mArtistsAddedCb = null;
     private ArtistsModifiedCb mArtistsModifiedCb = null;
     private AlbumsAddedCb mAlbumsAddedCb = null;
@@ -180,6 +196,68 @@ public class Medialibrary {
         return mIsInitiated ? nativeGetAudioCount() : 0;
     }
 
+    /*
+     * Paged queries: only the items in [offset, offset + limit) are converted to Java objects,
+     * a negative limit returns all items from offset. The page at offset 0 fetches the list,
+     * the following pages with the same sorting are read from this fetch, unless the library
+     * changed in between. Media without files are dropped from their page, so a page may be
+     * shorter than limit before the end of the list: only an empty page ends it.
+     */
+
+    @WorkerThread
+    public MediaWrapper[] getPagedVideos(int sort, boolean desc, int offset, int limit) {
+        return mIsInitiated ? nativeGetPagedVideos(sort, desc, offset, limit) : new MediaWrapper[0];
+    }
+
+    @WorkerThread
+    public MediaWrapper[] getPagedAudio(int sort, boolean desc, int offset, int limit) {
+        return mIsInitiated ? nativeGetPagedAudio(sort, desc, offset, limit) : new MediaWrapper[0];
+    }
+
+    @WorkerThread
+    public Album[] getPagedAlbums(int sort, boolean desc, int offset, int limit) {
+        return mIsInitiated ? nativeGetPagedAlbums(sort, desc, offset, limit) : new Album[0];
+    }
+
+    public int getAlbumsCount() {
+        return mIsInitiated ? nativeGetAlbumsCount() : 0;
+    }
+
+    @WorkerThread
+    public Artist[] getPagedArtists(boolean all, int sort, boolean desc, int offset, int limit) {
+        return mIsInitiated ? nativeGetPagedArtists(all, sort, desc, offset, limit) : new Artist[0];
+    }
+
+    public int getArtistsCount(boolean all) {
+        return mIsInitiated ? nativeGetArtistsCount(all) : 0;
+    }
+
+    @WorkerThread
+    public Playlist[] getPagedPlaylists(int sort, boolean desc, int offset, int limit) {
+        return mIsInitiated ? nativeGetPagedPlaylists(sort, desc, offset, limit) : new Playlist[0];
+    }
+
+    public int getPlaylistsCount() {
+        return mIsInitiated ? nativeGetPlaylistsCount() : 0;
+    }
+
+    /**
+     * Fetch several metadata of several media at once
+     * @return values of media ids[i] for types[j] at [i * types.length + j], 0 when not set
+     */
+    @WorkerThread
+    public long[] getMediasLongMetadata(long[] ids, int[] types) {
+        return mIsInitiated ? nativeGetMediasLongMetadata(ids, types) : new long[ids.length * types.length];
+    }
+
+    /**
+     * Same as {@link #getMediasLongMetadata(long[], int[])} for string metadata, null when not set
+     */
+    @WorkerThread
+    public String[] getMediasStringMetadata(long[] ids, int[] types) {
+        return mIsInitiated ? nativeGetMediasStringMetadata(ids, types) : new String[ids.length * types.length];
+    }
+
     @WorkerThread
     public Album[] getAlbums() {
         return mIsInitiated ? nativeGetAlbums() : new Album[0];
@@ -272,6 +350,16 @@ public class Medialibrary {
         return mIsInitiated ? nativeGetMedia(id) : null;
     }
 
+    /**
+     * Get several media in one call
+     *
+     * @return an array of the same size as ids, with null for unknown ids
+     */
+    @NonNull
+    public MediaWrapper[] getMedia(long[] ids) {
+        return mIsInitiated ? nativeGetMediaFromIds(ids) : new MediaWrapper[ids.length];
+    }
+
     @Nullable
     public MediaWrapper getMedia(Uri uri) {
         final String vlcMrl = Tools.encodeVLCMrl(Uri.decode(uri.toString()));
@@ -338,6 +426,8 @@ public class Medialibrary {
     public void onMediaDeleted(long[] ids) {
         for (long id : ids)
             Log.d(TAG, "onMediaDeleted: "+id);
+        if (mediaDeletedCb != null)
+            mediaDeletedCb.onMediaDeleted(ids);
     }
 
     @SuppressWarnings("unused")
@@ -578,6 +668,14 @@ public class Medialibrary {
         setMediaAddedCb(null, 0);
     }
 
+    public void setMediaDeletedCb(MediaDeletedCb mediaDeletedCb) {
+        this.mediaDeletedCb = mediaDeletedCb;
+    }
+
+    public void removeMediaDeletedCb() {
+        setMediaDeletedCb(null);
+    }
+
     public static String[] getBlackList() {
         return new String[] {
                 "/Android/data/",
@@ -632,6 +730,7 @@ public class Medialibrary {
     private native  boolean nativeAddToHistory(String mrl, String title);
     private native  boolean nativeClearHistory();
     private native MediaWrapper nativeGetMedia(long id);
+    private native MediaWrapper[] nativeGetMediaFromIds(long[] ids);
     private native MediaWrapper nativeGetMediaFromMrl(String mrl);
     private native MediaWrapper nativeAddMedia(String mrl);
     private native MediaWrapper[] nativeGetVideos();
@@ -640,6 +739,16 @@ public class Medialibrary {
     private native MediaWrapper[] nativeGetRecentAudio();
     private native int nativeGetVideoCount();
     private native int nativeGetAudioCount();
+    private native MediaWrapper[] nativeGetPagedVideos(int sort, boolean desc, int offset, int limit);
+    private native MediaWrapper[] nativeGetPagedAudio(int sort, boolean desc, int offset, int limit);
+    private native Album[] nativeGetPagedAlbums(int sort, boolean desc, int offset, int limit);
+    private native int nativeGetAlbumsCount();
+    private native Artist[] nativeGetPagedArtists(boolean all, int sort, boolean desc, int offset, int limit);
+    private native int nativeGetArtistsCount(boolean all);
+    private native Playlist[] nativeGetPagedPlaylists(int sort, boolean desc, int offset, int limit);
+    private native int nativeGetPlaylistsCount();
+    private native long[] nativeGetMediasLongMetadata(long[] ids, int[] types);
+    private native String[] nativeGetMediasStringMetadata(long[] ids, int[] types);
     private native Album[] nativeGetAlbums();
     private native Album nativeGetAlbum(long albumtId);
     private native Artist[] nativeGetArtists(boolean all);
@@ -10,18 +10,18 @@ import org.videolan.libvlc.util.VLCUtil;
 import org.videolan.medialibrary.media.MediaLibraryItem;
 import org.videolan.medialibrary.media.MediaWrapper;
 
-import java.text.DecimalFormat;
-import java.text.NumberFormat;
 import java.util.Locale;
 
 public class Tools {
 
     private static final String TAG = "VLC/Tools";
-    private static StringBuilder sb = new StringBuilder();
-    private static DecimalFormat format = (DecimalFormat) NumberFormat.getInstance(Locale.US);
-    static {
-        format.applyPattern("00");
-    }
+    /* Formatting buffer of each thread */
+    private static final ThreadLocal<StringBuilder> sBuilder = new ThreadLocal<StringBuilder>() {
+        @Override
+        protected StringBuilder initialValue() {
+            return new StringBuilder(32);
+        }
+    };
 
     /*
      * Convert file:// uri from real path to emulated FS path.
@@ -39,9 +39,10 @@ public class Tools {
     public static String getProgressText(MediaWrapper media) {
         long lastTime = media.getTime();
         if (lastTime == 0L) return "";
-        return String.format("%s / %s",
-                millisToString(lastTime, true, false),
-                millisToString(media.getLength(), true, false));
+        final StringBuilder sb = sBuilder.get();
+        sb.setLength(0);
+        appendMillis(sb, lastTime, true, false).append(" / ");
+        return appendMillis(sb, media.getLength(), true, false).toString();
     }
 
     /**
@@ -95,11 +96,23 @@ public class Tools {
     }
 
     public static String millisToString(long millis, boolean text, boolean seconds) {
+        final StringBuilder sb = sBuilder.get();
         sb.setLength(0);
+        return appendMillis(sb, millis, text, seconds).toString();
+    }
+
+    /**
+     * Append time to sb, without allocating
+     * @param text "[hh]h[mm]min[s]s" format if true, (hh:)mm:ss otherwise
+     * @param seconds whether seconds are shown in text format when there are hours or minutes
+     * @return sb
+     */
+    public static StringBuilder appendMillis(StringBuilder sb, long millis, boolean text, boolean seconds) {
         if (millis < 0) {
             millis = -millis;
-            sb.append("-");
+            sb.append('-');
         }
+        final int start = sb.length();
 
         millis /= 1000;
         int sec = (int) (millis % 60);
@@ -110,18 +123,30 @@ public class Tools {
 
         if (text) {
             if (hours > 0)
-                sb.append(hours).append('h');
+                appendNumber(sb, hours, 1).append('h');
             if (min > 0)
-                sb.append(min).append("min");
-            if ((seconds || sb.length() == 0) && sec > 0)
-                sb.append(sec).append("s");
+                appendNumber(sb, min, 1).append("min");
+            if ((seconds || sb.length() == start) && sec > 0)
+                appendNumber(sb, sec, 1).append('s');
         } else {
             if (hours > 0)
-                sb.append(hours).append(':').append(format.format(min)).append(':').append(format.format(sec));
+                appendNumber(appendNumber(appendNumber(sb, hours, 1).append(':'), min, 2).append(':'), sec, 2);
             else
-                sb.append(min).append(':').append(format.format(sec));
+                appendNumber(appendNumber(sb, min, 1).append(':'), sec, 2);
         }
-        return sb.toString();
+        return sb;
+    }
+
+    /**
+     * Append a positive number with at least digits digits, left padded with zeros
+     */
+    private static StringBuilder appendNumber(StringBuilder sb, int number, int digits) {
+        int divisor = 1;
+        for (int i = 1; i < digits || number / divisor >= 10; ++i)
+            divisor *= 10;
+        for (; divisor > 0; divisor /= 10)
+            sb.append((char) ('0' + number / divisor % 10));
+        return sb;
     }
 
     static String encodeVLCMrl(String mrl) {
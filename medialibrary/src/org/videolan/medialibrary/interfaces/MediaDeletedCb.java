@@ -0,0 +1,5 @@
+package org.videolan.medialibrary.interfaces;
+
+public interface MediaDeletedCb {
+    void onMediaDeleted(long[] ids);
+}
@@ -4,6 +4,8 @@ import android.os.Parcel;
 import android.os.Parcelable;
 import android.text.TextUtils;
 
+import java.util.Locale;
+
 public abstract class MediaLibraryItem implements Parcelable {
 
     public static final int TYPE_ALBUM    = 1 << 1;
@@ -18,6 +20,11 @@ public abstract class MediaLibraryItem implements Parcelable {
     public static final int FLAG_NONE = 0;
     public static final int FLAG_SELECTED = 1;
 
+    protected static final int SORT_KEY_TITLE = 0;
+    protected static final int SORT_KEY_ARTIST = 1;
+    protected static final int SORT_KEY_ALBUM = 2;
+    private static final int SORT_KEY_COUNT = 3;
+
 
     public abstract MediaWrapper[] getTracks();
     public abstract int getItemType();
@@ -26,6 +33,20 @@ public abstract class MediaLibraryItem implements Parcelable {
     protected String mTitle;
     String mDescription;
     private int mFlags;
+    private SortKey[] mSortKeys;
+
+    /**
+     * Upper cased value, kept as long as the value it comes from is the same
+     */
+    private static final class SortKey {
+        final String value;
+        final String key;
+
+        SortKey(String value) {
+            this.value = value;
+            this.key = value.toUpperCase(Locale.ENGLISH);
+        }
+    }
 
     protected MediaLibraryItem() {}
 
@@ -46,6 +67,29 @@ public abstract class MediaLibraryItem implements Parcelable {
         mTitle = title;
     }
 
+    /**
+     * @return the title to compare with when sorting, computed once per title
+     */
+    public String getTitleSortKey() {
+        return getSortKey(SORT_KEY_TITLE, getTitle());
+    }
+
+    protected String getSortKey(int slot, String value) {
+        if (value == null)
+            return "";
+        SortKey[] keys = mSortKeys;
+        if (keys == null) {
+            keys = new SortKey[SORT_KEY_COUNT];
+            mSortKeys = keys;
+        }
+        SortKey sortKey = keys[slot];
+        if (sortKey == null || (sortKey.value != value && !sortKey.value.equals(value))) {
+            sortKey = new SortKey(value);
+            keys[slot] = sortKey;
+        }
+        return sortKey.key;
+    }
+
     public String getArtworkMrl() {
         return null;
     }
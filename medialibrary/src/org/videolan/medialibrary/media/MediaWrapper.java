@@ -26,6 +26,7 @@ import android.os.Parcel;
 import android.os.Parcelable;
 import android.support.annotation.Nullable;
 import android.text.TextUtils;
+import android.util.SparseArray;
 
 import org.videolan.libvlc.Media;
 import org.videolan.libvlc.Media.Meta;
@@ -119,6 +120,10 @@ public class MediaWrapper extends MediaLibraryItem implements Parcelable {
 
     private long mSeen = 0l;
 
+    /* Medialibrary metadata read by this instance, guarded by this */
+    private SparseArray<Long> mLongMetas;
+    private SparseArray<String> mStringMetas;
+
     /**
      * Create a new MediaWrapper
      * @param mrl Should not be null.
@@ -461,6 +466,14 @@ public class MediaWrapper extends MediaLibraryItem implements Parcelable {
         mArtist = artist;
     }
 
+    public String getArtistSortKey() {
+        return getSortKey(SORT_KEY_ARTIST, mArtist);
+    }
+
+    public String getAlbumSortKey() {
+        return getSortKey(SORT_KEY_ALBUM, mAlbum);
+    }
+
     public String getTitle() {
         if (!TextUtils.isEmpty(mDisplayTitle))
             return mDisplayTitle;
@@ -593,18 +606,39 @@ public class MediaWrapper extends MediaLibraryItem implements Parcelable {
     }
 
     public long getMetaLong(int metaDataType) {
+        synchronized (this) {
+            final Long cached = mLongMetas != null ? mLongMetas.get(metaDataType) : null;
+            if (cached != null)
+                return cached;
+        }
         Medialibrary ml = Medialibrary.getInstance();
-        return mId == 0 || !ml.isInitiated() ? 0L : nativeGetMediaLongMetadata(ml, mId, metaDataType);
+        if (mId == 0 || !ml.isInitiated())
+            return 0L;
+        final long value = nativeGetMediaLongMetadata(ml, mId, metaDataType);
+        cacheLongMeta(metaDataType, value);
+        return value;
     }
     public String getMetaString(int metaDataType) {
+        synchronized (this) {
+            if (mStringMetas != null && mStringMetas.indexOfKey(metaDataType) >= 0)
+                return mStringMetas.get(metaDataType);
+        }
         Medialibrary ml = Medialibrary.getInstance();
-        return mId == 0 || !ml.isInitiated() ? null : nativeGetMediaStringMetadata(ml, mId, metaDataType);
+        if (mId == 0 || !ml.isInitiated())
+            return null;
+        final String value = nativeGetMediaStringMetadata(ml, mId, metaDataType);
+        cacheStringMeta(metaDataType, value);
+        return value;
     }
 
     public boolean setLongMeta(int metaDataType, long metadataValue) {
         Medialibrary ml = Medialibrary.getInstance();
         if (mId != 0 && ml.isInitiated())
             nativeSetMediaLongMetadata(ml, mId, metaDataType, metadataValue);
+        synchronized (this) {
+            if (mLongMetas != null)
+                mLongMetas.remove(metaDataType);
+        }
         return mId != 0;
     }
 
@@ -612,9 +646,89 @@ public class MediaWrapper extends MediaLibraryItem implements Parcelable {
         Medialibrary ml = Medialibrary.getInstance();
         if (mId != 0 && ml.isInitiated())
             nativeSetMediaStringMetadata(ml, mId, metaDataType, metadataValue);
+        synchronized (this) {
+            if (mStringMetas != null)
+                mStringMetas.remove(metaDataType);
+        }
         return mId != 0;
     }
 
+    /**
+     * Load the given long metadata of this media in one native call,
+     * following {@link #getMetaLong(int)} calls on these types won't cross JNI.
+     */
+    public void prefetchMetaLong(int... metaDataTypes) {
+        prefetchMetaLong(new MediaWrapper[] {this}, metaDataTypes);
+    }
+
+    public void prefetchMetaString(int... metaDataTypes) {
+        prefetchMetaString(new MediaWrapper[] {this}, metaDataTypes);
+    }
+
+    /**
+     * Load the given long metadata of all medias in one native call
+     */
+    public static void prefetchMetaLong(MediaWrapper[] medias, int... metaDataTypes) {
+        final MediaWrapper[] libraryMedias = libraryMedias(medias);
+        if (libraryMedias == null || metaDataTypes.length == 0)
+            return;
+        final long[] values = Medialibrary.getInstance().getMediasLongMetadata(getIds(libraryMedias), metaDataTypes);
+        for (int i = 0; i < libraryMedias.length; ++i)
+            for (int j = 0; j < metaDataTypes.length; ++j)
+                libraryMedias[i].cacheLongMeta(metaDataTypes[j], values[i * metaDataTypes.length + j]);
+    }
+
+    public static void prefetchMetaString(MediaWrapper[] medias, int... metaDataTypes) {
+        final MediaWrapper[] libraryMedias = libraryMedias(medias);
+        if (libraryMedias == null || metaDataTypes.length == 0)
+            return;
+        final String[] values = Medialibrary.getInstance().getMediasStringMetadata(getIds(libraryMedias), metaDataTypes);
+        for (int i = 0; i < libraryMedias.length; ++i)
+            for (int j = 0; j < metaDataTypes.length; ++j)
+                libraryMedias[i].cacheStringMeta(metaDataTypes[j], values[i * metaDataTypes.length + j]);
+    }
+
+    /**
+     * @return medias which are in the medialibrary, or null if there is none or the medialibrary is not ready
+     */
+    private static MediaWrapper[] libraryMedias(MediaWrapper[] medias) {
+        if (medias == null || !Medialibrary.getInstance().isInitiated())
+            return null;
+        int count = 0;
+        for (MediaWrapper media : medias)
+            if (media != null && media.getId() != 0)
+                ++count;
+        if (count == 0)
+            return null;
+        if (count == medias.length)
+            return medias;
+        final MediaWrapper[] libraryMedias = new MediaWrapper[count];
+        int index = 0;
+        for (MediaWrapper media : medias)
+            if (media != null && media.getId() != 0)
+                libraryMedias[index++] = media;
+        return libraryMedias;
+    }
+
+    private static long[] getIds(MediaWrapper[] medias) {
+        final long[] ids = new long[medias.length];
+        for (int i = 0; i < medias.length; ++i)
+            ids[i] = medias[i].getId();
+        return ids;
+    }
+
+    private synchronized void cacheLongMeta(int metaDataType, long value) {
+        if (mLongMetas == null)
+            mLongMetas = new SparseArray<>();
+        mLongMetas.put(metaDataType, value);
+    }
+
+    private synchronized void cacheStringMeta(int metaDataType, String value) {
+        if (mStringMetas == null)
+            mStringMetas = new SparseArray<>();
+        mStringMetas.put(metaDataType, value);
+    }
+
     private native long nativeGetMediaLongMetadata(Medialibrary ml, long id, int metaDataType);
     private native String nativeGetMediaStringMetadata(Medialibrary ml, long id, int metaDataType);
     private native void nativeSetMediaStringMetadata(Medialibrary ml, long id, int metaDataType, String metadataValue);
@@ -2,6 +2,9 @@ package org.videolan.medialibrary;
 
 import junit.framework.TestCase;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
 public class ToolsTest extends TestCase {
     public void testIsArrayEmpty() throws Exception {
 
@@ -17,6 +20,53 @@ public class ToolsTest extends TestCase {
         assertEquals("17s", Tools.millisToString(17000, true, false));
         assertEquals("1h30s", Tools.millisToString(3630000, true, true));
         assertEquals("-32:40", Tools.millisToString(-1960000, false, true));
+        assertEquals("1:02:03", Tools.millisToString(3723000, false, true));
+        assertEquals("0:05", Tools.millisToString(5000, false, true));
+    }
+
+    public void testAppendMillis() throws Exception {
+        final StringBuilder sb = new StringBuilder("- ");
+        assertEquals("- 10:05", Tools.appendMillis(sb, 605000, false, true).toString());
+        assertEquals("- 10:05 / 17s", Tools.appendMillis(sb.append(" / "), 17000, true, false).toString());
+    }
+
+    /**
+     * Formatting used to share one buffer between threads, which mixed up concurrent results
+     */
+    public void testMillisToStringConcurrency() throws Exception {
+        final int threads = 8;
+        final long[] times = new long[threads];
+        final String[] expected = new String[threads];
+        for (int i = 0; i < threads; ++i) {
+            times[i] = (i + 1) * 3723000L + i * 1000L;
+            expected[i] = Tools.millisToString(times[i]);
+        }
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicReference<String> error = new AtomicReference<>();
+        final Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; ++i) {
+            final int index = i;
+            workers[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int j = 0; j < 20000 && error.get() == null; ++j) {
+                        final String result = Tools.millisToString(times[index]);
+                        if (!expected[index].equals(result))
+                            error.compareAndSet(null, "expected " + expected[index] + " but was " + result);
+                    }
+                }
+            });
+            workers[i].start();
+        }
+        start.countDown();
+        for (Thread worker : workers)
+            worker.join();
+        assertNull(error.get(), error.get());
     }
 
 }
\ No newline at end of file
@@ -98,6 +98,7 @@ import org.videolan.vlc.widget.VLCAppWidgetProviderWhite;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
@@ -1061,6 +1062,7 @@ public class PlaybackService extends MediaBrowserServiceCompat{
     private void notifyTrackChanged() {
         mHandler.sendEmptyMessage(SHOW_PROGRESS);
         updateMetadata();
+        updateMediaQueueWindow();
         updateWidget();
         broadcastMetadata();
     }
@@ -1365,23 +1367,76 @@ public class PlaybackService extends MediaBrowserServiceCompat{
         playlistManager.load(mediaList, position);
     }
 
+    /* Number of items published in the media session queue, around the current one */
+    private static final int QUEUE_WINDOW = 100;
+    private int mQueueStart = 0, mQueueEnd = 0;
+    private IdentityHashMap<MediaWrapper, QueueEntry> mQueueEntries = new IdentityHashMap<>();
+
+    private static class QueueEntry {
+        final MediaDescriptionCompat description;
+        final String artworkMrl;
+
+        QueueEntry(MediaDescriptionCompat description, String artworkMrl) {
+            this.description = description;
+            this.artworkMrl = artworkMrl;
+        }
+    }
+
+    /**
+     * Publish a window of the play queue. Queue item ids are the playlist positions.
+     * Descriptions of medias already published with the same title and artwork are reused.
+     * Remote artworks are given as uris, controllers can't read local ones so these are sent
+     * as the bitmaps already in the memory cache.
+     */
     private void updateMediaQueue() {
-        final LinkedList<MediaSessionCompat.QueueItem> queue = new LinkedList<>();
-        long position = -1;
-        for (MediaWrapper media : playlistManager.getMediaList()) {
+        final int size = playlistManager.getMediaListSize();
+        final int current = Math.max(0, playlistManager.getCurrentIndex());
+        final int start = Math.max(0, Math.min(current - QUEUE_WINDOW / 2, size - QUEUE_WINDOW));
+        final int end = Math.min(size, start + QUEUE_WINDOW);
+        final List<MediaSessionCompat.QueueItem> queue = new ArrayList<>(end - start);
+        final IdentityHashMap<MediaWrapper, QueueEntry> entries = new IdentityHashMap<>(end - start);
+        for (int position = start; position < end; ++position) {
+            final MediaWrapper media = playlistManager.getMedia(position);
+            if (media == null) continue;
             String title = media.getNowPlaying();
             if (title == null) title = media.getTitle();
-            final MediaDescriptionCompat.Builder builder = new MediaDescriptionCompat.Builder();
-            builder.setTitle(title)
-                    .setDescription(Util.getMediaDescription(MediaUtils.getMediaArtist(this, media), MediaUtils.getMediaAlbum(this, media)))
-                    .setIconBitmap(BitmapUtil.getPictureFromCache(media))
-                    .setMediaUri(media.getUri())
-                    .setMediaId(BrowserProvider.generateMediaId(media));
-            queue.add(new MediaSessionCompat.QueueItem(builder.build(), ++position));
+            final String artworkMrl = media.getArtworkMrl();
+            QueueEntry entry = mQueueEntries.get(media);
+            // Entries waiting for their bitmap to be cached are rebuilt
+            if (entry == null || !TextUtils.equals(entry.description.getTitle(), title)
+                    || !TextUtils.equals(entry.artworkMrl, artworkMrl)
+                    || (entry.description.getIconUri() == null && entry.description.getIconBitmap() == null)) {
+                final MediaDescriptionCompat.Builder builder = new MediaDescriptionCompat.Builder();
+                builder.setTitle(title)
+                        .setDescription(Util.getMediaDescription(MediaUtils.getMediaArtist(this, media), MediaUtils.getMediaAlbum(this, media)))
+                        .setMediaUri(media.getUri())
+                        .setMediaId(BrowserProvider.generateMediaId(media));
+                if (artworkMrl != null && artworkMrl.startsWith("http"))
+                    builder.setIconUri(Uri.parse(artworkMrl));
+                else
+                    builder.setIconBitmap(BitmapUtil.getPictureFromCache(media));
+                entry = new QueueEntry(builder.build(), artworkMrl);
+            }
+            entries.put(media, entry);
+            queue.add(new MediaSessionCompat.QueueItem(entry.description, position));
         }
+        mQueueEntries = entries;
+        mQueueStart = start;
+        mQueueEnd = end;
         mMediaSession.setQueue(queue);
     }
 
+    /**
+     * Move the published queue window when the current media gets close to one of its edges
+     */
+    private void updateMediaQueueWindow() {
+        if (mMediaSession == null) return;
+        final int current = playlistManager.getCurrentIndex();
+        if ((current < mQueueStart + QUEUE_WINDOW / 4 && mQueueStart > 0)
+                || (current >= mQueueEnd - QUEUE_WINDOW / 4 && mQueueEnd < playlistManager.getMediaListSize()))
+            updateMediaQueue();
+    }
+
     @MainThread
     public void load(MediaWrapper media) {
         load(Collections.singletonList(media), 0);
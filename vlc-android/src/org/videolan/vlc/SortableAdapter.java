@@ -1,6 +1,8 @@
 package org.videolan.vlc;
 
+import android.support.annotation.MainThread;
 import android.support.annotation.NonNull;
+import android.support.annotation.WorkerThread;
 import android.support.v7.widget.RecyclerView;
 
 import org.jetbrains.annotations.NotNull;
@@ -11,7 +13,6 @@ import org.videolan.vlc.util.MediaLibraryItemComparator;
 import org.videolan.vlc.util.Util;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 
@@ -20,6 +21,15 @@ public abstract class SortableAdapter<T extends MediaLibraryItem, VH extends Rec
     public static final MediaLibraryItemComparator sMediaComparator = new MediaLibraryItemComparator(SortableAdapter.class);
     private int mCurrentSort = -1, mCurrentDirection = 1;
 
+    private final Object mMergeLock = new Object();
+    /* Last merged list, its copy given to update, and their sort if sorted. Guarded by mMergeLock */
+    private List<T> mMerged, mPublished;
+    private boolean mMergedSorted;
+    private int mMergedSort, mMergedDirection;
+    private int mPendingUpdates = 0;
+    /* Incremented by updates which are not merges, guarded by mMergeLock */
+    private int mGeneration = 0;
+
     public int sortDirection(int sortby) {
         return sMediaComparator.sortDirection(sortby);
     }
@@ -76,22 +86,119 @@ public abstract class SortableAdapter<T extends MediaLibraryItem, VH extends Rec
     @NonNull
     @Override
     protected List<T> prepareList(@NotNull List<? extends T> list) {
-        if (needsSorting()) Collections.sort(list, sMediaComparator);
+        if (needsSorting() && !isPresorted(list)) sMediaComparator.sort(list);
         return (List<T>) list;
     }
 
+    private boolean isPresorted(List<?> list) {
+        synchronized (mMergeLock) {
+            return list == mPublished && mMergedSorted && mMergedSort == getSortBy() && mMergedDirection == getSortDirection();
+        }
+    }
+
+    /**
+     * Replace the list. Merges still running or not published yet are then done again
+     * into this list.
+     */
+    @MainThread
+    @Override
+    public void update(@NotNull List<? extends T> list) {
+        synchronized (mMergeLock) {
+            ++mGeneration;
+            mMerged = null;
+            mPublished = null;
+        }
+        super.update(list);
+    }
+
+    /**
+     * Insert or update items. They are merged off the main thread, into the last list given
+     * to {@link #update(List)} or the last merged one if it is not given yet.
+     */
     public void add(final T[] items) {
         if (!Util.isArrayEmpty(items)) {
+            // The comparator is shared with the UI, only change it on the main thread
             VLCApplication.runOnMainThread(new Runnable() {
                 @Override
                 public void run() {
                     if (getSortBy() == MediaLibraryItemComparator.SORT_DEFAULT)
                         sMediaComparator.sortBy(getDefaultSort(), 1);
-                    final ArrayList<T> list = new ArrayList<>(peekLast());
-                    Util.insertOrUdpate(list, items);
-                    update(list);
+                    VLCApplication.runBackground(new Runnable() {
+                        @Override
+                        public void run() {
+                            merge(items);
+                        }
+                    });
                 }
             });
         }
     }
+
+    @WorkerThread
+    private void merge(final T[] items) {
+        synchronized (mMergeLock) {
+            final List<? extends T> last = peekLast();
+            final boolean chained = mMerged != null && (mPublished == last || mPendingUpdates > 0);
+            final List<? extends T> base = chained ? mMerged : last;
+            final ArrayList<T> list = new ArrayList<>(base.size() + items.length);
+            list.addAll(base);
+            final List<T> newItems = Util.updateItems(list, items);
+            final int sortBy = getSortBy(), direction = getSortDirection();
+            final boolean needsSorting = needsSorting();
+            if (needsSorting && chained && mMergedSorted && mMergedSort == sortBy
+                    && mMergedDirection == direction && isSorted(list)) {
+                sMediaComparator.sort(newItems);
+                insertSorted(list, newItems);
+            } else {
+                list.addAll(newItems);
+                if (needsSorting) sMediaComparator.sort(list);
+            }
+            mMerged = list;
+            mMergedSorted = needsSorting;
+            mMergedSort = sortBy;
+            mMergedDirection = direction;
+            // A copy, the update may sort it in place while the next merge reads mMerged
+            final List<T> published = new ArrayList<>(list);
+            mPublished = published;
+            ++mPendingUpdates;
+            final int generation = mGeneration;
+            // Posted with the lock held, so that updates come in the merges order
+            VLCApplication.runOnMainThread(new Runnable() {
+                @Override
+                public void run() {
+                    final boolean replaced;
+                    synchronized (mMergeLock) {
+                        --mPendingUpdates;
+                        replaced = generation != mGeneration;
+                    }
+                    // The list has been replaced meanwhile, merge the items into the new one
+                    if (replaced) add(items);
+                    else SortableAdapter.super.update(published);
+                }
+            });
+        }
+    }
+
+    private static <T extends MediaLibraryItem> boolean isSorted(List<T> list) {
+        for (int i = 1; i < list.size(); ++i)
+            if (sMediaComparator.compare(list.get(i - 1), list.get(i)) > 0) return false;
+        return true;
+    }
+
+    /**
+     * Merge sorted newItems into sorted list, new items going after the equal ones
+     */
+    private static <T extends MediaLibraryItem> void insertSorted(ArrayList<T> list, List<T> newItems) {
+        if (newItems.isEmpty()) return;
+        final List<T> old = new ArrayList<>(list);
+        final int size = old.size(), count = newItems.size();
+        list.clear();
+        int i = 0, j = 0;
+        while (i < size && j < count) {
+            if (sMediaComparator.compare(old.get(i), newItems.get(j)) <= 0) list.add(old.get(i++));
+            else list.add(newItems.get(j++));
+        }
+        while (i < size) list.add(old.get(i++));
+        while (j < count) list.add(newItems.get(j++));
+    }
 }
@@ -139,7 +139,7 @@ public class VLCApplication extends Application {
         super.onTrimMemory(level);
         Log.w(TAG, "onTrimMemory, level: "+level);
 
-        BitmapCache.getInstance().clear();
+        BitmapCache.getInstance().trimMemory(level);
     }
 
     /**
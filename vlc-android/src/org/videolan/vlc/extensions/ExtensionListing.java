@@ -32,7 +32,6 @@ public class ExtensionListing implements Parcelable {
     public static final int PARCELABLE_VERSION = 1;
 
     private ComponentName mComponentName;
-    private int mProtocolVersion;
     private boolean mCompatible;
     private int menuIcon = 0;
     private String mTitle;
@@ -64,14 +63,6 @@ public class ExtensionListing implements Parcelable {
         return this;
     }
 
-    /**
-     * Returns the version of the {@link org.videolan.vlc.extensions.api.VLCExtensionService}
-     * protocol used by the extension.
-     */
-    public int protocolVersion() {
-        return mProtocolVersion;
-    }
-
     /**
      * Sets the resId of the icon displayed in VLC menu for this extension.
      */
@@ -87,15 +78,6 @@ public class ExtensionListing implements Parcelable {
         return menuIcon;
     }
 
-    /**
-     * Sets the version of the {@link org.videolan.vlc.extensions.api.VLCExtensionService}
-     * protocol used by the extension.
-     */
-    public ExtensionListing protocolVersion(int protocolVersion) {
-        mProtocolVersion = protocolVersion;
-        return this;
-    }
-
     /**
      * Returns whether this extension is compatible to the host application; that is whether
      * the version of the {@link org.videolan.vlc.extensions.api.VLCExtensionService}
@@ -203,7 +185,7 @@ public class ExtensionListing implements Parcelable {
         // Version 1 below
         if (parcelableVersion >= 1) {
             mComponentName = ComponentName.readFromParcel(in);
-            mProtocolVersion = in.readInt();
+            in.readInt(); // Protocol version, negotiated with the service instead
             mCompatible = in.readInt() == 1;
             mTitle = in.readString();
             mDescription = in.readString();
@@ -225,7 +207,7 @@ public class ExtensionListing implements Parcelable {
 
         // Version 1 below
         mComponentName.writeToParcel(parcel, 0);
-        parcel.writeInt(mProtocolVersion);
+        parcel.writeInt(0);
         parcel.writeInt(mCompatible ? 1 : 0);
         parcel.writeString(mTitle);
         parcel.writeString(mDescription);
@@ -53,9 +53,12 @@ public class ExtensionManagerService extends Service {
     private ExtensionManagerActivity mExtensionManagerActivity;
 
     int mCurrentIndex = -1;
+    /* Token of the next page of the displayed list, protocol version 2 only */
+    private String mNextPageToken;
 
     public interface ExtensionManagerActivity {
         void displayExtensionItems(int extensionId, String title, List<VLCExtensionItem> items, boolean showParams, boolean isRefresh);
+        void appendExtensionItems(int extensionId, List<VLCExtensionItem> items);
     }
 
     public void setExtensionManagerActivity(ExtensionManagerActivity activity) {
@@ -121,6 +124,7 @@ public class ExtensionManagerService extends Service {
                 conn.ready = true;
                 conn.binder = IExtensionService.Stub.asInterface(service);
                 try {
+                    conn.binder.setHostProtocolVersion(ExtensionsManager.PROTOCOLE_VERSION);
                     conn.binder.onInitialize(index, conn.hostInterface);
                 } catch (RemoteException e) {
                     e.printStackTrace();
@@ -172,6 +176,32 @@ public class ExtensionManagerService extends Service {
         } catch (RemoteException e) {}
     }
 
+    /**
+     * @return true if the extension has more items to add to the displayed list
+     */
+    public boolean hasNextPage() {
+        return mNextPageToken != null;
+    }
+
+    /**
+     * Ask the extension for the next page of the displayed list, once per page
+     */
+    public void loadNextPage() {
+        if (mNextPageToken == null)
+            return;
+        try {
+            ExtensionListing extension = getExtensions().get(mCurrentIndex);
+            if (extension == null || extension.getConnection() == null)
+                return;
+            IExtensionService service = extension.getConnection().binder;
+            if (service == null)
+                return;
+            // A next page token means the service speaks v2, whatever its manifest declares
+            service.loadPage(mNextPageToken);
+            mNextPageToken = null;
+        } catch (RemoteException e) {}
+    }
+
     public void disconnect() {
         if (mCurrentIndex == -1)
             return;
@@ -193,12 +223,29 @@ public class ExtensionManagerService extends Service {
                 mHandler.post(new Runnable() {
                     @Override
                     public void run() {
+                        mNextPageToken = null;
                         if (mExtensionManagerActivity != null)
                             mExtensionManagerActivity.displayExtensionItems(mCurrentIndex, title, items, showParams, isRefresh);
                     }
                 });
             }
 
+            @Override
+            public void updateListPage(final String title, final List<VLCExtensionItem> items, final boolean showParams, final boolean isRefresh, final boolean append, final String nextPageToken) throws RemoteException {
+                mHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        mNextPageToken = nextPageToken;
+                        if (mExtensionManagerActivity == null)
+                            return;
+                        if (append)
+                            mExtensionManagerActivity.appendExtensionItems(mCurrentIndex, items);
+                        else
+                            mExtensionManagerActivity.displayExtensionItems(mCurrentIndex, title, items, showParams, isRefresh);
+                    }
+                });
+            }
+
             @Override
             public void playUri(Uri uri, String title) throws RemoteException {
                 final MediaWrapper media = new MediaWrapper(uri);
@@ -34,7 +34,7 @@ public class ExtensionsManager {
     private static final String KEY_SETTINGS_ACTIVITY = "settingsActivity";
     private static final String KEY_ANDROID_AUTO_ENABLED = "androidAutoEnabled";
     private static final String ACTION_EXTENSION = "org.videolan.vlc.Extension";
-    private static final int PROTOCOLE_VERSION = 1;
+    static final int PROTOCOLE_VERSION = 2;
     public final static String EXTENSION_PREFIX = "extension";
     public final static String ANDROID_AUTO_SUFFIX = "androidAuto";
     public static boolean androidAutoInstalled = false;
@@ -62,7 +62,8 @@ public class ExtensionsManager {
                     resolveInfo.serviceInfo.name));
             Bundle metaData = resolveInfo.serviceInfo.metaData;
             if (metaData != null) {
-                extension.compatible(metaData.getInt(KEY_PROTOCOL_VERSION) == PROTOCOLE_VERSION);
+                final int protocolVersion = metaData.getInt(KEY_PROTOCOL_VERSION);
+                extension.compatible(protocolVersion >= 1 && protocolVersion <= PROTOCOLE_VERSION);
                 if (!extension.compatible())
                     continue;
                 String title = metaData.getString(KEY_LISTING_TITLE);
@@ -1,15 +1,22 @@
 package org.videolan.vlc.gui
 
+import android.os.SystemClock
 import android.support.annotation.MainThread
 import android.support.annotation.WorkerThread
 import android.support.v7.util.DiffUtil
 import android.support.v7.widget.RecyclerView
+import android.util.Log
 import kotlinx.coroutines.experimental.android.UI
+import kotlinx.coroutines.experimental.asCoroutineDispatcher
 import kotlinx.coroutines.experimental.channels.Channel
 import kotlinx.coroutines.experimental.channels.actor
 import kotlinx.coroutines.experimental.launch
-import kotlinx.coroutines.experimental.newSingleThreadContext
+import org.videolan.vlc.BuildConfig
+import org.videolan.vlc.VLCApplication
 import java.util.*
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.ThreadPoolExecutor
+import java.util.concurrent.TimeUnit
 
 abstract class DiffUtilAdapter<D, VH : RecyclerView.ViewHolder> : RecyclerView.Adapter<VH>() {
 
@@ -17,24 +24,36 @@ abstract class DiffUtilAdapter<D, VH : RecyclerView.ViewHolder> : RecyclerView.A
     private set
     @Volatile private var last = dataset
     private val diffCallback by lazy(LazyThreadSafetyMode.NONE) { createCB() }
-    private val updateActor = actor<List<D>>(newSingleThreadContext("vlc-updater"), capacity = Channel.CONFLATED) {
+    // Updates of one adapter are sequential and conflated, diffs of all adapters share a few threads
+    private val updateActor = actor<List<D>>(diffDispatcher, capacity = Channel.CONFLATED) {
         for (list in channel) internalUpdate(list)
     }
     protected abstract fun onUpdateFinished()
 
     @MainThread
-    fun update (list: List<D>) {
+    open fun update (list: List<D>) {
         last = list
         updateActor.offer(list)
     }
 
     @WorkerThread
     private suspend fun internalUpdate(list: List<D>) {
+        val start = SystemClock.uptimeMillis()
         val finalList = prepareList(list)
-        val result = DiffUtil.calculateDiff(diffCallback.apply { update(dataset, finalList) }, detectMoves())
+        val oldSize = dataset.size
+        val newSize = finalList.size
+        // No diff when one side is empty, or when DiffUtil would take too long
+        val result = if (oldSize == 0 || newSize == 0 || oldSize + newSize > maxDiffSize()) null
+        else DiffUtil.calculateDiff(diffCallback.apply { update(dataset, finalList) }, detectMoves())
+        if (BuildConfig.DEBUG) Log.d(TAG, "${javaClass.simpleName}: ${if (result === null) "no diff" else "diff"} $oldSize -> $newSize in ${SystemClock.uptimeMillis() - start}ms")
         launch(UI) {
             dataset = finalList
-            result.dispatchUpdatesTo(this@DiffUtilAdapter)
+            when {
+                result !== null -> result.dispatchUpdatesTo(this@DiffUtilAdapter)
+                oldSize == 0 -> notifyItemRangeInserted(0, newSize)
+                newSize == 0 -> notifyItemRangeRemoved(0, oldSize)
+                else -> notifyDataSetChanged()
+            }
             onUpdateFinished()
         }.join()
     }
@@ -47,6 +66,11 @@ abstract class DiffUtilAdapter<D, VH : RecyclerView.ViewHolder> : RecyclerView.A
 
     protected open fun detectMoves() = false
 
+    /**
+     * Above this total of old and new items, the list is rebound instead of diffed
+     */
+    protected open fun maxDiffSize() = MAX_DIFF_SIZE
+
     protected open fun createCB() = DiffCallback<D>()
 
     open class DiffCallback<D> : DiffUtil.Callback() {
@@ -66,4 +90,16 @@ abstract class DiffUtilAdapter<D, VH : RecyclerView.ViewHolder> : RecyclerView.A
 
         override fun areItemsTheSame(oldItemPosition : Int, newItemPosition : Int) = oldList[oldItemPosition] == newList[newItemPosition]
     }
-}
\ No newline at end of file
+
+    companion object {
+        private const val TAG = "VLC/DiffUtilAdapter"
+        private const val DIFF_THREADS = 2
+        private const val MAX_DIFF_SIZE = 10000
+
+        private val diffDispatcher by lazy(LazyThreadSafetyMode.SYNCHRONIZED) {
+            ThreadPoolExecutor(DIFF_THREADS, DIFF_THREADS, 30, TimeUnit.SECONDS, LinkedBlockingQueue<Runnable>(), VLCApplication.THREAD_FACTORY)
+                    .apply { allowCoreThreadTimeOut(true) }
+                    .asCoroutineDispatcher()
+        }
+    }
+}
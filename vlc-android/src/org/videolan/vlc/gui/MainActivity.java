@@ -430,6 +430,13 @@ public class MainActivity extends ContentActivity implements FilterQueryProvider
         }
     }
 
+    @Override
+    public void appendExtensionItems(int extensionId, List<VLCExtensionItem> items) {
+        getSupportFragmentManager().executePendingTransactions();
+        if (mCurrentFragmentId == extensionId && getCurrentFragment() instanceof ExtensionBrowser)
+            ((ExtensionBrowser) getCurrentFragment()).appendItems(items);
+    }
+
     /**
      * Show a secondary fragment.
      */
@@ -51,6 +51,7 @@ import org.videolan.vlc.gui.view.FastScroller;
 import org.videolan.vlc.interfaces.IEventsHandler;
 import org.videolan.vlc.util.MediaItemFilter;
 import org.videolan.vlc.util.MediaLibraryItemComparator;
+import org.videolan.vlc.util.SectionIndex;
 import org.videolan.vlc.util.Util;
 
 import java.util.ArrayList;
@@ -66,6 +67,8 @@ public class AudioBrowserAdapter extends SortableAdapter<MediaLibraryItem, Audio
     private static final String TAG = "VLC/AudioBrowserAdapter";
 
     private boolean mMakeSections = true;
+    /* Sections of the last list made by generateSections */
+    private volatile SectionIndex mSectionIndex;
 
     private List<MediaLibraryItem> mOriginalDataSet;
     private ItemFilter mFilter = new ItemFilter();
@@ -191,9 +194,14 @@ public class AudioBrowserAdapter extends SortableAdapter<MediaLibraryItem, Audio
 
     @Override
     public String getSectionforPosition(int position) {
-        if (mMakeSections)
-            for (int i = position; i >= 0; --i)
-                if (getDataset().get(i).getItemType() == MediaLibraryItem.TYPE_DUMMY) return getDataset().get(i).getTitle();
+        if (!mMakeSections)
+            return "";
+        final List<MediaLibraryItem> dataset = getDataset();
+        final SectionIndex sectionIndex = mSectionIndex;
+        if (sectionIndex != null && sectionIndex.isFor(dataset))
+            return sectionIndex.getLabelForPosition(position);
+        for (int i = position; i >= 0; --i)
+            if (dataset.get(i).getItemType() == MediaLibraryItem.TYPE_DUMMY) return dataset.get(i).getTitle();
         return "";
     }
 
@@ -204,6 +212,7 @@ public class AudioBrowserAdapter extends SortableAdapter<MediaLibraryItem, Audio
 
     public void clear() {
         getDataset().clear();
+        mSectionIndex = null;
         mOriginalDataSet = null;
     }
 
@@ -217,6 +226,7 @@ public class AudioBrowserAdapter extends SortableAdapter<MediaLibraryItem, Audio
 
     private List<MediaLibraryItem> generateSections(List<? extends MediaLibraryItem> items, int sortby) {
         List<MediaLibraryItem> datalist = new ArrayList<>();
+        final SectionIndex.Builder sections = new SectionIndex.Builder();
         switch(sortby) {
             case MediaLibraryItemComparator.SORT_BY_TITLE:
                 String currentLetter = null;
@@ -228,6 +238,7 @@ public class AudioBrowserAdapter extends SortableAdapter<MediaLibraryItem, Audio
                     if (currentLetter == null || !TextUtils.equals(currentLetter, letter)) {
                         currentLetter = letter;
                         DummyItem sep = new DummyItem(currentLetter);
+                        sections.add(datalist.size(), sep.getTitle());
                         datalist.add(sep);
                     }
                     datalist.add(item);
@@ -246,6 +257,7 @@ public class AudioBrowserAdapter extends SortableAdapter<MediaLibraryItem, Audio
                         DummyItem sep = new DummyItem(TextUtils.isEmpty(currentArtist)
                                 ? VLCApplication.getAppResources().getString(R.string.unknown_artist)
                                 : currentArtist);
+                        sections.add(datalist.size(), sep.getTitle());
                         datalist.add(sep);
                     }
                     datalist.add(item);
@@ -264,6 +276,7 @@ public class AudioBrowserAdapter extends SortableAdapter<MediaLibraryItem, Audio
                         DummyItem sep = new DummyItem(TextUtils.isEmpty(currentAlbum)
                                 ? VLCApplication.getAppResources().getString(R.string.unknown_album)
                                 : currentAlbum);
+                        sections.add(datalist.size(), sep.getTitle());
                         datalist.add(sep);
                     }
                     datalist.add(item);
@@ -279,6 +292,7 @@ public class AudioBrowserAdapter extends SortableAdapter<MediaLibraryItem, Audio
                     if (currentLengthCategory == null || !TextUtils.equals(currentLengthCategory, lengthCategory)) {
                         currentLengthCategory = lengthCategory;
                         DummyItem sep = new DummyItem(currentLengthCategory);
+                        sections.add(datalist.size(), sep.getTitle());
                         datalist.add(sep);
                     }
                     datalist.add(item);
@@ -293,6 +307,7 @@ public class AudioBrowserAdapter extends SortableAdapter<MediaLibraryItem, Audio
                     if (currentYear == null || !TextUtils.equals(currentYear, year)) {
                         currentYear = year;
                         DummyItem sep = new DummyItem(currentYear);
+                        sections.add(datalist.size(), sep.getTitle());
                         datalist.add(sep);
                     }
                     datalist.add(item);
@@ -309,12 +324,14 @@ public class AudioBrowserAdapter extends SortableAdapter<MediaLibraryItem, Audio
                         DummyItem sep = new DummyItem(currentNumber == 0
                                 ? VLCApplication.getAppResources().getString(R.string.unknown_number)
                                 : VLCApplication.getAppResources().getQuantityString(R.plurals.songs_quantity, currentNumber, currentNumber));
+                        sections.add(datalist.size(), sep.getTitle());
                         datalist.add(sep);
                     }
                     datalist.add(item);
                 }
                 break;
         }
+        mSectionIndex = sections.build(datalist);
         return datalist;
     }
 
@@ -360,11 +377,11 @@ public class AudioBrowserAdapter extends SortableAdapter<MediaLibraryItem, Audio
                 return generateSections(items, getDefaultSort());
             } else {
                 final List<MediaLibraryItem> newList = removeSections((List<MediaLibraryItem>) items);
-                Collections.sort(newList, sMediaComparator);
+                sMediaComparator.sort(newList);
                 return generateSections(newList, sMediaComparator.sortBy);
             }
         } else {
-            Collections.sort(items, sMediaComparator);
+            sMediaComparator.sort(items);
             return (List<MediaLibraryItem>) items;
         }
     }
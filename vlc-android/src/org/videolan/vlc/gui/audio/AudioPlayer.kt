@@ -57,7 +57,6 @@ import kotlinx.coroutines.experimental.launch
 import org.videolan.libvlc.Media
 import org.videolan.libvlc.MediaPlayer
 import org.videolan.libvlc.util.AndroidUtil
-import org.videolan.medialibrary.Tools
 import org.videolan.medialibrary.media.MediaWrapper
 import org.videolan.vlc.PlaybackService
 import org.videolan.vlc.R
@@ -245,13 +244,13 @@ class AudioPlayer : PlaybackServiceFragment(), PlaybackService.Callback, Playlis
         val time = mService.time
         val length = mService.length
 
-        mBinding.headerTime.text = Tools.millisToString(time)
-        mBinding.length.text = Tools.millisToString(length)
+        UiTools.setTimeText(mBinding.headerTime, null, time)
+        UiTools.setTimeText(mBinding.length, null, length)
         mBinding.timeline.max = length.toInt()
         mBinding.progressBar.max = length.toInt()
 
         if (!mPreviewingSeek) {
-            mBinding.time.text = Tools.millisToString((if (mShowRemainingTime) time - length else time))
+            UiTools.setTimeText(mBinding.time, null, if (mShowRemainingTime) time - length else time)
             mBinding.timeline.progress = time.toInt()
             mBinding.progressBar.progress = time.toInt()
         }
@@ -499,7 +498,7 @@ class AudioPlayer : PlaybackServiceFragment(), PlaybackService.Callback, Playlis
                     else if (possibleSeek <= 4000) possibleSeek = 0
                 }
 
-                mBinding.time.text = Tools.millisToString(if (mShowRemainingTime) possibleSeek - length else possibleSeek.toLong())
+                UiTools.setTimeText(mBinding.time, null, if (mShowRemainingTime) possibleSeek - length else possibleSeek.toLong())
                 mBinding.timeline.progress = possibleSeek
                 mBinding.progressBar.progress = possibleSeek
                 mHandler.postDelayed(this, 50)
@@ -576,8 +575,8 @@ class AudioPlayer : PlaybackServiceFragment(), PlaybackService.Callback, Playlis
         override fun onProgressChanged(sb: SeekBar, progress: Int, fromUser: Boolean) {
             if (fromUser && mService !== null) {
                 mService.time = progress.toLong()
-                mBinding.time.text = Tools.millisToString(if (mShowRemainingTime) progress - mService.length else progress.toLong())
-                mBinding.headerTime.text = Tools.millisToString(progress.toLong())
+                UiTools.setTimeText(mBinding.time, null, if (mShowRemainingTime) progress - mService.length else progress.toLong())
+                UiTools.setTimeText(mBinding.headerTime, null, progress.toLong())
             }
         }
     }
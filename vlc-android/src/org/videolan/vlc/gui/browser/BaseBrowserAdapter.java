@@ -50,7 +50,6 @@ import org.videolan.vlc.util.MediaLibraryItemComparator;
 import org.videolan.vlc.util.Util;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 import static org.videolan.medialibrary.media.MediaLibraryItem.FLAG_SELECTED;
@@ -372,7 +371,7 @@ public class BaseBrowserAdapter extends SortableAdapter<MediaLibraryItem, BaseBr
     @Override
     protected List<MediaLibraryItem> prepareList(List<? extends MediaLibraryItem> list) {
         if (fragment.isSortEnabled() && needsSorting())
-            Collections.sort(list, sMediaComparator);
+            sMediaComparator.sort(list);
         mMediaCount = 0;
         for (MediaLibraryItem item : list) {
             if (item.getItemType() == MediaLibraryItem.TYPE_MEDIA
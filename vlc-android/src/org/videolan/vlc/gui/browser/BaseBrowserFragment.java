@@ -28,11 +28,7 @@ import android.content.res.Resources;
 import android.net.Uri;
 import android.os.Build;
 import android.os.Bundle;
-import android.os.Handler;
-import android.os.HandlerThread;
-import android.os.Looper;
 import android.os.Message;
-import android.os.Process;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.v4.app.Fragment;
@@ -74,6 +70,7 @@ import org.videolan.vlc.interfaces.IRefreshable;
 import org.videolan.vlc.media.MediaDatabase;
 import org.videolan.vlc.media.MediaUtils;
 import org.videolan.vlc.util.AndroidDevices;
+import org.videolan.vlc.util.BrowserScheduler;
 import org.videolan.vlc.util.Strings;
 import org.videolan.vlc.util.Util;
 import org.videolan.vlc.util.VLCInstance;
@@ -110,28 +107,19 @@ public abstract class BaseBrowserFragment extends SortableFragment<BaseBrowserAd
     private final boolean mShowHiddenFiles;
 
     private SimpleArrayMap<MediaLibraryItem, List<MediaLibraryItem>> mFoldersContentLists;
-    public int mCurrentParsedPosition = 0;
 
     protected abstract Fragment createFragment();
     protected abstract void browseRoot();
     protected abstract String getCategoryTitle();
 
-    private Handler mBrowserHandler;
+    private final BrowserScheduler.Session mBrowserSession = BrowserScheduler.openSession();
 
     protected void runOnBrowserThread(Runnable runnable) {
-        if (Looper.myLooper() == mBrowserHandler.getLooper())
-            runnable.run();
-        else
-            mBrowserHandler.post(runnable);
+        mBrowserSession.run(runnable);
     }
 
     public BaseBrowserFragment() {
         mHandler = new BrowserFragmentHandler(this);
-        if (mBrowserHandler == null) {
-            HandlerThread handlerThread = new HandlerThread("vlc-browser", Process.THREAD_PRIORITY_DEFAULT+Process.THREAD_PRIORITY_LESS_FAVORABLE);
-            handlerThread.start();
-            mBrowserHandler = new Handler(handlerThread.getLooper());
-        }
         mShowHiddenFiles = PreferenceManager.getDefaultSharedPreferences(VLCApplication.getAppContext()).getBoolean("browser_show_hidden_files", false);
     }
 
@@ -223,6 +211,7 @@ public abstract class BaseBrowserFragment extends SortableFragment<BaseBrowserAd
     public void onHiddenChanged(boolean hidden) {
         super.onHiddenChanged(hidden);
         if (hidden) {
+            cancelScan();
             releaseBrowser();
         } else if (mFabPlay != null) {
             mFabPlay.setImageResource(R.drawable.ic_fab_play);
@@ -231,15 +220,25 @@ public abstract class BaseBrowserFragment extends SortableFragment<BaseBrowserAd
     }
 
     private void releaseBrowser() {
-        runOnBrowserThread(new Runnable() {
-            @Override
-            public void run() {
-                if (mMediaBrowser != null) {
-                    mMediaBrowser.release();
-                    mMediaBrowser = null;
-                }
+        runOnBrowserThread(mReleaseBrowser);
+    }
+
+    private final Runnable mReleaseBrowser = new Runnable() {
+        @Override
+        public void run() {
+            if (mMediaBrowser != null) {
+                mMediaBrowser.release();
+                mMediaBrowser = null;
             }
-        });
+            mBrowserSession.onBrowserReleased();
+        }
+    };
+
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+        cancelScan();
+        mBrowserSession.destroy(mReleaseBrowser);
     }
 
     public void onSaveInstanceState(Bundle outState){
@@ -287,7 +286,8 @@ public abstract class BaseBrowserFragment extends SortableFragment<BaseBrowserAd
     public void browse(MediaWrapper media, int position, boolean save) {
         if (!isResumed() || isRemoving())
             return;
-        mBrowserHandler.removeCallbacksAndMessages(null);
+        mBrowserSession.cancel();
+        cancelScan();
         final FragmentTransaction ft = getActivity().getSupportFragmentManager().beginTransaction();
         final Fragment next = createFragment();
         final Bundle args = new Bundle();
@@ -356,6 +356,11 @@ public abstract class BaseBrowserFragment extends SortableFragment<BaseBrowserAd
     @Override
     public void onRefresh() {
         mSavedPosition = mLayoutManager.findFirstCompletelyVisibleItemPosition();
+        // Explicit refresh, don't trust cached summaries
+        for (MediaLibraryItem item : mAdapter.getAll()) {
+            final Uri uri = getBrowsableUri(item);
+            if (uri != null) DirectoryScanner.invalidate(uri);
+        }
         refresh();
     }
 
@@ -388,16 +393,16 @@ public abstract class BaseBrowserFragment extends SortableFragment<BaseBrowserAd
             refreshList = new ArrayList<>();
             refreshing = true;
         } else mAdapter.clear();
-        mBrowserHandler.removeCallbacksAndMessages(null);
+        mBrowserSession.cancel();
+        cancelScan();
+        if (mFoldersContentLists != null)
+            mFoldersContentLists.clear();
         mHandler.sendEmptyMessageDelayed(BrowserFragmentHandler.MSG_SHOW_LOADING, 300);
 
         runOnBrowserThread(new Runnable() {
             @Override
             public void run() {
-                if (mFoldersContentLists != null)
-                    mFoldersContentLists.clear();
                 initMediaBrowser(BaseBrowserFragment.this);
-                mCurrentParsedPosition = 0;
                 if (mRoot)
                     VLCApplication.runOnMainThread(new Runnable() {
                         @Override
@@ -424,9 +429,10 @@ public abstract class BaseBrowserFragment extends SortableFragment<BaseBrowserAd
         runOnBrowserThread(new Runnable() {
             @Override
             public void run() {
-                if (mMediaBrowser == null)
-                    mMediaBrowser = new MediaBrowser(VLCInstance.get(), listener, mBrowserHandler);
-                else
+                if (mMediaBrowser == null) {
+                    mMediaBrowser = new MediaBrowser(VLCInstance.get(), listener, mBrowserSession.getHandler());
+                    mBrowserSession.onBrowserCreated();
+                } else
                     mMediaBrowser.changeEventListener(listener);
             }
         });
@@ -633,143 +639,97 @@ public abstract class BaseBrowserFragment extends SortableFragment<BaseBrowserAd
         MediaUtils.openList(getActivity(), mediaLocations, positionInPlaylist);
     }
 
-    private final List<MediaLibraryItem> currentMediaList = new ArrayList<>();
+    private DirectoryScanner.Task mScanTask;
+
+    /**
+     * Show the content summary of browsable items, from cache when possible
+     */
     protected void parseSubDirectories() {
-        if ((mRoot && this instanceof NetworkBrowserFragment)
-                || mCurrentParsedPosition == -1 ||this instanceof FilePickerFragment) return;
-        synchronized (currentMediaList) {
-            currentMediaList.addAll(mAdapter.peekLast());
-            if (currentMediaList.isEmpty()) return;
-        }
+        if ((mRoot && this instanceof NetworkBrowserFragment) || this instanceof FilePickerFragment) return;
+        final List<MediaLibraryItem> list = new ArrayList<>(mAdapter.peekLast());
+        if (list.isEmpty()) return;
+        cancelScan();
+        // Set now, so that a cancellation before the scan starts is not missed
+        final DirectoryScanner.Task task = new DirectoryScanner.Task();
+        mScanTask = task;
         runOnBrowserThread(new Runnable() {
             @Override
             public void run() {
-                synchronized (currentMediaList) {
-                    mFoldersContentLists.clear();
-                    initMediaBrowser(mFoldersBrowserListener);
-                    mCurrentParsedPosition = 0;
-                    while (mCurrentParsedPosition < currentMediaList.size()) {
-                        final MediaLibraryItem item = currentMediaList.get(mCurrentParsedPosition);
-                        final MediaWrapper mw;
-                        if (item.getItemType() == MediaLibraryItem.TYPE_STORAGE) {
-                            mw = new MediaWrapper(((Storage) item).getUri());
-                            mw.setType(MediaWrapper.TYPE_DIR);
-                        } else if (item.getItemType() == MediaLibraryItem.TYPE_MEDIA) {
-                            mw = (MediaWrapper) item;
-                        } else
-                            mw = null;
-                        if (mw != null) {
-                            if (mw.getType() == MediaWrapper.TYPE_DIR || mw.getType() == MediaWrapper.TYPE_PLAYLIST) {
-                                final Uri uri = mw.getUri();
-                                browse(uri, mShowHiddenFiles ? MediaBrowser.Flag.ShowHiddenFiles : 0);
-                                return;
-                            }
-                        }
-                        ++mCurrentParsedPosition;
+                final List<Integer> positions = new ArrayList<>();
+                final List<Uri> uris = new ArrayList<>();
+                for (int position = 0; position < list.size(); ++position) {
+                    final Uri uri = getBrowsableUri(list.get(position));
+                    if (uri != null) {
+                        positions.add(position);
+                        uris.add(uri);
                     }
                 }
+                DirectoryScanner.scan(task, positions, uris, mShowHiddenFiles ? MediaBrowser.Flag.ShowHiddenFiles : 0, new DirectoryScanner.Callback<Integer>() {
+                    @Override
+                    public void onScanned(Integer position, DirectoryScanner.Summary summary) {
+                        onDirectoryScanned(list.get(position), position, summary);
+                    }
+                });
             }
         });
     }
 
-    private MediaBrowser.EventListener mFoldersBrowserListener = new MediaBrowser.EventListener(){
-        final List<MediaWrapper> directories = new ArrayList<>();
-        final List<MediaWrapper> files = new ArrayList<>();
-        Resources res = null;
-        final StringBuilder sb = new StringBuilder();
-
-        @Override
-        public void onMediaAdded(int index, final Media media) {
-            final int type = media.getType();
-            final MediaWrapper mw = getMediaWrapper(new MediaWrapper(media));
-            if (type == Media.Type.Directory) directories.add(mw);
-            else if (type == Media.Type.File) files.add(mw);
+    private void cancelScan() {
+        if (mScanTask != null) {
+            mScanTask.cancel();
+            mScanTask = null;
         }
+    }
 
-        @Override
-        public void onMediaRemoved(int index, Media media) {}
-
-        @Override
-        public void onBrowseEnd() {
-            synchronized (currentMediaList) {
-                if (currentMediaList.isEmpty() || !isAdded()) {
-                    mCurrentParsedPosition = -1;
-                    releaseBrowser();
-                    return;
-                }
-                final String holderText = getDescription(directories.size(), files.size());
-                MediaWrapper mw = null;
-
-                if (!TextUtils.equals(holderText, "")) {
-                    final MediaLibraryItem item = currentMediaList.get(mCurrentParsedPosition);
-                    item.setDescription(holderText);
-                    final int position = mCurrentParsedPosition;
-                    mRecyclerView.post(new Runnable() {
-                        @Override
-                        public void run() {
-                            mAdapter.notifyItemChanged(position, holderText);
-                        }
-                    });
-                    directories.addAll(files);
-                    mFoldersContentLists.put(item, new ArrayList<MediaLibraryItem>(directories));
-                }
-                while (++mCurrentParsedPosition < currentMediaList.size()){ //skip media that are not browsable
-                    final MediaLibraryItem item = currentMediaList.get(mCurrentParsedPosition);
-                    if (item.getItemType() == MediaLibraryItem.TYPE_MEDIA) {
-                        mw = (MediaWrapper) item;
-                        if (mw.getType() == MediaWrapper.TYPE_DIR || mw.getType() == MediaWrapper.TYPE_PLAYLIST)
-                            break;
-                    } else if (item.getItemType() == MediaLibraryItem.TYPE_STORAGE) {
-                        mw = new MediaWrapper(((Storage) item).getUri());
-                        break;
-                    } else
-                        mw = null;
-                }
-
-                if (mw != null) {
-                    if (mCurrentParsedPosition < currentMediaList.size()) {
-                        browse(mw.getUri(), 0);
-                    } else {
-                        mCurrentParsedPosition = -1;
-                        currentMediaList.clear();
-                        releaseBrowser();
-                    }
-                } else {
-                    releaseBrowser();
-                    currentMediaList.clear();
-                }
-                directories .clear();
-                files.clear();
-            }
+    @Nullable
+    private static Uri getBrowsableUri(MediaLibraryItem item) {
+        if (item.getItemType() == MediaLibraryItem.TYPE_STORAGE)
+            return ((Storage) item).getUri();
+        if (item.getItemType() == MediaLibraryItem.TYPE_MEDIA) {
+            final MediaWrapper mw = (MediaWrapper) item;
+            if (mw.getType() == MediaWrapper.TYPE_DIR || mw.getType() == MediaWrapper.TYPE_PLAYLIST)
+                return mw.getUri();
         }
+        return null;
+    }
 
-        private String getDescription(int folderCount, int mediaFileCount) {
-            if (res == null) res = getResources();
-            sb.setLength(0);
-            if (folderCount > 0) {
-                sb.append(res.getQuantityString(
-                        R.plurals.subfolders_quantity, folderCount, folderCount
-                ));
-                if (mediaFileCount > 0) sb.append(", ");
+    private void onDirectoryScanned(final MediaLibraryItem item, final int position, final DirectoryScanner.Summary summary) {
+        VLCApplication.runOnMainThread(new Runnable() {
+            @Override
+            public void run() {
+                if (!isAdded()) return;
+                final String description = getDescription(summary.folders, summary.files);
+                item.setDescription(description);
+                mFoldersContentLists.put(item, new ArrayList<>(summary.content));
+                final int current = mAdapter.getItem(position) == item ? position : mAdapter.getAll().indexOf(item);
+                if (current != -1) mAdapter.notifyItemChanged(current, description);
             }
-            if (mediaFileCount > 0)
-                sb.append(res.getQuantityString(
-                        R.plurals.mediafiles_quantity, mediaFileCount, mediaFileCount));
-            else if (folderCount == 0 && mediaFileCount == 0)
-                sb.append(getString(R.string.directory_empty));
-            return sb.toString();
+        });
+    }
+
+    private final StringBuilder mDescriptionBuilder = new StringBuilder();
+
+    private String getDescription(int folderCount, int mediaFileCount) {
+        final Resources res = getResources();
+        final StringBuilder sb = mDescriptionBuilder;
+        sb.setLength(0);
+        if (folderCount > 0) {
+            sb.append(res.getQuantityString(
+                    R.plurals.subfolders_quantity, folderCount, folderCount
+            ));
+            if (mediaFileCount > 0) sb.append(", ");
         }
-    };
+        if (mediaFileCount > 0)
+            sb.append(res.getQuantityString(
+                    R.plurals.mediafiles_quantity, mediaFileCount, mediaFileCount));
+        else if (folderCount == 0 && mediaFileCount == 0)
+            sb.append(getString(R.string.directory_empty));
+        return sb.toString();
+    }
 
     @NonNull
     private MediaWrapper getMediaWrapper(MediaWrapper media) {
-        MediaWrapper mw = null;
-        final Uri uri = media.getUri();
-        if ((media.getType() == MediaWrapper.TYPE_AUDIO
-                || media.getType() == MediaWrapper.TYPE_VIDEO)
-                && "file".equals(uri.getScheme()))
-            mw = mMediaLibrary.getMedia(uri);
-        return mw != null ? mw : media;
+        return DirectoryScanner.getLibraryMedia(media);
     }
 
     @Override
@@ -0,0 +1,301 @@
+/*****************************************************************************
+ * DirectoryScanner.java
+ *****************************************************************************
+ * Copyright © 2018 VLC authors and VideoLAN
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston MA 02110-1301, USA.
+ *****************************************************************************/
+
+package org.videolan.vlc.gui.browser;
+
+import android.net.Uri;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.support.v4.util.LruCache;
+import android.util.Log;
+
+import org.videolan.libvlc.Media;
+import org.videolan.libvlc.util.MediaBrowser;
+import org.videolan.medialibrary.media.MediaLibraryItem;
+import org.videolan.medialibrary.media.MediaWrapper;
+import org.videolan.vlc.BuildConfig;
+import org.videolan.vlc.VLCApplication;
+import org.videolan.vlc.util.VLCInstance;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts the folders and files of directories, and keeps their content.
+ *
+ * Local directories and network shares are scanned by separate bounded pools, so that a slow
+ * share doesn't hold local scans back. Summaries are cached by mrl: local ones stay valid as
+ * long as the directory modification time is the same, network ones for a few minutes.
+ */
+public class DirectoryScanner {
+    private static final String TAG = "VLC/DirectoryScanner";
+
+    private static final int LOCAL_SCANS = 3;
+    private static final int NETWORK_SCANS = 2;
+    private static final long LOCAL_TIMEOUT = 10000L;
+    private static final long NETWORK_TIMEOUT = 30000L;
+    private static final long NETWORK_TTL = 5 * 60 * 1000L;
+
+    private static final LruCache<String, Summary> sCache = new LruCache<>(200);
+    private static ThreadPoolExecutor sLocalExecutor, sNetworkExecutor;
+    private static Handler sEventHandler;
+
+    public static class Summary {
+        public final int folders;
+        public final int files;
+        /* Folders first, then files */
+        public final List<MediaLibraryItem> content;
+        private final int mFlags;
+        private final long mModified;
+        private final long mTime;
+
+        private Summary(List<MediaWrapper> directories, List<MediaWrapper> files, int flags, long modified) {
+            this.folders = directories.size();
+            this.files = files.size();
+            final List<MediaLibraryItem> content = new ArrayList<>(folders + this.files);
+            content.addAll(directories);
+            content.addAll(files);
+            this.content = Collections.unmodifiableList(content);
+            mFlags = flags;
+            mModified = modified;
+            mTime = System.currentTimeMillis();
+        }
+    }
+
+    public interface Callback<T> {
+        /**
+         * Called on the calling thread for cached summaries, on a scan thread otherwise
+         */
+        void onScanned(T item, Summary summary);
+    }
+
+    public static class Task {
+        private final List<Future<?>> mFutures = new ArrayList<>();
+        private volatile boolean mCancelled = false;
+
+        /**
+         * Drop the pending scans. Running ones complete and are cached, but are not reported.
+         */
+        public void cancel() {
+            mCancelled = true;
+            synchronized (mFutures) {
+                for (Future<?> future : mFutures)
+                    future.cancel(false);
+                mFutures.clear();
+            }
+        }
+    }
+
+    /**
+     * @return the cached summary of uri if still valid, null otherwise. May access the disk.
+     */
+    public static Summary getCached(Uri uri, int flags) {
+        final String key = uri.toString();
+        final Summary summary = sCache.get(key);
+        if (summary == null)
+            return null;
+        final boolean valid = summary.mFlags == flags && (isLocal(uri)
+                ? summary.mModified != 0L && summary.mModified == lastModified(uri)
+                : System.currentTimeMillis() - summary.mTime < NETWORK_TTL);
+        if (!valid)
+            sCache.remove(key);
+        return valid ? summary : null;
+    }
+
+    public static void invalidate(Uri uri) {
+        sCache.remove(uri.toString());
+    }
+
+    /**
+     * Scan the directories at uris, reporting each summary with the matching item.
+     * Valid cached summaries are reported right away. May access the disk.
+     * @param task created by the caller, so that it can be cancelled before this call
+     */
+    public static <T> void scan(final Task task, List<T> items, List<Uri> uris, final int flags, final Callback<T> callback) {
+        for (int i = 0; i < items.size(); ++i) {
+            if (task.mCancelled)
+                return;
+            final T item = items.get(i);
+            final Uri uri = uris.get(i);
+            final Summary cached = getCached(uri, flags);
+            if (cached != null) {
+                callback.onScanned(item, cached);
+                continue;
+            }
+            final Runnable scan = new Runnable() {
+                @Override
+                public void run() {
+                    if (task.mCancelled)
+                        return;
+                    Summary summary = getCached(uri, flags);
+                    if (summary == null)
+                        summary = browse(uri, flags);
+                    if (summary != null && !task.mCancelled)
+                        callback.onScanned(item, summary);
+                }
+            };
+            synchronized (task.mFutures) {
+                if (task.mCancelled)
+                    return;
+                task.mFutures.add(getExecutor(isLocal(uri)).submit(scan));
+            }
+        }
+    }
+
+    private static Summary browse(final Uri uri, final int flags) {
+        final boolean local = isLocal(uri);
+        // Read before browsing, a change during the scan will invalidate the summary
+        final long modified = local ? lastModified(uri) : 0L;
+        final Scan scan = new Scan();
+        // The browser lives on the event thread, so it is never released while delivering an event
+        final Handler handler = getEventHandler();
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                scan.start(uri, flags);
+            }
+        });
+        try {
+            if (!scan.end.await(local ? LOCAL_TIMEOUT : NETWORK_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                if (BuildConfig.DEBUG) Log.d(TAG, "Scan timed out: " + uri);
+                return null;
+            }
+        } catch (InterruptedException e) {
+            return null;
+        } finally {
+            handler.post(new Runnable() {
+                @Override
+                public void run() {
+                    scan.release();
+                }
+            });
+        }
+        final Summary summary = new Summary(scan.directories, scan.files, flags, modified);
+        sCache.put(uri.toString(), summary);
+        return summary;
+    }
+
+    /**
+     * Browsing of one directory. Its browser is only used on the event thread, lists are
+     * read by the scan thread once the end is reached.
+     */
+    private static class Scan implements MediaBrowser.EventListener {
+        final List<MediaWrapper> directories = new ArrayList<>();
+        final List<MediaWrapper> files = new ArrayList<>();
+        final CountDownLatch end = new CountDownLatch(1);
+        private MediaBrowser mBrowser;
+        private boolean mReleased = false;
+
+        void start(Uri uri, int flags) {
+            if (mReleased)
+                return;
+            mBrowser = new MediaBrowser(VLCInstance.get(), this, getEventHandler());
+            mBrowser.browse(uri, flags);
+        }
+
+        void release() {
+            mReleased = true;
+            if (mBrowser != null) {
+                mBrowser.release();
+                mBrowser = null;
+            }
+        }
+
+        @Override
+        public void onMediaAdded(int index, Media media) {
+            // Events posted before the release
+            if (mReleased)
+                return;
+            final int type = media.getType();
+            if (type == Media.Type.Directory)
+                directories.add(new MediaWrapper(media));
+            else if (type == Media.Type.File)
+                files.add(getLibraryMedia(new MediaWrapper(media)));
+        }
+
+        @Override
+        public void onMediaRemoved(int index, Media media) {}
+
+        @Override
+        public void onBrowseEnd() {
+            end.countDown();
+        }
+    }
+
+    /**
+     * @return the medialibrary media of local audio and video files, media otherwise
+     */
+    static MediaWrapper getLibraryMedia(MediaWrapper media) {
+        MediaWrapper mw = null;
+        final Uri uri = media.getUri();
+        if ((media.getType() == MediaWrapper.TYPE_AUDIO
+                || media.getType() == MediaWrapper.TYPE_VIDEO)
+                && "file".equals(uri.getScheme()))
+            mw = VLCApplication.getMLInstance().getMedia(uri);
+        return mw != null ? mw : media;
+    }
+
+    private static boolean isLocal(Uri uri) {
+        return "file".equals(uri.getScheme());
+    }
+
+    private static long lastModified(Uri uri) {
+        final String path = uri.getPath();
+        return path != null ? new File(path).lastModified() : 0L;
+    }
+
+    private static synchronized ThreadPoolExecutor getExecutor(boolean local) {
+        if (local) {
+            if (sLocalExecutor == null)
+                sLocalExecutor = newExecutor(LOCAL_SCANS);
+            return sLocalExecutor;
+        }
+        if (sNetworkExecutor == null)
+            sNetworkExecutor = newExecutor(NETWORK_SCANS);
+        return sNetworkExecutor;
+    }
+
+    private static ThreadPoolExecutor newExecutor(int threads) {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * MediaBrowser events of all scans are delivered on one thread, scans wait on their own
+     */
+    private static synchronized Handler getEventHandler() {
+        if (sEventHandler == null) {
+            final HandlerThread handlerThread = new HandlerThread("vlc-scanner", Process.THREAD_PRIORITY_DEFAULT+Process.THREAD_PRIORITY_LESS_FAVORABLE);
+            handlerThread.start();
+            sEventHandler = new Handler(handlerThread.getLooper());
+        }
+        return sEventHandler;
+    }
+}
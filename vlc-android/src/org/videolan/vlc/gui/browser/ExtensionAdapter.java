@@ -112,6 +112,12 @@ public class ExtensionAdapter extends RecyclerView.Adapter<ExtensionAdapter.View
         notifyDataSetChanged();
     }
 
+    public void addItems(List<VLCExtensionItem> list) {
+        final int start = mItemsList.size();
+        mItemsList.addAll(list);
+        notifyItemRangeInserted(start, list.size());
+    }
+
     public void clear() {
         mItemsList.clear();
     }
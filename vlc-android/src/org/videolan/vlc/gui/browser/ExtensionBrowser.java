@@ -8,6 +8,7 @@ import android.support.design.widget.FloatingActionButton;
 import android.support.v4.app.Fragment;
 import android.support.v7.app.AppCompatActivity;
 import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
 import android.view.ContextMenu;
 import android.view.LayoutInflater;
 import android.view.MenuItem;
@@ -42,6 +43,8 @@ public class ExtensionBrowser extends Fragment implements View.OnClickListener,
     private static final int ACTION_SHOW_REFRESH = 43;
 
     private static final int REFRESH_TIMEOUT = 5000;
+    /* Number of remaining items below the screen from which the next page is requested */
+    private static final int PAGE_PRELOAD_THRESHOLD = 20;
 
     private String mTitle;
     private FloatingActionButton mAddDirectoryFAB;
@@ -84,6 +87,7 @@ public class ExtensionBrowser extends Fragment implements View.OnClickListener,
         mEmptyView.setText(R.string.extension_empty);
         mRecyclerView.setLayoutManager(new LinearLayoutManager(getActivity()));
         mRecyclerView.setAdapter(mAdapter);
+        mRecyclerView.addOnScrollListener(mScrollListener);
         registerForContextMenu(mRecyclerView);
 
         mSwipeRefreshLayout = v.findViewById(R.id.swipeLayout);
@@ -148,6 +152,22 @@ public class ExtensionBrowser extends Fragment implements View.OnClickListener,
         mAdapter.addAll(items);
     }
 
+    public void appendItems(List<VLCExtensionItem> items) {
+        mAdapter.addItems(items);
+        if (mRecyclerView != null) updateDisplay();
+    }
+
+    private final RecyclerView.OnScrollListener mScrollListener = new RecyclerView.OnScrollListener() {
+        @Override
+        public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+            if (dy <= 0 || mExtensionManagerService == null || !mExtensionManagerService.hasNextPage())
+                return;
+            final LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+            if (layoutManager.findLastVisibleItemPosition() >= mAdapter.getItemCount() - PAGE_PRELOAD_THRESHOLD)
+                mExtensionManagerService.loadNextPage();
+        }
+    };
+
     private void updateDisplay() {
         if (mAdapter.getItemCount() > 0) {
             mEmptyView.setVisibility(View.GONE);
@@ -48,6 +48,8 @@ import org.videolan.vlc.media.MediaGroup;
 import org.videolan.vlc.util.HttpImageLoader;
 import org.videolan.vlc.util.ThumbnailsProvider;
 
+import java.util.concurrent.Callable;
+
 public class AsyncImageLoader {
 
     public interface Callbacks {
@@ -66,6 +68,9 @@ public class AsyncImageLoader {
 
     private static final BitmapCache sBitmapCache = BitmapCache.getInstance();
     private static final Medialibrary sMedialibrary = VLCApplication.getMLInstance();
+    // Decoding is memory and CPU bound, keep it off the general background pool
+    private static final int DECODE_THREADS = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+    private static final ImageLoadQueue<Bitmap> sLoadQueue = new ImageLoadQueue<>(DECODE_THREADS, VLCApplication.THREAD_FACTORY);
 
     /*
      * Custom bindings to trigger image (down)loading
@@ -73,8 +78,16 @@ public class AsyncImageLoader {
 
     @BindingAdapter({"imageUri"})
     public static void downloadIcon(final View v, final Uri imageUri) {
-        if (imageUri != null && imageUri.getScheme().equals("http"))
-            loadImage(new HttpImageLoader(imageUri.toString(), DataBindingUtil.findBinding(v)), v);
+        if (imageUri != null && imageUri.getScheme().equals("http")) {
+            final String link = imageUri.toString();
+            final int width = v.getWidth();
+            loadImage(link, new Callable<Bitmap>() {
+                @Override
+                public Bitmap call() {
+                    return HttpImageLoader.downloadBitmap(link, width);
+                }
+            }, new HttpImageLoader(link, width, DataBindingUtil.findBinding(v)), v);
+        }
     }
 
     @BindingAdapter({"media"})
@@ -103,16 +116,30 @@ public class AsyncImageLoader {
                 if (mw != null) item = mw;
             }
         }
-        loadImage(MLItemCoverFetcher.obtain().init(v, item), v);
+        final MediaLibraryItem coverItem = item;
+        final int width = v.getWidth();
+        loadImage(cacheKey, new Callable<Bitmap>() {
+            @Override
+            public Bitmap call() {
+                return MLItemCoverFetcher.getImage(coverItem, width);
+            }
+        }, MLItemCoverFetcher.obtain().init(v, item), v);
     }
 
-    private static void loadImage(final Callbacks cbs, final View target){
-        VLCApplication.runBackground(new Runnable() {
+    /**
+     * Load the image through the shared queue, coalesced with pending loads of the same key.
+     * loader must not depend on cbs state as it may serve other requests.
+     */
+    private static void loadImage(String key, Callable<Bitmap> loader, final CoverFetcher cbs, final View target) {
+        final ImageLoadQueue<Bitmap>.Request request = sLoadQueue.newRequest(new ImageLoadQueue.Listener<Bitmap>() {
             @Override
-            public void run() {
-                cbs.updateImage(cbs.getImage(), target);
+            public void onLoaded(Bitmap bitmap) {
+                cbs.updateImage(bitmap, target);
             }
         });
+        // Set before enqueuing, the listener may recycle cbs before enqueue returns
+        cbs.request = request;
+        sLoadQueue.enqueue(key, loader, request);
     }
 
     private static class MLItemCoverFetcher extends AsyncImageLoader.CoverFetcher {
@@ -133,6 +160,11 @@ public class AsyncImageLoader {
             return this;
         }
 
+        @Override
+        protected void onCancelled() {
+            recycle();
+        }
+
         void recycle() {
             clear();
             item = null;
@@ -143,6 +175,10 @@ public class AsyncImageLoader {
         @Override
         public Bitmap getImage() {
             if (bindChanged) return null;
+            return getImage(item, width);
+        }
+
+        static Bitmap getImage(MediaLibraryItem item, int width) {
             if (item instanceof MediaGroup)
                 return ThumbnailsProvider.getComposedImage((MediaGroup) item);
             return AudioUtil.readCoverBitmap(Uri.decode(item.getArtworkMrl()), width);
@@ -184,11 +220,16 @@ public class AsyncImageLoader {
 
     abstract public static class CoverFetcher implements AsyncImageLoader.Callbacks {
         protected ViewDataBinding binding = null;
-        boolean bindChanged = false;
+        volatile boolean bindChanged = false;
+        volatile ImageLoadQueue<Bitmap>.Request request;
         private final OnRebindCallback<ViewDataBinding> rebindCallbacks = new OnRebindCallback<ViewDataBinding>() {
             @Override
             public boolean onPreBind(ViewDataBinding binding) {
                 bindChanged = true;
+                // View is rebound, drop the pending load if nobody else waits for it
+                final ImageLoadQueue<Bitmap>.Request pending = request;
+                if (pending != null && sLoadQueue.cancel(pending))
+                    onCancelled();
                 return super.onPreBind(binding);
             }
 
@@ -211,7 +252,15 @@ public class AsyncImageLoader {
             }
         }
 
+        /**
+         * Called when the request has been cancelled before delivery, updateImage won't be called.
+         */
+        protected void onCancelled() {
+            clear();
+        }
+
         protected void clear() {
+            request = null;
             if (binding != null) {
                 this.binding.removeOnRebindCallback(rebindCallbacks);
                 binding = null;
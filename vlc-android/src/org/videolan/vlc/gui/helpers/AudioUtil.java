@@ -290,7 +290,7 @@ public class AudioUtil {
             cover = cache.getBitmapFromMemCache(getCoverCachePath(context, media, width));
         }
         if (cover == null && media != null && !TextUtils.isEmpty(media.getArtworkURL()) && media.getArtworkURL().startsWith("http")) {
-            cover = HttpImageLoader.getBitmapFromIconCache(media.getArtworkURL());
+            cover = HttpImageLoader.getBitmapFromIconCache(media.getArtworkURL(), width);
         }
         return cover;
     }
@@ -378,7 +378,7 @@ public class AudioUtil {
         if (path == null)
             return null;
         if (path.startsWith("http"))
-            return HttpImageLoader.downloadBitmap(path);
+            return HttpImageLoader.downloadBitmap(path, width);
         if (path.startsWith("file"))
             path = path.substring(7);
         Bitmap cover = null;
@@ -398,8 +398,16 @@ public class AudioUtil {
                     options.inSampleSize = options.inSampleSize * 2;
             }
 
-            // Decode the file (with memory allocation this time)
+            // Decode the file, into a pooled bitmap if one fits
+            final BitmapPool pool = BitmapPool.getInstance();
+            pool.prepareDecode(options);
             cover = BitmapFactory.decodeFile(path, options);
+            if (cover == null && options.inBitmap != null) {
+                // inBitmap rejected by the decoder, decodeFile() returns null instead of throwing
+                pool.put(options.inBitmap);
+                options.inBitmap = null;
+                cover = BitmapFactory.decodeFile(path, options);
+            }
             BitmapCache.getInstance().addBitmapToMemCache(path, cover);
         }
         return cover;
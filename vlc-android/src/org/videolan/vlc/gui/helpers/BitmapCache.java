@@ -21,6 +21,7 @@
 package org.videolan.vlc.gui.helpers;
 
 import android.annotation.TargetApi;
+import android.content.ComponentCallbacks2;
 import android.content.res.Resources;
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
@@ -31,16 +32,43 @@ import android.util.Log;
 import org.videolan.vlc.BuildConfig;
 import org.videolan.vlc.util.Strings;
 
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Memory cache for bitmaps, split in segments with their own lock so that
+ * binds and decoding threads don't contend on a single monitor.
+ */
 public class BitmapCache {
 
     private final static String TAG = "VLC/BitmapCache";
 
-    private static BitmapCache mInstance;
-    private final LruCache<String, Bitmap> mMemCache;
-
-    public synchronized static BitmapCache getInstance() {
-        if (mInstance == null)
-            mInstance = new BitmapCache();
+    /* Must be a power of two */
+    private static final int SEGMENTS = 8;
+
+    public static final int SIZE_CLASS_SMALL = 0;
+    public static final int SIZE_CLASS_MEDIUM = 1;
+    public static final int SIZE_CLASS_LARGE = 2;
+    /* Size classes upper bounds, in bytes */
+    private static final int SMALL_MAX_BYTES = 64 * 1024;
+    private static final int MEDIUM_MAX_BYTES = 512 * 1024;
+
+    private static volatile BitmapCache mInstance;
+    private final Segment[] mSegments = new Segment[SEGMENTS];
+    private final AtomicLong mHits = new AtomicLong();
+    private final AtomicLong mMisses = new AtomicLong();
+    private final AtomicLong mEvictions = new AtomicLong();
+    private final AtomicLongArray mClassCounts = new AtomicLongArray(3);
+    private final AtomicLongArray mClassBytes = new AtomicLongArray(3);
+
+    public static BitmapCache getInstance() {
+        if (mInstance == null) {
+            synchronized (BitmapCache.class) {
+                if (mInstance == null)
+                    mInstance = new BitmapCache();
+            }
+        }
         return mInstance;
     }
 
@@ -53,27 +81,71 @@ public class BitmapCache {
         if (BuildConfig.DEBUG)
             Log.i(TAG, "LRUCache size set to " +  Strings.readableSize(cacheSize));
 
-        mMemCache = new LruCache<String, Bitmap>((int) cacheSize) {
+        for (int i = 0; i < SEGMENTS; ++i)
+            mSegments[i] = new Segment((int) (cacheSize / SEGMENTS));
+    }
+
+    private class Segment extends LruCache<String, Bitmap> {
 
-            @Override
-            protected int sizeOf(String key, Bitmap value) {
-                return value.getRowBytes() * value.getHeight();
-            }
-        };
+        Segment(int maxSize) {
+            super(maxSize);
+        }
+
+        @Override
+        protected int sizeOf(String key, Bitmap value) {
+            return getSize(value);
+        }
+
+        @Override
+        protected void entryRemoved(boolean evicted, String key, Bitmap oldValue, Bitmap newValue) {
+            account(oldValue, -1);
+            if (evicted)
+                mEvictions.incrementAndGet();
+        }
+    }
+
+    private Segment segmentFor(String key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return mSegments[h & (SEGMENTS - 1)];
+    }
+
+    private static int getSize(Bitmap bitmap) {
+        return bitmap.getRowBytes() * bitmap.getHeight();
+    }
+
+    private static int getSizeClass(int size) {
+        if (size <= SMALL_MAX_BYTES)
+            return SIZE_CLASS_SMALL;
+        return size <= MEDIUM_MAX_BYTES ? SIZE_CLASS_MEDIUM : SIZE_CLASS_LARGE;
+    }
+
+    private void account(Bitmap bitmap, int sign) {
+        final int size = getSize(bitmap);
+        final int sizeClass = getSizeClass(size);
+        mClassCounts.addAndGet(sizeClass, sign);
+        mClassBytes.addAndGet(sizeClass, sign * size);
     }
 
-    public synchronized Bitmap getBitmapFromMemCache(String key) {
-        final Bitmap b = mMemCache.get(key);
-        if (b == null){
-            mMemCache.remove(key);
+    public Bitmap getBitmapFromMemCache(String key) {
+        final Bitmap b = key != null ? segmentFor(key).get(key) : null;
+        if (b == null) {
+            mMisses.incrementAndGet();
             return null;
         }
+        mHits.incrementAndGet();
         return b;
     }
 
-    public synchronized void addBitmapToMemCache(String key, Bitmap bitmap) {
-        if (key != null && bitmap != null && getBitmapFromMemCache(key) == null) {
-            mMemCache.put(key, bitmap);
+    public void addBitmapToMemCache(String key, Bitmap bitmap) {
+        if (key == null || bitmap == null)
+            return;
+        final Segment segment = segmentFor(key);
+        synchronized (segment) {
+            if (segment.get(key) == null) {
+                account(bitmap, 1);
+                segment.put(key, bitmap);
+            }
         }
     }
 
@@ -85,8 +157,86 @@ public class BitmapCache {
         addBitmapToMemCache("res:" + resId, bitmap);
     }
 
-    public synchronized void clear() {
-        mMemCache.evictAll();
+    public void clear() {
+        for (Segment segment : mSegments)
+            segment.evictAll();
+        BitmapPool.getInstance().clear();
+    }
+
+    /**
+     * Shrink the cache according to the {@link ComponentCallbacks2} trim level,
+     * instead of dropping everything at the first notification.
+     */
+    public void trimMemory(int level) {
+        final int percent;
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_COMPLETE)
+            percent = 0;
+        else if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE)
+            percent = 25;
+        else if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND)
+            percent = 50;
+        else if (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN)
+            percent = 75;
+        else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL)
+            percent = 25;
+        else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW)
+            percent = 50;
+        else
+            percent = 75;
+        for (Segment segment : mSegments) {
+            if (percent == 0)
+                segment.evictAll();
+            else
+                segment.trimToSize((int) ((long) segment.maxSize() * percent / 100));
+        }
+        BitmapPool.getInstance().clear();
+        if (BuildConfig.DEBUG)
+            Log.i(TAG, "trimMemory(" + level + ") to " + percent + "%: " + getStats());
+    }
+
+    public long hitCount() {
+        return mHits.get();
+    }
+
+    public long missCount() {
+        return mMisses.get();
+    }
+
+    public long evictionCount() {
+        return mEvictions.get();
+    }
+
+    /**
+     * @param sizeClass one of SIZE_CLASS_SMALL, SIZE_CLASS_MEDIUM, SIZE_CLASS_LARGE
+     * @return the number of cached bitmaps in this size class
+     */
+    public long sizeClassCount(int sizeClass) {
+        return mClassCounts.get(sizeClass);
+    }
+
+    /**
+     * @param sizeClass one of SIZE_CLASS_SMALL, SIZE_CLASS_MEDIUM, SIZE_CLASS_LARGE
+     * @return the bytes used by the cached bitmaps of this size class
+     */
+    public long sizeClassBytes(int sizeClass) {
+        return mClassBytes.get(sizeClass);
+    }
+
+    public long size() {
+        long size = 0;
+        for (Segment segment : mSegments)
+            size += segment.size();
+        return size;
+    }
+
+    public String getStats() {
+        final long hits = hitCount();
+        final long accesses = hits + missCount();
+        return String.format(Locale.US, "size=%s hits=%d misses=%d hitRate=%d%% evictions=%d small=%d/%s medium=%d/%s large=%d/%s",
+                Strings.readableSize(size()), hits, missCount(), accesses != 0 ? (100 * hits / accesses) : 0, evictionCount(),
+                sizeClassCount(SIZE_CLASS_SMALL), Strings.readableSize(sizeClassBytes(SIZE_CLASS_SMALL)),
+                sizeClassCount(SIZE_CLASS_MEDIUM), Strings.readableSize(sizeClassBytes(SIZE_CLASS_MEDIUM)),
+                sizeClassCount(SIZE_CLASS_LARGE), Strings.readableSize(sizeClassBytes(SIZE_CLASS_LARGE)));
     }
 
     public static Bitmap getFromResource(Resources res, int resId) {
@@ -0,0 +1,156 @@
+/*****************************************************************************
+ * BitmapPool.java
+ *****************************************************************************
+ * Copyright © 2018 VLC authors and VideoLAN
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston MA 02110-1301, USA.
+ *****************************************************************************/
+
+package org.videolan.vlc.gui.helpers;
+
+import android.annotation.TargetApi;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Build;
+import android.support.annotation.Nullable;
+
+import org.videolan.libvlc.util.AndroidUtil;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+
+/**
+ * Pool of mutable bitmaps, keyed by width, height and config, to be reused as
+ * decoding targets ({@link BitmapFactory.Options#inBitmap}) or drawing canvases.
+ *
+ * Only bitmaps nobody displays anymore must be given back, so the pool is only fed
+ * with intermediate bitmaps by the code which created them. Bitmaps evicted from
+ * {@link BitmapCache} may still be displayed and never go to the pool.
+ */
+public class BitmapPool {
+
+    private static volatile BitmapPool sInstance;
+
+    private final HashMap<Long, ArrayDeque<Bitmap>> mPool = new HashMap<>();
+    private final long mMaxSize;
+    private long mSize;
+
+    public static BitmapPool getInstance() {
+        if (sInstance == null) {
+            synchronized (BitmapPool.class) {
+                if (sInstance == null)
+                    sInstance = new BitmapPool(Runtime.getRuntime().maxMemory() / 16);
+            }
+        }
+        return sInstance;
+    }
+
+    private BitmapPool(long maxSize) {
+        mMaxSize = maxSize;
+    }
+
+    private static long key(int width, int height, Bitmap.Config config) {
+        return ((long) width << 32) | ((long) (height & 0xffffff) << 8) | (config != null ? config.ordinal() : 0xff);
+    }
+
+    private static int getSize(Bitmap bitmap) {
+        return bitmap.getRowBytes() * bitmap.getHeight();
+    }
+
+    /**
+     * Give a bitmap back to the pool. It must not be used by the caller anymore.
+     */
+    public void put(Bitmap bitmap) {
+        if (!AndroidUtil.isHoneycombOrLater || bitmap == null || bitmap.isRecycled() || !bitmap.isMutable())
+            return;
+        final int size = getSize(bitmap);
+        synchronized (this) {
+            if (mSize + size > mMaxSize)
+                return;
+            final long key = key(bitmap.getWidth(), bitmap.getHeight(), bitmap.getConfig());
+            ArrayDeque<Bitmap> bitmaps = mPool.get(key);
+            if (bitmaps == null) {
+                bitmaps = new ArrayDeque<>();
+                mPool.put(key, bitmaps);
+            }
+            bitmaps.push(bitmap);
+            mSize += size;
+        }
+    }
+
+    /**
+     * @return a cleared mutable bitmap with these exact dimensions, or null if none is available
+     */
+    @Nullable
+    public Bitmap get(int width, int height, Bitmap.Config config) {
+        final Bitmap bitmap;
+        synchronized (this) {
+            final ArrayDeque<Bitmap> bitmaps = mPool.get(key(width, height, config));
+            if (bitmaps == null || bitmaps.isEmpty())
+                return null;
+            bitmap = bitmaps.pop();
+            mSize -= getSize(bitmap);
+        }
+        bitmap.eraseColor(0);
+        return bitmap;
+    }
+
+    /**
+     * @return a bitmap from the pool, or a new one
+     */
+    public Bitmap getOrCreate(int width, int height, Bitmap.Config config) {
+        final Bitmap bitmap = get(width, height, config);
+        return bitmap != null ? bitmap : Bitmap.createBitmap(width, height, config);
+    }
+
+    /**
+     * Set up decoding options to decode into a pooled bitmap, if one fits.
+     * {@link BitmapFactory.Options#outWidth}, outHeight and inSampleSize must be set.
+     */
+    @TargetApi(Build.VERSION_CODES.HONEYCOMB)
+    public void prepareDecode(BitmapFactory.Options options) {
+        if (!AndroidUtil.isHoneycombOrLater)
+            return;
+        options.inMutable = true;
+        // Before KitKat, subsampled decodes can't reuse a bitmap
+        if (!AndroidUtil.isKitKatOrLater && options.inSampleSize > 1)
+            return;
+        final int sampleSize = Math.max(options.inSampleSize, 1);
+        Bitmap candidate = get(options.outWidth / sampleSize, options.outHeight / sampleSize, Bitmap.Config.ARGB_8888);
+        if (candidate == null && AndroidUtil.isKitKatOrLater)
+            candidate = findReusable(options);
+        options.inBitmap = candidate;
+    }
+
+    /**
+     * Since KitKat, any large enough bitmap can be decoded into.
+     */
+    private synchronized Bitmap findReusable(BitmapFactory.Options options) {
+        for (ArrayDeque<Bitmap> bitmaps : mPool.values()) {
+            final Bitmap bitmap = bitmaps.peek();
+            if (bitmap != null && BitmapUtil.canUseForInBitmap(bitmap, options)) {
+                bitmaps.pop();
+                mSize -= getSize(bitmap);
+                return bitmap;
+            }
+        }
+        return null;
+    }
+
+    public synchronized void clear() {
+        mPool.clear();
+        mSize = 0;
+    }
+}
@@ -25,6 +25,8 @@ import android.content.Context;
 import android.content.res.Resources;
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Rect;
 import android.net.Uri;
 import android.os.Build;
 
@@ -191,12 +193,24 @@ public class BitmapUtil {
         final int heightDiff = srcBmp.getHeight()-height;
         if (widthDiff <= 0 && heightDiff <= 0)
             return srcBmp;
-        return Bitmap.createBitmap(
-                srcBmp,
-                widthDiff/2,
-                heightDiff/2,
-                width,
-                height
-        );
+        final Bitmap.Config config = srcBmp.getConfig() != null ? srcBmp.getConfig() : Bitmap.Config.ARGB_8888;
+        final Bitmap cropped = BitmapPool.getInstance().getOrCreate(
+                Math.min(width, srcBmp.getWidth()),
+                Math.min(height, srcBmp.getHeight()),
+                config);
+        drawCenterCrop(new Canvas(cropped), srcBmp, 0, 0, width, height);
+        return cropped;
+    }
+
+    /**
+     * Draw the center of srcBmp, at most width x height, into canvas at left/top.
+     * Saves creating an intermediate cropped bitmap.
+     */
+    public static void drawCenterCrop(Canvas canvas, Bitmap srcBmp, int left, int top, int width, int height) {
+        final int w = Math.min(width, srcBmp.getWidth());
+        final int h = Math.min(height, srcBmp.getHeight());
+        final int x = (srcBmp.getWidth() - w) / 2;
+        final int y = (srcBmp.getHeight() - h) / 2;
+        canvas.drawBitmap(srcBmp, new Rect(x, y, x + w, y + h), new Rect(left, top, left + w, top + h), null);
     }
 }
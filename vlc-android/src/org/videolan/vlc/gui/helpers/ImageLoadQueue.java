@@ -0,0 +1,181 @@
+/*****************************************************************************
+ * ImageLoadQueue.java
+ *****************************************************************************
+ * Copyright © 2018 VLC authors and VideoLAN
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston MA 02110-1301, USA.
+ *****************************************************************************/
+
+package org.videolan.vlc.gui.helpers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded pool of loading threads, with requests coalesced by key.
+ *
+ * Requests for a key already queued or loading are attached to the pending load instead
+ * of starting a new one. Pending loads are run last in, first out, so the latest bound
+ * views are served first. A cancelled request is never delivered, and a load with no
+ * remaining request is dropped from the queue before it starts.
+ */
+public class ImageLoadQueue<T> {
+
+    public interface Listener<T> {
+        /**
+         * Called on the loading thread.
+         */
+        void onLoaded(T result);
+    }
+
+    /**
+     * Handle on an enqueued request, to cancel it.
+     */
+    public final class Request {
+        private final Listener<T> mListener;
+        /* Guarded by the queue */
+        private Load mLoad;
+        private boolean mEnqueued;
+
+        private Request(Listener<T> listener) {
+            mListener = listener;
+        }
+    }
+
+    private final class Load implements Runnable {
+        final String key;
+        final Callable<T> loader;
+        final List<Request> requests = new ArrayList<>(1);
+        boolean started;
+
+        Load(String key, Callable<T> loader) {
+            this.key = key;
+            this.loader = loader;
+        }
+
+        @Override
+        public void run() {
+            synchronized (ImageLoadQueue.this) {
+                if (requests.isEmpty()) {
+                    mLoads.remove(key);
+                    return;
+                }
+                started = true;
+            }
+            T result = null;
+            try {
+                result = loader.call();
+            } catch (Exception ignored) {}
+            final List<Request> delivered;
+            synchronized (ImageLoadQueue.this) {
+                mLoads.remove(key);
+                delivered = new ArrayList<>(requests);
+                for (Request request : requests)
+                    request.mLoad = null;
+                requests.clear();
+            }
+            for (Request request : delivered)
+                request.mListener.onLoaded(result);
+        }
+    }
+
+    private final HashMap<String, Load> mLoads = new HashMap<>();
+    private final LinkedBlockingDeque<Runnable> mQueue = new LinkedBlockingDeque<Runnable>() {
+        @Override
+        public boolean offer(Runnable runnable) {
+            return offerFirst(runnable);
+        }
+    };
+    private final ThreadPoolExecutor mExecutor;
+
+    public ImageLoadQueue(int threads, ThreadFactory threadFactory) {
+        mExecutor = new ThreadPoolExecutor(threads, threads, 2, TimeUnit.SECONDS,
+                mQueue, threadFactory);
+        mExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Create a request to give to {@link #enqueue(String, Callable, Request)}, so that it can
+     * be stored before its listener may be called.
+     */
+    public Request newRequest(Listener<T> listener) {
+        return new Request(listener);
+    }
+
+    /**
+     * Request the value for key. loader is only called if no load is pending for this key.
+     */
+    public Request enqueue(String key, Callable<T> loader, Listener<T> listener) {
+        return enqueue(key, loader, newRequest(listener));
+    }
+
+    /**
+     * Enqueue a request created by {@link #newRequest(Listener)}, only once.
+     */
+    public Request enqueue(String key, Callable<T> loader, Request request) {
+        final Load load;
+        synchronized (this) {
+            if (request.mEnqueued)
+                throw new IllegalStateException("Request is already enqueued");
+            request.mEnqueued = true;
+            final Load pending = mLoads.get(key);
+            if (pending != null) {
+                pending.requests.add(request);
+                request.mLoad = pending;
+                // Latest request wins, move it back to the head of the queue
+                if (!pending.started && mQueue.remove(pending))
+                    mQueue.offerFirst(pending);
+                return request;
+            }
+            load = new Load(key, loader);
+            load.requests.add(request);
+            request.mLoad = load;
+            mLoads.put(key, load);
+        }
+        mExecutor.execute(load);
+        return request;
+    }
+
+    /**
+     * Cancel a request. Its listener won't be called once this returns true.
+     *
+     * @return false if the result is being or has been delivered
+     */
+    public boolean cancel(Request request) {
+        synchronized (this) {
+            final Load load = request.mLoad;
+            if (load == null)
+                return false;
+            request.mLoad = null;
+            load.requests.remove(request);
+            if (load.requests.isEmpty() && !load.started && mQueue.remove(load))
+                mLoads.remove(load.key);
+            return true;
+        }
+    }
+
+    /**
+     * @return number of loads waiting for a thread
+     */
+    public int getPendingCount() {
+        return mQueue.size();
+    }
+}
@@ -64,6 +64,7 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import org.videolan.libvlc.util.AndroidUtil;
+import org.videolan.medialibrary.Tools;
 import org.videolan.medialibrary.media.MediaLibraryItem;
 import org.videolan.medialibrary.media.MediaWrapper;
 import org.videolan.vlc.BuildConfig;
@@ -180,6 +181,38 @@ public class UiTools {
         }
     }
 
+    /* Main thread only */
+    private static final StringBuilder sTimeBuilder = new StringBuilder(32);
+
+    /**
+     * Display prefix followed by the (hh:)mm:ss time, without allocating once the view has its buffer.
+     * Main thread only.
+     */
+    public static void setTimeText(TextView view, @Nullable String prefix, long millis) {
+        final StringBuilder sb = sTimeBuilder;
+        sb.setLength(0);
+        if (prefix != null)
+            sb.append(prefix);
+        Tools.appendMillis(sb, millis, false, true);
+        final int length = sb.length();
+        final CharSequence text = view.getText();
+        if (text != null && text.length() == length) {
+            int i = 0;
+            while (i < length && text.charAt(i) == sb.charAt(i))
+                ++i;
+            if (i == length)
+                return;
+        }
+        char[] chars = (char[]) view.getTag(R.id.time_chars);
+        if (chars == null || chars.length < length) {
+            chars = new char[Math.max(length, 16)];
+            view.setTag(R.id.time_chars, chars);
+        }
+        // The view keeps a reference to chars, which may only change right before setText
+        sb.getChars(0, length, chars, 0);
+        view.setText(chars, 0, length);
+    }
+
     public static void setViewVisibility(View v, int visibility) {
         if (v != null)
             v.setVisibility(visibility);
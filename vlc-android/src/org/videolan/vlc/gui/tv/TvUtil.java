@@ -42,6 +42,7 @@ import org.videolan.vlc.R;
 import org.videolan.vlc.VLCApplication;
 import org.videolan.vlc.gui.DialogActivity;
 import org.videolan.vlc.gui.helpers.AudioUtil;
+import org.videolan.vlc.gui.helpers.BitmapPool;
 import org.videolan.vlc.gui.helpers.BitmapUtil;
 import org.videolan.vlc.gui.helpers.UiTools;
 import org.videolan.vlc.gui.tv.audioplayer.AudioPlayerActivity;
@@ -154,9 +155,15 @@ public class TvUtil {
                         if (bm == null) return;
                         Bitmap cover = AudioUtil.readCoverBitmap(Uri.decode(artworkMrl), 512);
                         if (cover == null) return;
-                        if (crop)
-                            cover = BitmapUtil.centerCrop(cover, cover.getWidth(), cover.getWidth()*10/16);
-                        final Bitmap blurred = UiTools.blurBitmap(cover, 10f);
+                        final Bitmap blurred;
+                        if (crop) {
+                            final Bitmap cropped = BitmapUtil.centerCrop(cover, cover.getWidth(), cover.getWidth()*10/16);
+                            blurred = UiTools.blurBitmap(cropped, 10f);
+                            // The cropped copy is only used for the blur
+                            if (cropped != cover)
+                                BitmapPool.getInstance().put(cropped);
+                        } else
+                            blurred = UiTools.blurBitmap(cover, 10f);
                         VLCApplication.runOnMainThread(new Runnable() {
                             @Override
                             public void run() {
@@ -28,10 +28,6 @@ import android.content.Intent;
 import android.net.Uri;
 import android.os.Build;
 import android.os.Bundle;
-import android.os.Handler;
-import android.os.HandlerThread;
-import android.os.Looper;
-import android.os.Process;
 import android.support.v17.leanback.widget.OnItemViewClickedListener;
 import android.support.v17.leanback.widget.OnItemViewSelectedListener;
 import android.support.v17.leanback.widget.Presenter;
@@ -51,6 +47,7 @@ import org.videolan.vlc.gui.tv.MediaItemDetails;
 import org.videolan.vlc.gui.tv.TvUtil;
 import org.videolan.vlc.gui.tv.browser.interfaces.BrowserActivityInterface;
 import org.videolan.vlc.gui.tv.browser.interfaces.DetailsFragment;
+import org.videolan.vlc.util.BrowserScheduler;
 import org.videolan.vlc.util.VLCInstance;
 
 import java.util.ArrayList;
@@ -66,18 +63,10 @@ public class BrowserGridFragment extends GridFragment implements MediaBrowser.Ev
     private MediaWrapper mItemSelected;
     private boolean mShowHiddenFiles = false;
 
-    private Handler mBrowserHandler;
+    private final BrowserScheduler.Session mBrowserSession = BrowserScheduler.openSession();
 
     protected void runOnBrowserThread(Runnable runnable) {
-        if (mBrowserHandler == null) {
-            HandlerThread handlerThread = new HandlerThread("vlc-browser", Process.THREAD_PRIORITY_DEFAULT+Process.THREAD_PRIORITY_LESS_FAVORABLE);
-            handlerThread.start();
-            mBrowserHandler = new Handler(handlerThread.getLooper());
-        }
-        if (Looper.myLooper() == mBrowserHandler.getLooper())
-            runnable.run();
-        else
-            mBrowserHandler.post(runnable);
+        mBrowserSession.run(runnable);
     }
 
     public void onCreate(Bundle savedInstanceState) {
@@ -94,6 +83,7 @@ public class BrowserGridFragment extends GridFragment implements MediaBrowser.Ev
             @Override
             public void run() {
                 mMediaBrowser = new MediaBrowser(VLCInstance.get(), BrowserGridFragment.this);
+                mBrowserSession.onBrowserCreated();
                 if (mUri != null) {
                     int flags = MediaBrowser.Flag.Interact;
                     if (mShowHiddenFiles) flags |= MediaBrowser.Flag.ShowHiddenFiles;
@@ -107,15 +97,24 @@ public class BrowserGridFragment extends GridFragment implements MediaBrowser.Ev
 
     public void onPause(){
         super.onPause();
-        runOnBrowserThread(new Runnable() {
-            @Override
-            public void run() {
-                if (mMediaBrowser != null) mMediaBrowser.release();
-                mMediaBrowser = null;
-            }
-        });
+        runOnBrowserThread(mReleaseBrowser);
         ((BrowserActivityInterface)mContext).updateEmptyView(false);
     }
+
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+        mBrowserSession.destroy(mReleaseBrowser);
+    }
+
+    private final Runnable mReleaseBrowser = new Runnable() {
+        @Override
+        public void run() {
+            if (mMediaBrowser != null) mMediaBrowser.release();
+            mMediaBrowser = null;
+            mBrowserSession.onBrowserReleased();
+        }
+    };
     @Override
     public void onMediaAdded(int index, Media media) {
         final MediaWrapper mw = new MediaWrapper(media);
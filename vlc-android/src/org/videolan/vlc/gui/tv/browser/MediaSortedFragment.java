@@ -29,9 +29,6 @@ import android.content.Intent;
 import android.net.Uri;
 import android.os.Build;
 import android.os.Bundle;
-import android.os.Handler;
-import android.os.HandlerThread;
-import android.os.Process;
 import android.support.annotation.NonNull;
 import android.support.v7.preference.PreferenceManager;
 
@@ -41,6 +38,7 @@ import org.videolan.medialibrary.Medialibrary;
 import org.videolan.medialibrary.media.MediaWrapper;
 import org.videolan.vlc.VLCApplication;
 import org.videolan.vlc.gui.tv.browser.interfaces.BrowserActivityInterface;
+import org.videolan.vlc.util.BrowserScheduler;
 import org.videolan.vlc.util.VLCInstance;
 
 @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR1)
@@ -50,10 +48,10 @@ public abstract class MediaSortedFragment extends SortedBrowserFragment implemen
     private boolean mShowHiddenFiles = false;
     private final Medialibrary mMedialibrary = VLCApplication.getMLInstance();
 
-    private static Handler sBrowserHandler;
+    private final BrowserScheduler.Session mBrowserSession = BrowserScheduler.openSession();
 
     protected void runOnBrowserThread(Runnable runnable) {
-        sBrowserHandler.post(runnable);
+        mBrowserSession.run(runnable);
     }
 
     abstract protected void browseRoot();
@@ -73,11 +71,6 @@ public abstract class MediaSortedFragment extends SortedBrowserFragment implemen
             if (intent != null)
                 mUri = intent.getData();
         }
-        if (sBrowserHandler == null) {
-            HandlerThread handlerThread = new HandlerThread("vlc-browser", Process.THREAD_PRIORITY_DEFAULT+Process.THREAD_PRIORITY_LESS_FAVORABLE);
-            handlerThread.start();
-            sBrowserHandler = new Handler(handlerThread.getLooper());
-        }
         mShowHiddenFiles = PreferenceManager.getDefaultSharedPreferences(VLCApplication.getAppContext()).getBoolean("browser_show_hidden_files", false);
     }
 
@@ -85,7 +78,9 @@ public abstract class MediaSortedFragment extends SortedBrowserFragment implemen
         runOnBrowserThread(new Runnable() {
             @Override
             public void run() {
-                mMediaBrowser = new MediaBrowser(VLCInstance.get(), MediaSortedFragment.this, sBrowserHandler);
+                releaseBrowser.run();
+                mMediaBrowser = new MediaBrowser(VLCInstance.get(), MediaSortedFragment.this, mBrowserSession.getHandler());
+                mBrowserSession.onBrowserCreated();
                 if (mMediaBrowser != null) {
                     int flags = MediaBrowser.Flag.Interact;
                     if (mShowHiddenFiles)
@@ -111,6 +106,12 @@ public abstract class MediaSortedFragment extends SortedBrowserFragment implemen
         runOnBrowserThread(releaseBrowser);
     }
 
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+        mBrowserSession.destroy(releaseBrowser);
+    }
+
     @Override
     public void onSaveInstanceState(Bundle outState) {
         super.onSaveInstanceState(outState);
@@ -167,6 +168,7 @@ public abstract class MediaSortedFragment extends SortedBrowserFragment implemen
                 mMediaBrowser.release();
                 mMediaBrowser = null;
             }
+            mBrowserSession.onBrowserReleased();
         }
     };
 }
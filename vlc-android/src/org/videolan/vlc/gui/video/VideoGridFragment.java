@@ -49,6 +49,7 @@ import android.widget.Filter;
 import org.videolan.libvlc.util.AndroidUtil;
 import org.videolan.medialibrary.Medialibrary;
 import org.videolan.medialibrary.interfaces.MediaAddedCb;
+import org.videolan.medialibrary.interfaces.MediaDeletedCb;
 import org.videolan.medialibrary.interfaces.MediaUpdatedCb;
 import org.videolan.medialibrary.media.MediaLibraryItem;
 import org.videolan.medialibrary.media.MediaWrapper;
@@ -68,20 +69,25 @@ import org.videolan.vlc.interfaces.IEventsHandler;
 import org.videolan.vlc.media.MediaGroup;
 import org.videolan.vlc.media.MediaUtils;
 import org.videolan.vlc.util.Constants;
+import org.videolan.vlc.util.MediaLibraryItemComparator;
 import org.videolan.vlc.util.Util;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
-public class VideoGridFragment extends SortableFragment<VideoListAdapter> implements MediaUpdatedCb, SwipeRefreshLayout.OnRefreshListener, MediaAddedCb, Filterable, IEventsHandler {
+public class VideoGridFragment extends SortableFragment<VideoListAdapter> implements MediaUpdatedCb, SwipeRefreshLayout.OnRefreshListener, MediaAddedCb, MediaDeletedCb, Filterable, IEventsHandler {
 
     private final static String TAG = "VLC/VideoListFragment";
 
     private final static String KEY_GROUP = "key_group";
+    private final static int PAGE_SIZE = 100;
 
     private AutoFitRecyclerView mGridView;
     private View mViewNomedia;
     private String mGroup;
+    private volatile MediaGroup.Grouper mGrouper;
+    private final AtomicInteger mLoadGeneration = new AtomicInteger();
     private View mSearchButtonView;
     private DividerItemDecoration mDividerItemDecoration;
 
@@ -165,6 +171,7 @@ public class VideoGridFragment extends SortableFragment<VideoListAdapter> implem
         } else {
             mMediaLibrary.removeMediaUpdatedCb();
             mMediaLibrary.removeMediaAddedCb();
+            mMediaLibrary.removeMediaDeletedCb();
             unregisterForContextMenu(mGridView);
             restart = true;
         }
@@ -182,6 +189,7 @@ public class VideoGridFragment extends SortableFragment<VideoListAdapter> implem
         if (mGroup == null) {
             mMediaLibrary.setMediaUpdatedCb(this, Medialibrary.FLAG_MEDIA_UPDATED_VIDEO);
             mMediaLibrary.setMediaAddedCb(this, Medialibrary.FLAG_MEDIA_ADDED_VIDEO);
+            mMediaLibrary.setMediaDeletedCb(this);
         }
         if (!isHidden())
             mHandler.sendEmptyMessage(UPDATE_LIST);
@@ -280,11 +288,14 @@ public class VideoGridFragment extends SortableFragment<VideoListAdapter> implem
             }
         })) return;
         final int position = mAdapter.remove(media);
+        final MediaGroup.Grouper grouper = mGrouper;
+        if (position != -1 && grouper != null) grouper.remove(media);
         final View view = getView();
         if (position != -1 && view != null) {
             final Runnable revert = new Runnable() {
                 @Override
                 public void run() {
+                    if (grouper != null) grouper.add(media);
                     mAdapter.add(media);
                 }
             };
@@ -330,44 +341,106 @@ public class VideoGridFragment extends SortableFragment<VideoListAdapter> implem
 
     @Override
     public void onMediaUpdated(final MediaWrapper[] mediaList) {
-        mAdapter.add(mediaList);
+        onMediaAdded(mediaList);
     }
 
     @Override
     public void onMediaAdded(final MediaWrapper[] mediaList) {
-        mAdapter.add(mediaList);
+        final MediaGroup.Grouper grouper = mGrouper;
+        if (grouper == null) {
+            mAdapter.add(mediaList);
+            return;
+        }
+        grouper.add(mediaList);
+        updateDisplayList(grouper);
+    }
+
+    @Override
+    public void onMediaDeleted(long[] ids) {
+        final MediaGroup.Grouper grouper = mGrouper;
+        if (grouper == null)
+            return;
+        grouper.remove(ids);
+        updateDisplayList(grouper);
+    }
+
+    private void updateDisplayList(MediaGroup.Grouper grouper) {
+        final List<MediaWrapper> displayList = grouper.getDisplayList();
+        VLCApplication.runOnMainThread(new Runnable() {
+            @Override
+            public void run() {
+                mAdapter.update(displayList);
+            }
+        });
     }
 
     @MainThread
     public void updateList() {
         mHandler.sendEmptyMessageDelayed(SET_REFRESHING, 300);
+        final int generation = mLoadGeneration.incrementAndGet();
+        final int sort = getLibrarySort(mAdapter.getSortBy());
+        final boolean desc = mAdapter.getSortDirection() < 0;
 
         VLCApplication.runBackground(new Runnable() {
             @Override
             public void run() {
-                final MediaWrapper[] itemList = mMediaLibrary.getVideos();
-                final List<MediaWrapper> displayList = new ArrayList<>();
                 if (mGroup != null) {
+                    final MediaWrapper[] itemList = mMediaLibrary.getVideos();
+                    final List<MediaWrapper> displayList = new ArrayList<>();
                     for (MediaWrapper item : itemList) {
-                        String title = item.getTitle().substring(item.getTitle().toLowerCase().startsWith("the") ? 4 : 0);
+                        String title = item.getTitle().substring(item.getTitle().toLowerCase().startsWith("the ") ? 4 : 0);
                         if (mGroup == null || title.toLowerCase().startsWith(mGroup.toLowerCase()))
                             displayList.add(item);
                     }
+                    publishList(generation, displayList);
                 } else {
-                    for (MediaGroup item : MediaGroup.group(itemList))
-                        displayList.add(item.getMedia());
-                }
-                VLCApplication.runOnMainThread(new Runnable() {
-                    @Override
-                    public void run() {
-                        mAdapter.update(displayList);
+                    // The first page is shown at once, the next ones in a single update
+                    MediaWrapper[] page = mMediaLibrary.getPagedVideos(sort, desc, 0, PAGE_SIZE);
+                    final MediaGroup.Grouper grouper = new MediaGroup.Grouper(page);
+                    mGrouper = grouper;
+                    publishList(generation, grouper.getDisplayList());
+                    // Media without files are dropped from pages, only an empty page ends the list
+                    boolean more = false;
+                    for (int offset = PAGE_SIZE; page.length > 0; offset += PAGE_SIZE) {
+                        // A newer load replaces this one
+                        if (mLoadGeneration.get() != generation)
+                            return;
+                        page = mMediaLibrary.getPagedVideos(sort, desc, offset, PAGE_SIZE);
+                        if (page.length > 0) {
+                            grouper.add(page);
+                            more = true;
+                        }
                     }
-                });
+                    if (more)
+                        publishList(generation, grouper.getDisplayList());
+                }
                 mHandler.sendEmptyMessage(UNSET_REFRESHING);
             }
         });
     }
 
+    private void publishList(final int generation, final List<MediaWrapper> displayList) {
+        VLCApplication.runOnMainThread(new Runnable() {
+            @Override
+            public void run() {
+                if (mLoadGeneration.get() == generation)
+                    mAdapter.update(displayList);
+            }
+        });
+    }
+
+    /* Library order of the pages, so that the first ones hold the first items once sorted */
+    private static int getLibrarySort(int sortBy) {
+        switch (sortBy) {
+            case MediaLibraryItemComparator.SORT_BY_LENGTH:
+                return Medialibrary.SORT_DURATION;
+            case MediaLibraryItemComparator.SORT_BY_DATE:
+                return Medialibrary.SORT_LASTMODIFICATIONDATE;
+            default:
+                return Medialibrary.SORT_ALPHA;
+        }
+    }
+
     void updateEmptyView() {
         mViewNomedia.setVisibility(mAdapter.getItemCount() > 0 ? View.GONE : View.VISIBLE);
     }
@@ -531,7 +604,7 @@ public class VideoGridFragment extends SortableFragment<VideoListAdapter> implem
         }
         final Activity activity = getActivity();
         if (media instanceof MediaGroup) {
-            final String title = media.getTitle().substring(media.getTitle().toLowerCase().startsWith("the") ? 4 : 0);
+            final String title = media.getTitle().substring(media.getTitle().toLowerCase().startsWith("the ") ? 4 : 0);
             ((MainActivity)activity).showSecondaryFragment(SecondaryActivity.VIDEO_GROUP_LIST, title);
         } else {
             media.removeFlags(MediaWrapper.MEDIA_FORCE_AUDIO);
@@ -397,7 +397,8 @@ public class VideoListAdapter extends SortableAdapter<MediaWrapper, VideoListAda
         public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
             final MediaWrapper oldItem = oldList.get(oldItemPosition);
             final MediaWrapper newItem = newList.get(newItemPosition);
-            return oldItem == newItem || (oldItem.getTime() == newItem.getTime()
+            // Groups are recreated when their content changes
+            return oldItem == newItem || (!(newItem instanceof MediaGroup) && oldItem.getTime() == newItem.getTime()
                     && TextUtils.equals(oldItem.getArtworkMrl(), newItem.getArtworkMrl())
                     && oldItem.getSeen() == newItem.getSeen());
         }
@@ -407,6 +408,8 @@ public class VideoListAdapter extends SortableAdapter<MediaWrapper, VideoListAda
         public Object getChangePayload(int oldItemPosition, int newItemPosition) {
             final MediaWrapper oldItem = oldList.get(oldItemPosition);
             final MediaWrapper newItem = newList.get(newItemPosition);
+            if (newItem instanceof MediaGroup)
+                return null;
             if (oldItem.getTime() != newItem.getTime())
                 return UPDATE_TIME;
             if (!TextUtils.equals(oldItem.getArtworkMrl(), newItem.getArtworkMrl()))
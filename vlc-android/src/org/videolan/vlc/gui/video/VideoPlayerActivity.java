@@ -254,6 +254,8 @@ public class VideoPlayerActivity extends AppCompatActivity implements IVLCVout.C
     private long mAudioDelay = 0L;
     private boolean mRateHasChanged = false;
     private int mCurrentAudioTrack = -2, mCurrentSpuTrack = -2;
+    /* Library media of mTrackMetaSource, its saved tracks are prefetched once per media */
+    private MediaWrapper mTrackMetaSource, mTrackMetaMedia;
 
     private boolean mIsLocked = false;
     /* -1 is a valid track (Disable) */
@@ -1618,7 +1620,7 @@ public class VideoPlayerActivity extends AppCompatActivity implements IVLCVout.C
                 break;
             case MediaPlayer.Event.ESAdded:
                 if (mMenuIdx == -1) {
-                    MediaWrapper media = mMedialibrary.findMedia(mService.getCurrentMediaWrapper());
+                    final MediaWrapper media = getTrackMetaMedia();
                     if (media == null)
                         return;
                     if (event.getEsChangedType() == Media.Track.Type.Audio) {
@@ -2583,7 +2585,7 @@ public class VideoPlayerActivity extends AppCompatActivity implements IVLCVout.C
                         if (trackID < -1 || mService == null)
                             return;
                         mService.setAudioTrack(trackID);
-                        MediaWrapper mw = mMedialibrary.findMedia(mService.getCurrentMediaWrapper());
+                        final MediaWrapper mw = getTrackMetaMedia();
                         if (mw != null && mw.getId() != 0L)
                             mw.setLongMeta(MediaWrapper.META_AUDIOTRACK, trackID);
                     }
@@ -2599,7 +2601,7 @@ public class VideoPlayerActivity extends AppCompatActivity implements IVLCVout.C
                         if (trackID < -1 || mService == null)
                             return;
                         mService.setSpuTrack(trackID);
-                        final MediaWrapper mw = mMedialibrary.findMedia(mService.getCurrentMediaWrapper());
+                        final MediaWrapper mw = getTrackMetaMedia();
                         if (mw != null && mw.getId() != 0L)
                             mw.setLongMeta(MediaWrapper.META_SUBTITLE_TRACK, trackID);
                     }
@@ -2971,6 +2973,21 @@ public class VideoPlayerActivity extends AppCompatActivity implements IVLCVout.C
         }
     }
 
+    /**
+     * @return the library media of the current media, its saved tracks being read once. Saves
+     * go through it too, so that they clear its cached values.
+     */
+    private MediaWrapper getTrackMetaMedia() {
+        final MediaWrapper current = mService.getCurrentMediaWrapper();
+        if (current != mTrackMetaSource) {
+            mTrackMetaSource = current;
+            mTrackMetaMedia = mMedialibrary.findMedia(current);
+            if (mTrackMetaMedia != null)
+                mTrackMetaMedia.prefetchMetaLong(MediaWrapper.META_AUDIOTRACK, MediaWrapper.META_SUBTITLE_TRACK);
+        }
+        return mTrackMetaMedia;
+    }
+
     private void setESTrackLists() {
         if (mAudioTracksList == null && mService.getAudioTracksCount() > 0)
             mAudioTracksList = mService.getAudioTracks();
@@ -3579,9 +3596,15 @@ public class VideoPlayerActivity extends AppCompatActivity implements IVLCVout.C
 
     @BindingAdapter({"length", "time"})
     public static void setPlaybackTime(TextView view, long length, int time) {
-        view.setText(sDisplayRemainingTime && length > 0
-                ? "-" + '\u00A0' + Tools.millisToString(length - time)
-                : Tools.millisToString(length));
+        if (sDisplayRemainingTime && length > 0)
+            UiTools.setTimeText(view, "-\u00A0", length - time);
+        else
+            UiTools.setTimeText(view, null, length);
+    }
+
+    @BindingAdapter({"progressTime"})
+    public static void setProgressTime(TextView view, int progress) {
+        UiTools.setTimeText(view, null, progress);
     }
 
     @BindingAdapter({"mediamax"})
@@ -326,6 +326,11 @@ public class BrowserProvider implements ExtensionManagerService.ExtensionManager
         extensionLock.release();
     }
 
+    @Override
+    public void appendExtensionItems(int extensionId, List<VLCExtensionItem> items) {
+        // Lists are limited to MAX_EXTENSION_SIZE items, which the first page holds
+    }
+
     private static BrowserProvider instance;
     private static BrowserProvider getInstance() {
         if (instance == null)
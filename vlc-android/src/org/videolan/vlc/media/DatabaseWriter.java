@@ -0,0 +1,106 @@
+/*****************************************************************************
+ * DatabaseWriter.java
+ *****************************************************************************
+ * Copyright © 2018 VLC authors and VideoLAN
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston MA 02110-1301, USA.
+ *****************************************************************************/
+
+package org.videolan.vlc.media;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Serializes database mutations on a single writer thread, in submission order.
+ *
+ * Readers never go through this queue, so with WAL journaling they only see
+ * committed data and never wait for a write in progress.
+ */
+class DatabaseWriter {
+
+    private final ExecutorService mExecutor;
+    private volatile Thread mThread;
+
+    DatabaseWriter(final String name) {
+        mExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                final Thread thread = new Thread(runnable, name);
+                mThread = thread;
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Queue a mutation without waiting for it.
+     */
+    void post(Runnable runnable) {
+        if (Thread.currentThread() == mThread) runnable.run();
+        else mExecutor.execute(runnable);
+    }
+
+    /**
+     * Run a mutation on the writer thread and wait for its completion.
+     */
+    void run(final Runnable runnable) {
+        call(new Callable<Void>() {
+            @Override
+            public Void call() {
+                runnable.run();
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Run a mutation on the writer thread and wait for its result.
+     * Unchecked exceptions thrown by the callable are rethrown to the caller.
+     */
+    <T> T call(Callable<T> callable) {
+        if (Thread.currentThread() == mThread) {
+            try {
+                return callable.call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+        final Future<T> future = mExecutor.submit(callable);
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return future.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    final Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                    if (cause instanceof Error) throw (Error) cause;
+                    throw new RuntimeException(cause);
+                }
+            }
+        } finally {
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+    }
+}
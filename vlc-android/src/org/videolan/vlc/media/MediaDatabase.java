@@ -27,6 +27,7 @@ import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteException;
 import android.database.sqlite.SQLiteFullException;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
 import android.net.Uri;
@@ -42,6 +43,7 @@ import org.videolan.vlc.VLCApplication;
 
 import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -49,16 +51,21 @@ import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.Callable;
 
 public class MediaDatabase {
     public final static String TAG = "VLC/MediaDatabase";
 
-    private static MediaDatabase instance;
+    private static volatile MediaDatabase instance;
 
     private SQLiteDatabase mDb;
+    private final ThumbnailStore mThumbnails;
+    private final DatabaseWriter mWriter = new DatabaseWriter("vlc-db-writer");
     private static final String DB_NAME = "vlc_database";
-    private static final int DB_VERSION = 26;
+    private static final int DB_VERSION = 28;
     private static final int CHUNK_SIZE = 50;
+    private static final String THUMBNAILS_DIR = "thumbnails";
+    private static final long THUMBNAILS_MAX_SIZE = 50 * 1024 * 1024;
 
     private static final String DIR_TABLE_NAME = "directories_table";
     private static final String DIR_ROW_PATH = "path";
@@ -69,7 +76,8 @@ public class MediaDatabase {
     private static final String MEDIA_TIME = "time";
     private static final String MEDIA_LENGTH = "length";
     private static final String MEDIA_TYPE = "type";
-    private static final String MEDIA_PICTURE = "picture";
+    private static final String MEDIA_PICTURE = "picture"; // Before version 28, see migratePicturesQuery()
+    private static final String MEDIA_PICTURE_KEY = "picture_key";
     public static final String MEDIA_TITLE = "title";
     private static final String MEDIA_ARTIST = "artist";
     private static final String MEDIA_GENRE = "genre";
@@ -92,6 +100,7 @@ public class MediaDatabase {
     private static final String PLAYLIST_MEDIA_PLAYLISTNAME = "playlist_name";
     private static final String PLAYLIST_MEDIA_MEDIALOCATION = "media_location";
     private static final String PLAYLIST_MEDIA_ORDER = "playlist_order";
+    private static final String PLAYLIST_MEDIA_ORDER_INDEX = "playlist_media_order_index";
 
     private static final String SEARCHHISTORY_TABLE_NAME = "searchhistory_table";
     private static final String SEARCHHISTORY_DATE = "date";
@@ -125,6 +134,52 @@ public class MediaDatabase {
     private static final String NETWORK_FAV_TITLE = "title";
     private static final String NETWORK_FAV_ICON_URL = "icon_url";
 
+    static final String MEDIA_PAGE_QUERY = "SELECT "
+            + MEDIA_LOCATION + ", "     //0 string
+            + MEDIA_TIME + ", "         //1 long
+            + MEDIA_LENGTH + ", "       //2 long
+            + MEDIA_TYPE + ", "         //3 int
+            + MEDIA_TITLE + ", "        //4 string
+            + MEDIA_ARTIST + ", "       //5 string
+            + MEDIA_GENRE + ", "        //6 string
+            + MEDIA_ALBUM + ", "        //7 string
+            + MEDIA_ALBUMARTIST + ", "  //8 string
+            + MEDIA_WIDTH + ", "        //9 int
+            + MEDIA_HEIGHT + ", "       //10 int
+            + MEDIA_ARTWORKURL + ", "   //11 string
+            + MEDIA_AUDIOTRACK + ", "   //12 int
+            + MEDIA_SPUTRACK + ", "     //13 int
+            + MEDIA_TRACKNUMBER + ", "  //14 int
+            + MEDIA_DISCNUMBER + ", "   //15 int
+            + MEDIA_LAST_MODIFIED       //16 long
+            + " FROM " + MEDIA_TABLE_NAME
+            + " WHERE " + MEDIA_LOCATION + " > ?"
+            + " ORDER BY " + MEDIA_LOCATION
+            + " LIMIT " + CHUNK_SIZE;
+
+    static final String VIDEO_TIMES_PAGE_QUERY = "SELECT "
+            + MEDIA_LOCATION + ", "     //0 string
+            + MEDIA_TIME                //1 long
+            + " FROM " + MEDIA_TABLE_NAME
+            + " WHERE " + MEDIA_TYPE + " = ? AND " + MEDIA_LOCATION + " > ?"
+            + " ORDER BY " + MEDIA_LOCATION
+            + " LIMIT " + CHUNK_SIZE;
+
+    static final String PLAYLIST_INSERT_QUERY = "INSERT INTO " + PLAYLIST_MEDIA_TABLE_NAME + " ("
+            + PLAYLIST_MEDIA_PLAYLISTNAME + ", "
+            + PLAYLIST_MEDIA_MEDIALOCATION + ", "
+            + PLAYLIST_MEDIA_ORDER + ") VALUES (?, ?, ?)";
+
+    static final String PLAYLIST_SHIFT_QUERY = "UPDATE " + PLAYLIST_MEDIA_TABLE_NAME
+            + " SET " + PLAYLIST_MEDIA_ORDER + " = " + PLAYLIST_MEDIA_ORDER + " + ?"
+            + " WHERE " + PLAYLIST_MEDIA_PLAYLISTNAME + " = ? AND " + PLAYLIST_MEDIA_ORDER + " >= ?";
+
+    /* Moved item gets its new position, others in between are shifted towards the hole it left */
+    static final String PLAYLIST_MOVE_QUERY = "UPDATE " + PLAYLIST_MEDIA_TABLE_NAME
+            + " SET " + PLAYLIST_MEDIA_ORDER + " = CASE WHEN " + PLAYLIST_MEDIA_ORDER + " = ? THEN ?"
+            + " ELSE " + PLAYLIST_MEDIA_ORDER + " + ? END"
+            + " WHERE " + PLAYLIST_MEDIA_PLAYLISTNAME + " = ? AND " + PLAYLIST_MEDIA_ORDER + " BETWEEN ? AND ?";
+
     //    public static final int INDEX_MEDIA_TABLE_NAME = 0;
 //    public static final int INDEX_MEDIA_PATH = 1;
     public static final int INDEX_MEDIA_TIME = 2;
@@ -151,22 +206,48 @@ public class MediaDatabase {
      * @param context
      */
     private MediaDatabase(Context context) {
+        ThumbnailStore thumbnails;
+        try {
+            thumbnails = new ThumbnailStore(new File(context.getCacheDir(), THUMBNAILS_DIR), THUMBNAILS_MAX_SIZE);
+        } catch (IOException e) {
+            Log.w(TAG, "Thumbnail store could not be opened! Pictures cannot be saved.", e);
+            thumbnails = null;
+        }
+        mThumbnails = thumbnails;
         // create or open database
-        DatabaseHelper helper = new DatabaseHelper(context);
+        DatabaseHelper helper = new DatabaseHelper(context, thumbnails);
         this.mDb = helper.getWritableDatabase();
+        if (helper.mPicturesMigrated) {
+            // Give back the space of the former picture blobs
+            try {
+                mDb.execSQL("VACUUM");
+            } catch (SQLiteException e) {
+                Log.w(TAG, "SQLite database could not be vacuumed", e);
+            }
+        }
+        // WAL lets queries run on pooled read-only connections while mWriter commits
+        if (AndroidUtil.isHoneycombOrLater && !mDb.enableWriteAheadLogging())
+            Log.w(TAG, "Write-ahead logging unavailable, reads may wait for writes");
     }
 
-    public synchronized static MediaDatabase getInstance() {
+    public static MediaDatabase getInstance() {
         if (instance == null) {
-            instance = new MediaDatabase(VLCApplication.getAppContext());
+            synchronized (MediaDatabase.class) {
+                if (instance == null)
+                    instance = new MediaDatabase(VLCApplication.getAppContext());
+            }
         }
         return instance;
     }
 
     private static class DatabaseHelper extends SQLiteOpenHelper {
 
-        public DatabaseHelper(Context context) {
+        private final ThumbnailStore mThumbnails;
+        boolean mPicturesMigrated = false;
+
+        public DatabaseHelper(Context context, ThumbnailStore thumbnails) {
             super(context, DB_NAME, null, DB_VERSION);
+            mThumbnails = thumbnails;
         }
 
         @Override
@@ -219,7 +300,7 @@ public class MediaDatabase {
                     + MEDIA_TIME + " INTEGER, "
                     + MEDIA_LENGTH + " INTEGER, "
                     + MEDIA_TYPE + " INTEGER, "
-                    + MEDIA_PICTURE + " BLOB, "
+                    + MEDIA_PICTURE_KEY + " TEXT, "
                     + MEDIA_TITLE + " TEXT, "
                     + MEDIA_ARTIST + " TEXT, "
                     + MEDIA_GENRE + " TEXT, "
@@ -260,6 +341,53 @@ public class MediaDatabase {
             db.execSQL(query);
         }
 
+        /**
+         * Move the pictures from the media table blobs to the thumbnail store,
+         * the media table then only keeps their keys.
+         */
+        private void migratePicturesQuery(SQLiteDatabase db) {
+            db.execSQL("ALTER TABLE " + MEDIA_TABLE_NAME + " ADD COLUMN " + MEDIA_PICTURE_KEY + " TEXT;");
+            final List<String> locations = new ArrayList<>();
+            Cursor cursor = db.query(MEDIA_TABLE_NAME, new String[] { MEDIA_LOCATION },
+                    MEDIA_PICTURE + " IS NOT NULL", null, null, null, null);
+            if (cursor != null) {
+                while (cursor.moveToNext())
+                    locations.add(cursor.getString(0));
+                cursor.close();
+            }
+            final ContentValues values = new ContentValues();
+            for (String location : locations) {
+                // One blob at a time, they can be close to the cursor window size
+                byte[] blob = null;
+                try {
+                    cursor = db.query(MEDIA_TABLE_NAME, new String[] { MEDIA_PICTURE },
+                            MEDIA_LOCATION + "=?", new String[] { location }, null, null, null);
+                    if (cursor != null) {
+                        if (cursor.moveToFirst())
+                            blob = cursor.getBlob(0);
+                        cursor.close();
+                    }
+                } catch (IllegalStateException e) {
+                    Log.w(TAG, "Picture of " + location + " could not be read", e);
+                }
+                values.clear();
+                if (blob != null && blob.length <= 1)
+                    values.put(MEDIA_PICTURE_KEY, "");
+                else if (blob != null && mThumbnails != null) {
+                    try {
+                        values.put(MEDIA_PICTURE_KEY, mThumbnails.put(blob));
+                    } catch (IOException e) {
+                        Log.w(TAG, "Picture of " + location + " could not be migrated", e);
+                        continue;
+                    }
+                } else
+                    continue;
+                db.update(MEDIA_TABLE_NAME, values, MEDIA_LOCATION + "=?", new String[] { location });
+            }
+            db.execSQL("UPDATE " + MEDIA_TABLE_NAME + " SET " + MEDIA_PICTURE + " = NULL;");
+            mPicturesMigrated = true;
+        }
+
         private void createPlaylistTablesQuery(SQLiteDatabase db) {
             String createPlaylistTableQuery = "CREATE TABLE IF NOT EXISTS " +
                     PLAYLIST_TABLE_NAME + " (" +
@@ -275,6 +403,14 @@ public class MediaDatabase {
                     PLAYLIST_MEDIA_ORDER + " INTEGER NOT NULL);";
 
             db.execSQL(createPlaylistMediaTableQuery);
+            createPlaylistOrderIndexQuery(db);
+        }
+
+        private void createPlaylistOrderIndexQuery(SQLiteDatabase db) {
+            db.execSQL("CREATE INDEX IF NOT EXISTS " + PLAYLIST_MEDIA_ORDER_INDEX + " ON " +
+                    PLAYLIST_MEDIA_TABLE_NAME + " (" +
+                    PLAYLIST_MEDIA_PLAYLISTNAME + ", " +
+                    PLAYLIST_MEDIA_ORDER + ");");
         }
 
         private void createMRLTableQuery(SQLiteDatabase db) {
@@ -411,8 +547,12 @@ public class MediaDatabase {
         @Override
         public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
             synchronized (this) {
-                dropMediaTableQuery(db);
-                createMediaTableQuery(db);
+                // Media table is a cache, rebuilt when upgrading from older layouts.
+                // Version 26 layout is kept to migrate its pictures.
+                if (oldVersion < 26) {
+                    dropMediaTableQuery(db);
+                    createMediaTableQuery(db);
+                }
 
                 // Upgrade incrementally from oldVersion to newVersion
                 for(int i = oldVersion+1; i <= newVersion; i++) {
@@ -450,6 +590,14 @@ public class MediaDatabase {
                         case 26:
                             createSlavesTableQuery(db);
                             break;
+                        case 27:
+                            createPlaylistOrderIndexQuery(db);
+                            break;
+                        case 28:
+                            // Media table has just been created with picture keys otherwise
+                            if (oldVersion >= 26)
+                                migratePicturesQuery(db);
+                            break;
                         default:
                             break;
                     }
@@ -463,7 +611,7 @@ public class MediaDatabase {
      *
      * @return An array of all the playlist names
      */
-    public synchronized String[] getPlaylists() {
+    public String[] getPlaylists() {
         List<String> playlists = new ArrayList<String>();
         Cursor c = mDb.query(
                 PLAYLIST_TABLE_NAME,
@@ -484,20 +632,25 @@ public class MediaDatabase {
      * @param name Unique name of the playlist
      * @return False if invalid name or already exists, true otherwise
      */
-    public synchronized boolean playlistAdd(String name) {
-        // Check length
-        if(name.length() >= 200)
-            return false;
-
-        // Check if already exists
-        if(playlistExists(name))
-            return false;
-
-        // Create new playlist
-        ContentValues values = new ContentValues();
-        values.put(PLAYLIST_NAME, name);
-        long res = mDb.insert(PLAYLIST_TABLE_NAME, "NULL", values);
-        return res != -1;
+    public boolean playlistAdd(final String name) {
+        return mWriter.call(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                // Check length
+                if(name.length() >= 200)
+                    return false;
+
+                // Check if already exists
+                if(playlistExists(name))
+                    return false;
+
+                // Create new playlist
+                ContentValues values = new ContentValues();
+                values.put(PLAYLIST_NAME, name);
+                long res = mDb.insert(PLAYLIST_TABLE_NAME, "NULL", values);
+                return res != -1;
+            }
+        });
     }
 
     /**
@@ -505,11 +658,16 @@ public class MediaDatabase {
      *
      * @param name Unique name of the playlist
      */
-    public synchronized void playlistDelete(String name) {
-        mDb.delete(PLAYLIST_TABLE_NAME, PLAYLIST_NAME + "=?",
-                new String[]{name});
-        mDb.delete(PLAYLIST_MEDIA_TABLE_NAME, PLAYLIST_MEDIA_PLAYLISTNAME
-                + "=?", new String[] { name });
+    public void playlistDelete(final String name) {
+        mWriter.run(new Runnable() {
+            @Override
+            public void run() {
+                mDb.delete(PLAYLIST_TABLE_NAME, PLAYLIST_NAME + "=?",
+                        new String[]{name});
+                mDb.delete(PLAYLIST_MEDIA_TABLE_NAME, PLAYLIST_MEDIA_PLAYLISTNAME
+                        + "=?", new String[] { name });
+            }
+        });
     }
 
     /**
@@ -518,7 +676,7 @@ public class MediaDatabase {
      * @param name Unique name of the playlist
      * @return true if playlist exists, false otherwise
      */
-    public synchronized boolean playlistExists(String name) {
+    public boolean playlistExists(String name) {
         // Check duplicates
         Cursor c = mDb.query(PLAYLIST_TABLE_NAME,
                 new String[] { PLAYLIST_NAME }, PLAYLIST_NAME + "= ?",
@@ -538,7 +696,7 @@ public class MediaDatabase {
      * @return Array containing MRLs of the playlist in order, or null on error
      */
     @Nullable
-    public synchronized String[] playlistGetItems(String playlistName) {
+    public String[] playlistGetItems(String playlistName) {
         if(!playlistExists(playlistName))
             return null;
 
@@ -570,14 +728,40 @@ public class MediaDatabase {
      * @param position Position to insert into
      * @param mrl MRL of the media
      */
-    public synchronized void playlistInsertItem(String playlistName, int position, String mrl) {
-        playlistShiftItems(playlistName, position, 1);
-
-        ContentValues values = new ContentValues();
-        values.put(PLAYLIST_MEDIA_PLAYLISTNAME, playlistName);
-        values.put(PLAYLIST_MEDIA_MEDIALOCATION, mrl);
-        values.put(PLAYLIST_MEDIA_ORDER, position);
-        mDb.insert(PLAYLIST_MEDIA_TABLE_NAME, "NULL", values);
+    public void playlistInsertItem(String playlistName, int position, String mrl) {
+        playlistInsertItems(playlistName, position, new String[] { mrl });
+    }
+
+    /**
+     * Insert items with locations into playlistName, starting at the specified position
+     *
+     * @param playlistName Unique name of the playlist
+     * @param position Position to insert the first item into
+     * @param mrls MRLs of the medias, in order
+     */
+    public void playlistInsertItems(final String playlistName, final int position, final String[] mrls) {
+        if (mrls.length == 0)
+            return;
+        mWriter.run(new Runnable() {
+            @Override
+            public void run() {
+                mDb.beginTransaction();
+                final SQLiteStatement insert = mDb.compileStatement(PLAYLIST_INSERT_QUERY);
+                try {
+                    playlistShiftItems(playlistName, position, mrls.length);
+                    for (int i = 0; i < mrls.length; ++i) {
+                        insert.bindString(1, playlistName);
+                        insert.bindString(2, mrls[i]);
+                        insert.bindLong(3, position + i);
+                        insert.executeInsert();
+                    }
+                    mDb.setTransactionSuccessful();
+                } finally {
+                    insert.close();
+                    mDb.endTransaction();
+                }
+            }
+        });
     }
 
     /**
@@ -596,30 +780,14 @@ public class MediaDatabase {
      * 3 - C
      * 4 - D
      *
+     * This is a single UPDATE statement, callers are expected to run it in their transaction.
+     *
      * @param playlistName Unique name of the playlist
      * @param position Position to start shifting at
      * @param factor Factor to shift the order by
      */
-    private synchronized void playlistShiftItems(String playlistName, int position, int factor) {
-        // Increment all media orders by 1 after the insert position
-        Cursor c = mDb.query(
-                PLAYLIST_MEDIA_TABLE_NAME,
-                new String[] { PLAYLIST_MEDIA_ID, PLAYLIST_MEDIA_ORDER },
-                PLAYLIST_MEDIA_PLAYLISTNAME + "=? AND " + PLAYLIST_MEDIA_ORDER + " >= ?",
-                new String[] { playlistName, String.valueOf(position) },
-                null, null,
-                PLAYLIST_MEDIA_ORDER + " ASC");
-        if (c != null) {
-            while (c.moveToNext()) {
-                ContentValues cv = new ContentValues();
-                int ii = c.getInt(c.getColumnIndex(PLAYLIST_MEDIA_ORDER)) + factor;
-                Log.d(TAG, "ii = " + ii);
-                cv.put(PLAYLIST_MEDIA_ORDER, ii /* i */);
-                mDb.update(PLAYLIST_MEDIA_TABLE_NAME, cv, PLAYLIST_MEDIA_ID + "=?",
-                        new String[]{c.getString(c.getColumnIndex(PLAYLIST_MEDIA_ID))});
-            }
-            c.close();
-        }
+    private void playlistShiftItems(String playlistName, int position, int factor) {
+        mDb.execSQL(PLAYLIST_SHIFT_QUERY, new Object[] { factor, playlistName, position });
     }
 
     /**
@@ -628,13 +796,56 @@ public class MediaDatabase {
      * @param playlistName Unique name of the playlist
      * @param position Position to remove
      */
-    public synchronized void playlistRemoveItem(String playlistName, int position) {
-        mDb.delete(PLAYLIST_MEDIA_TABLE_NAME,
-                PLAYLIST_MEDIA_PLAYLISTNAME + "=? AND " +
-                        PLAYLIST_MEDIA_ORDER + "=?",
-                new String[]{playlistName, Integer.toString(position)});
+    public void playlistRemoveItem(String playlistName, int position) {
+        playlistRemoveRange(playlistName, position, 1);
+    }
+
+    /**
+     * Removes count items, starting at the given position
+     *
+     * @param playlistName Unique name of the playlist
+     * @param position Position of the first item to remove
+     * @param count Number of items to remove
+     */
+    public void playlistRemoveRange(final String playlistName, final int position, final int count) {
+        if (count <= 0)
+            return;
+        mWriter.run(new Runnable() {
+            @Override
+            public void run() {
+                mDb.beginTransaction();
+                try {
+                    mDb.delete(PLAYLIST_MEDIA_TABLE_NAME,
+                            PLAYLIST_MEDIA_PLAYLISTNAME + "=? AND " +
+                                    PLAYLIST_MEDIA_ORDER + ">=? AND " +
+                                    PLAYLIST_MEDIA_ORDER + "<?",
+                            new String[]{playlistName, Integer.toString(position), Integer.toString(position + count)});
+                    playlistShiftItems(playlistName, position + count, -count);
+                    mDb.setTransactionSuccessful();
+                } finally {
+                    mDb.endTransaction();
+                }
+            }
+        });
+    }
 
-        playlistShiftItems(playlistName, position + 1, -1);
+    /**
+     * Moves the item at position from to position to, items in between are shifted by one.
+     *
+     * @param playlistName Unique name of the playlist
+     * @param from Current position of the item
+     * @param to New position of the item
+     */
+    public void playlistMoveItem(final String playlistName, final int from, final int to) {
+        if (from == to)
+            return;
+        mWriter.run(new Runnable() {
+            @Override
+            public void run() {
+                mDb.execSQL(PLAYLIST_MOVE_QUERY, new Object[] { from, to, from < to ? -1 : 1,
+                        playlistName, Math.min(from, to), Math.max(from, to) });
+            }
+        });
     }
 
     /**
@@ -645,24 +856,29 @@ public class MediaDatabase {
      * @return false on error, if playlist doesn't exist or if the new name
      * already exists, true otherwise
      */
-    public synchronized boolean playlistRename(String playlistName, String newPlaylistName) {
-        if(!playlistExists(playlistName) || playlistExists(newPlaylistName))
-            return false;
-
-        // Update playlist table
-        ContentValues values = new ContentValues();
-        values.put(PLAYLIST_NAME, newPlaylistName);
-        mDb.update(PLAYLIST_TABLE_NAME, values, PLAYLIST_NAME + " =?",
-                new String[]{playlistName});
-
-        // Update playlist media table
-        values = new ContentValues();
-        values.put(PLAYLIST_MEDIA_PLAYLISTNAME, newPlaylistName);
-        mDb.update(PLAYLIST_MEDIA_TABLE_NAME, values,
-                PLAYLIST_MEDIA_PLAYLISTNAME + " =?",
-                new String[]{playlistName});
-
-        return true;
+    public boolean playlistRename(final String playlistName, final String newPlaylistName) {
+        return mWriter.call(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                if(!playlistExists(playlistName) || playlistExists(newPlaylistName))
+                    return false;
+
+                // Update playlist table
+                ContentValues values = new ContentValues();
+                values.put(PLAYLIST_NAME, newPlaylistName);
+                mDb.update(PLAYLIST_TABLE_NAME, values, PLAYLIST_NAME + " =?",
+                        new String[]{playlistName});
+
+                // Update playlist media table
+                values = new ContentValues();
+                values.put(PLAYLIST_MEDIA_PLAYLISTNAME, newPlaylistName);
+                mDb.update(PLAYLIST_MEDIA_TABLE_NAME, values,
+                        PLAYLIST_MEDIA_PLAYLISTNAME + " =?",
+                        new String[]{playlistName});
+
+                return true;
+            }
+        });
     }
 
     private static void safePut(ContentValues values, String key, String value) {
@@ -676,30 +892,33 @@ public class MediaDatabase {
      * Add a new media to the database. The picture can only added by update.
      * @param media which you like to add to the database
      */
-    public synchronized void addMedia(MediaWrapper media) {
-
-        ContentValues values = new ContentValues();
-
-        values.put(MEDIA_LOCATION, media.getUri().toString());
-        values.put(MEDIA_TIME, media.getTime());
-        values.put(MEDIA_LENGTH, media.getLength());
-        values.put(MEDIA_TYPE, media.getType());
-        values.put(MEDIA_TITLE, media.getTitle());
-        safePut(values, MEDIA_ARTIST, media.getArtist());
-        safePut(values, MEDIA_GENRE, media.getGenre());
-        safePut(values, MEDIA_ALBUM, media.getAlbum());
-        safePut(values, MEDIA_ALBUMARTIST, media.getAlbumArtist());
-        values.put(MEDIA_WIDTH, media.getWidth());
-        values.put(MEDIA_HEIGHT, media.getHeight());
-        values.put(MEDIA_ARTWORKURL, media.getArtworkURL());
-        values.put(MEDIA_AUDIOTRACK, media.getAudioTrack());
-        values.put(MEDIA_SPUTRACK, media.getSpuTrack());
-        values.put(MEDIA_TRACKNUMBER, media.getTrackNumber());
-        values.put(MEDIA_DISCNUMBER, media.getDiscNumber());
-        values.put(MEDIA_LAST_MODIFIED, media.getLastModified());
-
-        mDb.replace(MEDIA_TABLE_NAME, "NULL", values);
-
+    public void addMedia(final MediaWrapper media) {
+        mWriter.run(new Runnable() {
+            @Override
+            public void run() {
+                ContentValues values = new ContentValues();
+
+                values.put(MEDIA_LOCATION, media.getUri().toString());
+                values.put(MEDIA_TIME, media.getTime());
+                values.put(MEDIA_LENGTH, media.getLength());
+                values.put(MEDIA_TYPE, media.getType());
+                values.put(MEDIA_TITLE, media.getTitle());
+                safePut(values, MEDIA_ARTIST, media.getArtist());
+                safePut(values, MEDIA_GENRE, media.getGenre());
+                safePut(values, MEDIA_ALBUM, media.getAlbum());
+                safePut(values, MEDIA_ALBUMARTIST, media.getAlbumArtist());
+                values.put(MEDIA_WIDTH, media.getWidth());
+                values.put(MEDIA_HEIGHT, media.getHeight());
+                values.put(MEDIA_ARTWORKURL, media.getArtworkURL());
+                values.put(MEDIA_AUDIOTRACK, media.getAudioTrack());
+                values.put(MEDIA_SPUTRACK, media.getSpuTrack());
+                values.put(MEDIA_TRACKNUMBER, media.getTrackNumber());
+                values.put(MEDIA_DISCNUMBER, media.getDiscNumber());
+                values.put(MEDIA_LAST_MODIFIED, media.getLastModified());
+
+                mDb.replace(MEDIA_TABLE_NAME, "NULL", values);
+            }
+        });
     }
 
     /**
@@ -707,7 +926,7 @@ public class MediaDatabase {
      * @param location of the item (primary key)
      * @return True if the item exists, false if it does not
      */
-    public synchronized boolean mediaItemExists(Uri uri) {
+    public boolean mediaItemExists(Uri uri) {
         try {
             Cursor cursor = mDb.query(MEDIA_TABLE_NAME,
                     new String[] { MEDIA_LOCATION },
@@ -731,7 +950,7 @@ public class MediaDatabase {
      * @return list of File
      */
     @SuppressWarnings("unused")
-    private synchronized HashSet<File> getMediaFiles() {
+    private HashSet<File> getMediaFiles() {
 
         HashSet<File> files = new HashSet<File>();
         Cursor cursor;
@@ -754,13 +973,13 @@ public class MediaDatabase {
         return files;
     }
 
-    public synchronized Cursor queryMedia(String query){
+    public Cursor queryMedia(String query){
         String[] queryColumns = new String[]{MEDIA_LOCATION, MEDIA_TITLE};
         return mDb.query(MEDIA_VIRTUAL_TABLE_NAME, queryColumns, MEDIA_VIRTUAL_TABLE_NAME+" MATCH ?",
                 new String[]{query + "*"}, null, null, null, null);
     }
 
-    public synchronized List<String> searchMedia(String filter){
+    public List<String> searchMedia(String filter){
 
         List<String> mediaList = new ArrayList<String>();
         Cursor cursor = queryMedia(filter);
@@ -775,116 +994,115 @@ public class MediaDatabase {
         return mediaList;
     }
 
-    public synchronized ArrayMap<String, MediaWrapper> getMedias() {
+    /**
+     * Receives the media rows read by {@link #loadMedias(MediaLoadCallback)}
+     */
+    public interface MediaLoadCallback {
+        /**
+         * @param media the media read from the current page
+         * @return false to stop loading
+         */
+        boolean onMediaLoaded(MediaWrapper media);
+    }
 
-        Cursor cursor;
-        ArrayMap<String, MediaWrapper> medias = new ArrayMap<String, MediaWrapper>();
-        int chunk_count = 0;
+    /**
+     * Stream all medias to the callback, page by page.
+     *
+     * Pages are fetched by keyset on the primary key instead of LIMIT/OFFSET, so each row is
+     * read once whatever the table size. The query text never changes and is served from the
+     * connection statement cache. The callback is invoked between pages, outside of any cursor.
+     *
+     * @param callback receives the medias in primary key order
+     */
+    public void loadMedias(MediaLoadCallback callback) {
+        final List<MediaWrapper> page = new ArrayList<>(CHUNK_SIZE);
+        String lastKey = "";
         int count;
-
         do {
+            page.clear();
             count = 0;
-            cursor = mDb.rawQuery(String.format(Locale.US,
-                    "SELECT %s,%s,%s,%s,%s,%s,%s,%s,%s,%s,%s,%s,%s,%s,%s,%s,%s FROM %s LIMIT %d OFFSET %d",
-                    MEDIA_LOCATION, //0 string
-                    MEDIA_TIME, //1 long
-                    MEDIA_LENGTH, //2 long
-                    MEDIA_TYPE, //3 int
-                    MEDIA_TITLE, //4 string
-                    MEDIA_ARTIST, //5 string
-                    MEDIA_GENRE, //6 string
-                    MEDIA_ALBUM, //7 string
-                    MEDIA_ALBUMARTIST, //8 string
-                    MEDIA_WIDTH, //9 int
-                    MEDIA_HEIGHT, //10 int
-                    MEDIA_ARTWORKURL, //11 string
-                    MEDIA_AUDIOTRACK, //12 int
-                    MEDIA_SPUTRACK, //13 int
-                    MEDIA_TRACKNUMBER, // 14 int
-                    MEDIA_DISCNUMBER, //15 int
-                    MEDIA_LAST_MODIFIED, //16 long
-                    MEDIA_TABLE_NAME,
-                    CHUNK_SIZE,
-                    chunk_count * CHUNK_SIZE), null);
-
+            final Cursor cursor = mDb.rawQuery(MEDIA_PAGE_QUERY, new String[] { lastKey });
             if (cursor != null) {
-                if (cursor.moveToFirst()) {
-                    try {
-                        do {
-                            final Uri uri = AndroidUtil.LocationToUri(cursor.getString(0));
-                            MediaWrapper media = new MediaWrapper(uri,
-                                    cursor.getLong(1),      // MEDIA_TIME
-                                    cursor.getLong(2),      // MEDIA_LENGTH
-                                    cursor.getInt(3),       // MEDIA_TYPE
-                                    null,                   // MEDIA_PICTURE
-                                    cursor.getString(4),    // MEDIA_TITLE
-                                    cursor.getString(5),    // MEDIA_ARTIST
-                                    cursor.getString(6),    // MEDIA_GENRE
-                                    cursor.getString(7),    // MEDIA_ALBUM
-                                    cursor.getString(8),    // MEDIA_ALBUMARTIST
-                                    cursor.getInt(9),       // MEDIA_WIDTH
-                                    cursor.getInt(10),       // MEDIA_HEIGHT
-                                    cursor.getString(11),   // MEDIA_ARTWORKURL
-                                    cursor.getInt(12),      // MEDIA_AUDIOTRACK
-                                    cursor.getInt(13),      // MEDIA_SPUTRACK
-                                    cursor.getInt(14),      // MEDIA_TRACKNUMBER
-                                    cursor.getInt(15),     // MEDIA_DISCNUMBER
-                                    cursor.getLong(16),    // MEDIA_LAST_MODIFIED
-                                    0L);     // MEDIA_SEEN
-                            medias.put(media.getUri().toString(), media);
-
-                            count++;
-                        } while (cursor.moveToNext());
-                    } catch (IllegalStateException e) {
-                    } //Google bug causing IllegalStateException, see https://code.google.com/p/android/issues/detail?id=32472
+                try {
+                    while (cursor.moveToNext()) {
+                        lastKey = cursor.getString(0);
+                        page.add(readMedia(cursor));
+                        count++;
+                    }
+                } catch (IllegalStateException e) {
+                    //Google bug causing IllegalStateException, see https://code.google.com/p/android/issues/detail?id=32472
+                    count = 0;
+                } finally {
+                    cursor.close();
                 }
-
-                cursor.close();
             }
-            chunk_count++;
+            for (MediaWrapper media : page)
+                if (!callback.onMediaLoaded(media))
+                    return;
         } while (count == CHUNK_SIZE);
+    }
 
+    private static MediaWrapper readMedia(Cursor cursor) {
+        final Uri uri = AndroidUtil.LocationToUri(cursor.getString(0));
+        return new MediaWrapper(uri,
+                cursor.getLong(1),      // MEDIA_TIME
+                cursor.getLong(2),      // MEDIA_LENGTH
+                cursor.getInt(3),       // MEDIA_TYPE
+                null,                   // MEDIA_PICTURE
+                cursor.getString(4),    // MEDIA_TITLE
+                cursor.getString(5),    // MEDIA_ARTIST
+                cursor.getString(6),    // MEDIA_GENRE
+                cursor.getString(7),    // MEDIA_ALBUM
+                cursor.getString(8),    // MEDIA_ALBUMARTIST
+                cursor.getInt(9),       // MEDIA_WIDTH
+                cursor.getInt(10),      // MEDIA_HEIGHT
+                cursor.getString(11),   // MEDIA_ARTWORKURL
+                cursor.getInt(12),      // MEDIA_AUDIOTRACK
+                cursor.getInt(13),      // MEDIA_SPUTRACK
+                cursor.getInt(14),      // MEDIA_TRACKNUMBER
+                cursor.getInt(15),      // MEDIA_DISCNUMBER
+                cursor.getLong(16),     // MEDIA_LAST_MODIFIED
+                0L);                    // MEDIA_SEEN
+    }
+
+    public ArrayMap<String, MediaWrapper> getMedias() {
+        final ArrayMap<String, MediaWrapper> medias = new ArrayMap<String, MediaWrapper>();
+        loadMedias(new MediaLoadCallback() {
+            @Override
+            public boolean onMediaLoaded(MediaWrapper media) {
+                medias.put(media.getUri().toString(), media);
+                return true;
+            }
+        });
         return medias;
     }
 
-    public synchronized ArrayMap<String, Long> getVideoTimes() {
+    public ArrayMap<String, Long> getVideoTimes() {
 
         Cursor cursor;
         ArrayMap<String, Long> times = new ArrayMap<String, Long>();
-        int chunk_count = 0;
+        final String type = String.valueOf(MediaWrapper.TYPE_VIDEO);
+        String lastKey = "";
         int count;
 
         do {
             count = 0;
-            cursor = mDb.rawQuery(String.format(Locale.US,
-                    "SELECT %s,%s FROM %s WHERE %s=%d LIMIT %d OFFSET %d",
-                    MEDIA_LOCATION, //0 string
-                    MEDIA_TIME, //1 long
-                    MEDIA_TABLE_NAME,
-                    MEDIA_TYPE,
-                    MediaWrapper.TYPE_VIDEO,
-                    CHUNK_SIZE,
-                    chunk_count * CHUNK_SIZE), null);
-
+            cursor = mDb.rawQuery(VIDEO_TIMES_PAGE_QUERY, new String[] { type, lastKey });
             if (cursor != null) {
-                if (cursor.moveToFirst()) {
-                    do {
-                        String location = cursor.getString(0);
-                        long time = cursor.getLong(1);
-                        times.put(location, time);
-                        count++;
-                    } while (cursor.moveToNext());
+                while (cursor.moveToNext()) {
+                    lastKey = cursor.getString(0);
+                    long time = cursor.getLong(1);
+                    times.put(lastKey, time);
+                    count++;
                 }
-
                 cursor.close();
             }
-            chunk_count++;
         } while (count == CHUNK_SIZE);
 
         return times;
     }
 
-    public synchronized MediaWrapper getMedia(Uri uri) {
+    public MediaWrapper getMedia(Uri uri) {
 
         Cursor cursor;
         MediaWrapper media = null;
@@ -944,83 +1162,108 @@ public class MediaDatabase {
         return media;
     }
 
-    public synchronized Bitmap getPicture(Uri uri) {
+    public Bitmap getPicture(Uri uri) {
         /* Used for the lazy loading */
         Cursor cursor;
-        Bitmap picture = null;
-        byte[] blob;
+        String key = null;
 
         cursor = mDb.query(
                 MEDIA_TABLE_NAME,
-                new String[] { MEDIA_PICTURE },
+                new String[] { MEDIA_PICTURE_KEY },
                 MEDIA_LOCATION + "=?",
                 new String[] { uri.toString() },
                 null, null, null);
         if (cursor != null) {
-            if (cursor.moveToFirst()) {
-                blob = cursor.getBlob(0);
-                if (blob != null && blob.length > 1 && blob.length < 500000) {
-                    try {
-                        picture = BitmapFactory.decodeByteArray(blob, 0, blob.length);
-                    } catch (OutOfMemoryError e) {
-                        picture = null;
-                    } finally {
-                        blob = null;
-                    }
-                }
-            }
+            if (cursor.moveToFirst())
+                key = cursor.getString(0);
             cursor.close();
         }
-        return picture;
-    }
-
-    public synchronized void removeMedia(Uri uri) {
+        final File file = mThumbnails != null && !TextUtils.isEmpty(key) ? mThumbnails.get(key) : null;
+        if (file == null)
+            return null;
         try {
-            mDb.delete(MEDIA_TABLE_NAME, MEDIA_LOCATION + "=?", new String[]{uri.toString()});
-        } catch (SQLiteException e) {
-            // Some devices have weird issues with FTS table
+            return BitmapFactory.decodeFile(file.getPath());
+        } catch (OutOfMemoryError e) {
+            return null;
         }
     }
 
-    public synchronized void removeMedias(Collection<Uri> uris) {
-        mDb.beginTransaction();
+    @Nullable
+    private String storeThumbnail(byte[] data) {
+        if (mThumbnails == null)
+            return null;
         try {
-            for (Uri uri : uris)
-                removeMedia(uri);
-            mDb.setTransactionSuccessful();
-        } finally {
-            mDb.endTransaction();
+            return mThumbnails.put(data);
+        } catch (IOException e) {
+            Log.w(TAG, "Picture could not be stored", e);
+            return null;
         }
     }
 
-    public synchronized void removeMediaWrappers(Collection<MediaWrapper> mws) {
-        mDb.beginTransaction();
-        try {
-            for (MediaWrapper mw : mws)
-                removeMedia(mw.getUri());
-            mDb.setTransactionSuccessful();
-        } finally {
-            mDb.endTransaction();
-        }
+    public void removeMedia(final Uri uri) {
+        mWriter.run(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    mDb.delete(MEDIA_TABLE_NAME, MEDIA_LOCATION + "=?", new String[]{uri.toString()});
+                } catch (SQLiteException e) {
+                    // Some devices have weird issues with FTS table
+                }
+            }
+        });
     }
 
-    public synchronized void updateMedia(Uri uri, int col,
+    public void removeMedias(final Collection<Uri> uris) {
+        mWriter.run(new Runnable() {
+            @Override
+            public void run() {
+                mDb.beginTransaction();
+                try {
+                    for (Uri uri : uris)
+                        removeMedia(uri);
+                    mDb.setTransactionSuccessful();
+                } finally {
+                    mDb.endTransaction();
+                }
+            }
+        });
+    }
+
+    public void removeMediaWrappers(final Collection<MediaWrapper> mws) {
+        mWriter.run(new Runnable() {
+            @Override
+            public void run() {
+                mDb.beginTransaction();
+                try {
+                    for (MediaWrapper mw : mws)
+                        removeMedia(mw.getUri());
+                    mDb.setTransactionSuccessful();
+                } finally {
+                    mDb.endTransaction();
+                }
+            }
+        });
+    }
+
+    public void updateMedia(final Uri uri, int col,
                                          Object object) {
 
         if (uri == null)
             return;
 
-        ContentValues values = new ContentValues();
+        // Values, and the thumbnail file, are built on the caller thread to keep the writer queue short
+        final ContentValues values = new ContentValues();
         switch (col) {
             case INDEX_MEDIA_PICTURE:
                 if (object != null) {
                     Bitmap picture = (Bitmap) object;
                     ByteArrayOutputStream out = new ByteArrayOutputStream();
                     picture.compress(Bitmap.CompressFormat.JPEG, 90, out);
-                    values.put(MEDIA_PICTURE, out.toByteArray());
+                    values.put(MEDIA_PICTURE_KEY, storeThumbnail(out.toByteArray()));
                 }
                 else {
-                    values.put(MEDIA_PICTURE, new byte[1]);
+                    // Empty key: parsed, without picture
+                    values.put(MEDIA_PICTURE_KEY, "");
                 }
                 break;
             case INDEX_MEDIA_TIME:
@@ -1042,7 +1285,12 @@ public class MediaDatabase {
             default:
                 return;
         }
-        mDb.update(MEDIA_TABLE_NAME, values, MEDIA_LOCATION + "=?", new String[]{uri.toString()});
+        mWriter.run(new Runnable() {
+            @Override
+            public void run() {
+                mDb.update(MEDIA_TABLE_NAME, values, MEDIA_LOCATION + "=?", new String[]{uri.toString()});
+            }
+        });
     }
 
     /**
@@ -1050,10 +1298,15 @@ public class MediaDatabase {
      *
      * @param path
      */
-    public synchronized void addDir(String path) {
-        ContentValues values = new ContentValues();
-        values.put(DIR_ROW_PATH, path);
-        mDb.insert(DIR_TABLE_NAME, null, values);
+    public void addDir(final String path) {
+        mWriter.run(new Runnable() {
+            @Override
+            public void run() {
+                ContentValues values = new ContentValues();
+                values.put(DIR_ROW_PATH, path);
+                mDb.insert(DIR_TABLE_NAME, null, values);
+            }
+        });
     }
 
     /**
@@ -1061,8 +1314,13 @@ public class MediaDatabase {
      *
      * @param path
      */
-    public synchronized void removeDir(String path) {
-        mDb.delete(DIR_TABLE_NAME, DIR_ROW_PATH + "=?", new String[]{path});
+    public void removeDir(final String path) {
+        mWriter.run(new Runnable() {
+            @Override
+            public void run() {
+                mDb.delete(DIR_TABLE_NAME, DIR_ROW_PATH + "=?", new String[]{path});
+            }
+        });
     }
 
     /**
@@ -1070,20 +1328,24 @@ public class MediaDatabase {
      *
      * @param path
      */
-    public synchronized void recursiveRemoveDir(String path) {
-        for(File f : getMediaDirs()) {
-            final String dirPath = f.getPath();
-            if(dirPath.startsWith(path))
-                mDb.delete(DIR_TABLE_NAME, DIR_ROW_PATH + "=?", new String[] { dirPath });
-        }
-
+    public void recursiveRemoveDir(final String path) {
+        mWriter.run(new Runnable() {
+            @Override
+            public void run() {
+                for(File f : getMediaDirs()) {
+                    final String dirPath = f.getPath();
+                    if(dirPath.startsWith(path))
+                        mDb.delete(DIR_TABLE_NAME, DIR_ROW_PATH + "=?", new String[] { dirPath });
+                }
+            }
+        });
     }
 
     /**
      *
      * @return
      */
-    public synchronized List<File> getMediaDirs() {
+    public List<File> getMediaDirs() {
 
         List<File> paths = new ArrayList<File>();
         Cursor cursor;
@@ -1106,7 +1368,7 @@ public class MediaDatabase {
         return paths;
     }
 
-    private synchronized boolean mediaDirExists(String path) {
+    private boolean mediaDirExists(String path) {
         Cursor cursor = mDb.query(DIR_TABLE_NAME,
                 new String[] { DIR_ROW_PATH },
                 DIR_ROW_PATH + "=?",
@@ -1121,18 +1383,23 @@ public class MediaDatabase {
      *
      * @param key
      */
-    public synchronized void addSearchhistoryItem(String key) {
-        // set the format to sql date time
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.US);
-        Date date = new Date();
-        ContentValues values = new ContentValues();
-        values.put(SEARCHHISTORY_KEY, key);
-        values.put(SEARCHHISTORY_DATE, dateFormat.format(date));
-
-        mDb.replace(SEARCHHISTORY_TABLE_NAME, null, values);
+    public void addSearchhistoryItem(final String key) {
+        mWriter.run(new Runnable() {
+            @Override
+            public void run() {
+                // set the format to sql date time
+                SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.US);
+                Date date = new Date();
+                ContentValues values = new ContentValues();
+                values.put(SEARCHHISTORY_KEY, key);
+                values.put(SEARCHHISTORY_DATE, dateFormat.format(date));
+
+                mDb.replace(SEARCHHISTORY_TABLE_NAME, null, values);
+            }
+        });
     }
 
-    public synchronized List<String> getSearchhistory(int size) {
+    public List<String> getSearchhistory(int size) {
         List<String> history = new ArrayList<String>();
 
         Cursor cursor = mDb.query(SEARCHHISTORY_TABLE_NAME,
@@ -1149,22 +1416,32 @@ public class MediaDatabase {
         return history;
     }
 
-    public synchronized void clearSearchHistory() {
-        mDb.delete(SEARCHHISTORY_TABLE_NAME, null, null);
+    public void clearSearchHistory() {
+        mWriter.run(new Runnable() {
+            @Override
+            public void run() {
+                mDb.delete(SEARCHHISTORY_TABLE_NAME, null, null);
+            }
+        });
     }
 
-    public synchronized void addMrlhistoryItem(String uri) {
-        // set the format to sql date time
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.US);
-        Date date = new Date();
-        ContentValues values = new ContentValues();
-        values.put(MRL_URI, uri);
-        values.put(MRL_DATE, dateFormat.format(date));
-
-        mDb.replace(MRL_TABLE_NAME, null, values);
+    public void addMrlhistoryItem(final String uri) {
+        mWriter.run(new Runnable() {
+            @Override
+            public void run() {
+                // set the format to sql date time
+                SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.US);
+                Date date = new Date();
+                ContentValues values = new ContentValues();
+                values.put(MRL_URI, uri);
+                values.put(MRL_DATE, dateFormat.format(date));
+
+                mDb.replace(MRL_TABLE_NAME, null, values);
+            }
+        });
     }
 
-    public synchronized List<String> getMrlhistory() {
+    public List<String> getMrlhistory() {
         List<String> history = new ArrayList<>();
 
         Cursor cursor = mDb.query(MRL_TABLE_NAME,
@@ -1183,12 +1460,22 @@ public class MediaDatabase {
         return history;
     }
 
-    public synchronized void deleteMrlUri(String uri) {
-        mDb.delete(MRL_TABLE_NAME, MRL_URI + "=?", new String[]{uri});
+    public void deleteMrlUri(final String uri) {
+        mWriter.run(new Runnable() {
+            @Override
+            public void run() {
+                mDb.delete(MRL_TABLE_NAME, MRL_URI + "=?", new String[]{uri});
+            }
+        });
     }
 
-    public synchronized void clearMrlHistory() {
-        mDb.delete(MRL_TABLE_NAME, null, null);
+    public void clearMrlHistory() {
+        mWriter.run(new Runnable() {
+            @Override
+            public void run() {
+                mDb.delete(MRL_TABLE_NAME, null, null);
+            }
+        });
     }
 
 
@@ -1196,15 +1483,20 @@ public class MediaDatabase {
      * Network favorites management
      */
 
-    public synchronized void addNetworkFavItem(Uri uri, String title, String iconUrl) {
-        ContentValues values = new ContentValues();
-        values.put(NETWORK_FAV_URI, uri.toString());
-        values.put(NETWORK_FAV_TITLE, Uri.encode(title));
-        values.put(NETWORK_FAV_ICON_URL, Uri.encode(iconUrl));
-        mDb.replace(NETWORK_FAV_TABLE_NAME, null, values);
+    public void addNetworkFavItem(final Uri uri, final String title, final String iconUrl) {
+        mWriter.run(new Runnable() {
+            @Override
+            public void run() {
+                ContentValues values = new ContentValues();
+                values.put(NETWORK_FAV_URI, uri.toString());
+                values.put(NETWORK_FAV_TITLE, Uri.encode(title));
+                values.put(NETWORK_FAV_ICON_URL, Uri.encode(iconUrl));
+                mDb.replace(NETWORK_FAV_TABLE_NAME, null, values);
+            }
+        });
     }
 
-    public synchronized boolean networkFavExists(Uri uri) {
+    public boolean networkFavExists(Uri uri) {
         Cursor cursor = mDb.query(NETWORK_FAV_TABLE_NAME,
                 new String[] { NETWORK_FAV_URI },
                 NETWORK_FAV_URI + "=?",
@@ -1218,7 +1510,7 @@ public class MediaDatabase {
             return false;
     }
 
-    public synchronized List<MediaWrapper> getAllNetworkFav() {
+    public List<MediaWrapper> getAllNetworkFav() {
         List<MediaWrapper> favs = new ArrayList<MediaWrapper>();
 
         MediaWrapper mw;
@@ -1241,28 +1533,43 @@ public class MediaDatabase {
         return favs;
     }
 
-    public synchronized void deleteNetworkFav(Uri uri) {
-        mDb.delete(NETWORK_FAV_TABLE_NAME, NETWORK_FAV_URI + "=?", new String[] { uri.toString() });
+    public void deleteNetworkFav(final Uri uri) {
+        mWriter.run(new Runnable() {
+            @Override
+            public void run() {
+                mDb.delete(NETWORK_FAV_TABLE_NAME, NETWORK_FAV_URI + "=?", new String[] { uri.toString() });
+            }
+        });
     }
 
-    public synchronized void clearNetworkFavTable() {
-        mDb.delete(NETWORK_FAV_TABLE_NAME, null, null);
+    public void clearNetworkFavTable() {
+        mWriter.run(new Runnable() {
+            @Override
+            public void run() {
+                mDb.delete(NETWORK_FAV_TABLE_NAME, null, null);
+            }
+        });
     }
 
     /**
      * External subtitles management
      */
 
-    public synchronized void saveSubtitle(String path, String mediaName) {
-        if (TextUtils.isEmpty(path) || TextUtils.isEmpty(mediaName))
-            return;
-        ContentValues values = new ContentValues();
-        values.put(EXTERNAL_SUBTITLES_URI, path);
-        values.put(EXTERNAL_SUBTITLES_MEDIA_NAME, mediaName);
-        mDb.replace(EXTERNAL_SUBTITLES_TABLE_NAME, null, values);
+    public void saveSubtitle(final String path, final String mediaName) {
+        mWriter.run(new Runnable() {
+            @Override
+            public void run() {
+                if (TextUtils.isEmpty(path) || TextUtils.isEmpty(mediaName))
+                    return;
+                ContentValues values = new ContentValues();
+                values.put(EXTERNAL_SUBTITLES_URI, path);
+                values.put(EXTERNAL_SUBTITLES_MEDIA_NAME, mediaName);
+                mDb.replace(EXTERNAL_SUBTITLES_TABLE_NAME, null, values);
+            }
+        });
     }
 
-    public synchronized List<String> getSubtitles(String mediaName) {
+    public List<String> getSubtitles(String mediaName) {
         if (TextUtils.isEmpty(mediaName))
             return new ArrayList<>();
         Cursor cursor = mDb.query(EXTERNAL_SUBTITLES_TABLE_NAME,
@@ -1271,6 +1578,7 @@ public class MediaDatabase {
                 new String[] { mediaName },
                 null, null, null);
         List<String> list = new ArrayList<>(cursor.getCount());
+        final List<String> missing = new ArrayList<>();
         if (cursor != null) {
             while (cursor.moveToNext()) {
                 String url = cursor.getString(1);
@@ -1279,41 +1587,71 @@ public class MediaDatabase {
                     if (new File(fileUrl).exists())
                         list.add(fileUrl);
                     else
-                        deleteSubtitle(url);
+                        missing.add(url);
                 }
             }
             cursor.close();
         }
+        if (!missing.isEmpty()) {
+            // Cleanup is not worth making the reader wait
+            mWriter.post(new Runnable() {
+                @Override
+                public void run() {
+                    for (String url : missing)
+                        deleteSubtitle(url);
+                }
+            });
+        }
         return list;
     }
 
-    public synchronized void deleteSubtitle(String path) {
-        mDb.delete(EXTERNAL_SUBTITLES_TABLE_NAME, EXTERNAL_SUBTITLES_URI + "=?", new String[] { path });
+    public void deleteSubtitle(final String path) {
+        mWriter.run(new Runnable() {
+            @Override
+            public void run() {
+                mDb.delete(EXTERNAL_SUBTITLES_TABLE_NAME, EXTERNAL_SUBTITLES_URI + "=?", new String[] { path });
+            }
+        });
     }
 
-    public synchronized void clearExternalSubtitlesTable() {
-        mDb.delete(EXTERNAL_SUBTITLES_TABLE_NAME, null, null);
+    public void clearExternalSubtitlesTable() {
+        mWriter.run(new Runnable() {
+            @Override
+            public void run() {
+                mDb.delete(EXTERNAL_SUBTITLES_TABLE_NAME, null, null);
+            }
+        });
     }
 
     /**
      * slaves management
      */
 
-    public synchronized void saveSlave(String mediaPath, int type, int priority, String uriString) {
-        ContentValues values = new ContentValues();
-        values.put(SLAVES_MEDIA_PATH, mediaPath);
-        values.put(SLAVES_TYPE, type);
-        values.put(SLAVES_PRIORITY, priority);
-        values.put(SLAVES_URI, uriString);
-        mDb.replace(SLAVES_TABLE_NAME, null, values);
+    public void saveSlave(final String mediaPath, final int type, final int priority, final String uriString) {
+        mWriter.run(new Runnable() {
+            @Override
+            public void run() {
+                ContentValues values = new ContentValues();
+                values.put(SLAVES_MEDIA_PATH, mediaPath);
+                values.put(SLAVES_TYPE, type);
+                values.put(SLAVES_PRIORITY, priority);
+                values.put(SLAVES_URI, uriString);
+                mDb.replace(SLAVES_TABLE_NAME, null, values);
+            }
+        });
     }
 
-    public synchronized void saveSlaves(MediaWrapper mw) {
-        for (Media.Slave slave : mw.getSlaves())
-            saveSlave(mw.getLocation(), slave.type, slave.priority, slave.uri);
+    public void saveSlaves(final MediaWrapper mw) {
+        mWriter.run(new Runnable() {
+            @Override
+            public void run() {
+                for (Media.Slave slave : mw.getSlaves())
+                    saveSlave(mw.getLocation(), slave.type, slave.priority, slave.uri);
+            }
+        });
     }
 
-    public synchronized List<Media.Slave> getSlaves(String mrl) {
+    public List<Media.Slave> getSlaves(String mrl) {
         Cursor cursor = mDb.query(SLAVES_TABLE_NAME,
                 new String[] {SLAVES_MEDIA_PATH, SLAVES_TYPE, SLAVES_PRIORITY, SLAVES_URI },
                 SLAVES_MEDIA_PATH + "=?",
@@ -1333,20 +1671,35 @@ public class MediaDatabase {
         return list;
     }
 
-    public synchronized void deleteSlaves(String mrl) {
-        mDb.delete(SLAVES_TABLE_NAME, SLAVES_MEDIA_PATH + "=?", new String[] { mrl });
+    public void deleteSlaves(final String mrl) {
+        mWriter.run(new Runnable() {
+            @Override
+            public void run() {
+                mDb.delete(SLAVES_TABLE_NAME, SLAVES_MEDIA_PATH + "=?", new String[] { mrl });
+            }
+        });
     }
 
-    public synchronized void clearSlavesTable() {
-        mDb.delete(SLAVES_TABLE_NAME, null, null);
+    public void clearSlavesTable() {
+        mWriter.run(new Runnable() {
+            @Override
+            public void run() {
+                mDb.delete(SLAVES_TABLE_NAME, null, null);
+            }
+        });
     }
 
     /**
      * Empty the database for debugging purposes
      */
 
-    public synchronized void emptyDatabase() {
-        mDb.delete(MEDIA_TABLE_NAME, null, null);
+    public void emptyDatabase() {
+        mWriter.run(new Runnable() {
+            @Override
+            public void run() {
+                mDb.delete(MEDIA_TABLE_NAME, null, null);
+            }
+        });
     }
 
     public static void setPicture(MediaWrapper m, Bitmap p) {
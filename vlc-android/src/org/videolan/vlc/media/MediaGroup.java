@@ -28,6 +28,8 @@ import org.videolan.vlc.VLCApplication;
 import org.videolan.vlc.gui.helpers.BitmapUtil;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 
 public class MediaGroup extends MediaWrapper {
@@ -60,6 +62,13 @@ public class MediaGroup extends MediaWrapper {
         mMedias.add(media);
     }
 
+    private MediaGroup(TitleGrouper.Group<MediaWrapper> group) {
+        this(group.getFirst());
+        mMedias = new ArrayList<>(group.getItems());
+        if (group.size() > 1)
+            mTitle = group.getTitle();
+    }
+
     public String getDisplayTitle() {
         return getTitle() + "\u2026";
     }
@@ -83,60 +92,98 @@ public class MediaGroup extends MediaWrapper {
         return mMedias.size();
     }
 
-    private void merge(MediaWrapper media, String title) {
-        mMedias.add(media);
-        this.mTitle = title;
+    /**
+     * @return the minimum common title prefix length of grouped videos, 0 to disable grouping
+     */
+    public static int getMinGroupLength() {
+        final SharedPreferences preferences = PreferenceManager.getDefaultSharedPreferences(VLCApplication.getAppContext());
+        try {
+            return Integer.valueOf(preferences.getString("video_min_group_length", "6"));
+        } catch (NumberFormatException e) {
+            return 6;
+        }
     }
 
     public static List<MediaGroup> group(MediaWrapper[] mediaList) {
-        final ArrayList<MediaGroup> groups = new ArrayList<>();
-        for (MediaWrapper media : mediaList)
-            if (media != null)
-                insertInto(groups, media);
-        return groups;
+        return group(Arrays.asList(mediaList));
     }
 
     public static List<MediaGroup> group(List<MediaWrapper> mediaList) {
-        final ArrayList<MediaGroup> groups = new ArrayList<>();
+        final TitleGrouper<MediaWrapper> grouper = new TitleGrouper<>(getMinGroupLength());
         for (MediaWrapper media : mediaList)
             if (media != null)
-                insertInto(groups, media);
+                grouper.add(media, media.getTitle());
+        final ArrayList<MediaGroup> groups = new ArrayList<>(grouper.getGroupCount());
+        for (TitleGrouper.Group<MediaWrapper> group : grouper.getGroups())
+            groups.add(new MediaGroup(group));
         return groups;
     }
 
-    private static void insertInto(ArrayList<MediaGroup> groups, MediaWrapper media) {
-        final SharedPreferences preferences = PreferenceManager.getDefaultSharedPreferences(VLCApplication.getAppContext());
-        final int minGroupLengthValue = Integer.valueOf(preferences.getString("video_min_group_length", "6"));
-        for (MediaGroup mediaGroup : groups) {
-            final String group = mediaGroup.getTitle().toLowerCase();
-            String title = media.getTitle().toLowerCase();
-
-            //Handle titles starting with "The"
-            int groupOffset = group.startsWith("the") ? 4 : 0;
-            if (title.startsWith("the"))
-                title = title.substring(4);
-
-            // find common prefix
-            int commonLength = 0;
-            final String groupTitle = group.substring(groupOffset);
-            final int minLength = Math.min(groupTitle.length(), title.length());
-            while (commonLength < minLength
-                    && groupTitle.charAt(commonLength) == title.charAt(commonLength))
-                ++commonLength;
-
-            if (commonLength >= minGroupLengthValue && minGroupLengthValue != 0) {
-                if (commonLength == group.length()) {
-                    // same prefix name, just add
-                    mediaGroup.add(media);
-                } else {
-                    // not the same prefix, but close : merge
-                    mediaGroup.merge(media, group.substring(0, commonLength+groupOffset));
+    /**
+     * Keeps videos grouped while they are added and removed one at a time,
+     * groups which did not change are kept as is.
+     */
+    public static class Grouper {
+        private final TitleGrouper<MediaWrapper> mGrouper;
+        private final HashMap<Long, MediaWrapper> mMedias = new HashMap<>();
+        private final HashMap<TitleGrouper.Group<MediaWrapper>, MediaGroup> mMediaGroups = new HashMap<>();
+
+        public Grouper(MediaWrapper[] mediaList) {
+            mGrouper = new TitleGrouper<>(getMinGroupLength());
+            add(mediaList);
+        }
+
+        /**
+         * Add new medias, or update the ones already grouped
+         */
+        public synchronized void add(MediaWrapper... mediaList) {
+            for (MediaWrapper media : mediaList) {
+                if (media == null)
+                    continue;
+                final MediaWrapper previous = mMedias.put(media.getId(), media);
+                if (previous != null)
+                    invalidate(mGrouper.remove(previous, previous.getTitle()));
+                invalidate(mGrouper.add(media, media.getTitle()));
+            }
+        }
+
+        public synchronized void remove(MediaWrapper media) {
+            final MediaWrapper previous = mMedias.remove(media.getId());
+            if (previous != null)
+                invalidate(mGrouper.remove(previous, previous.getTitle()));
+        }
+
+        public synchronized void remove(long[] ids) {
+            for (long id : ids) {
+                final MediaWrapper media = mMedias.remove(id);
+                if (media != null)
+                    invalidate(mGrouper.remove(media, media.getTitle()));
+            }
+        }
+
+        /**
+         * @return the medias to display, groups of a single media being replaced by this media
+         */
+        public synchronized List<MediaWrapper> getDisplayList() {
+            final ArrayList<MediaWrapper> list = new ArrayList<>(mGrouper.getGroupCount());
+            for (TitleGrouper.Group<MediaWrapper> group : mGrouper.getGroups()) {
+                if (group.size() == 1) {
+                    list.add(group.getFirst());
+                    continue;
                 }
-                return;
+                MediaGroup mediaGroup = mMediaGroups.get(group);
+                if (mediaGroup == null) {
+                    mediaGroup = new MediaGroup(group);
+                    mMediaGroups.put(group, mediaGroup);
+                }
+                list.add(mediaGroup);
             }
+            return list;
         }
 
-        // does not match any group, so add one
-        groups.add(new MediaGroup(media));
+        private void invalidate(TitleGrouper.Group<MediaWrapper> group) {
+            if (group != null)
+                mMediaGroups.remove(group);
+        }
     }
 }
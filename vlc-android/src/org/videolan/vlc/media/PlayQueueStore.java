@@ -0,0 +1,286 @@
+/*****************************************************************************
+ * PlayQueueStore.java
+ *****************************************************************************
+ * Copyright © 2018 VLC authors and VideoLAN
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston MA 02110-1301, USA.
+ *****************************************************************************/
+
+package org.videolan.vlc.media;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Play queue saved as a binary journal.
+ *
+ * The file starts with a snapshot of the queue, followed by the edits made since, so an
+ * edit only appends a few bytes. Once the journal outgrows the queue, the file is rewritten
+ * as a new snapshot. A truncated last record, from a crash while writing, is ignored.
+ *
+ * Not thread safe, callers are expected to serialize accesses.
+ */
+public class PlayQueueStore {
+
+    private static final int MAGIC = 0x564c4351; // VLCQ
+    private static final int VERSION = 1;
+    private static final byte OP_ADD = 1;
+    private static final byte OP_REMOVE = 2;
+    private static final byte OP_MOVE = 3;
+    private static final int MIN_JOURNAL_SIZE = 64;
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    public static final class Entry {
+        public final long id;
+        public final String uri;
+
+        public Entry(long id, String uri) {
+            this.id = id;
+            this.uri = uri;
+        }
+    }
+
+    private final File mFile;
+    private List<Entry> mEntries;
+    private DataOutputStream mOut;
+    private int mJournalSize;
+
+    public PlayQueueStore(File file) {
+        mFile = file;
+    }
+
+    /**
+     * @return the saved queue, empty if there is none
+     */
+    public List<Entry> load() {
+        ensureLoaded();
+        return new ArrayList<>(mEntries);
+    }
+
+    /**
+     * Save a whole new queue
+     */
+    public void replace(List<Entry> entries) {
+        mEntries = new ArrayList<>(entries);
+        writeSnapshot();
+    }
+
+    public void add(int index, long id, String uri) {
+        ensureLoaded();
+        if (index < 0 || index > mEntries.size())
+            return;
+        final Entry entry = new Entry(id, uri);
+        mEntries.add(index, entry);
+        try {
+            final DataOutputStream out = getOutput();
+            out.writeByte(OP_ADD);
+            out.writeInt(index);
+            writeEntry(out, entry);
+        } catch (IOException e) {
+            closeOutput();
+        }
+        onJournaled();
+    }
+
+    public void remove(int index) {
+        ensureLoaded();
+        if (index < 0 || index >= mEntries.size())
+            return;
+        mEntries.remove(index);
+        try {
+            final DataOutputStream out = getOutput();
+            out.writeByte(OP_REMOVE);
+            out.writeInt(index);
+        } catch (IOException e) {
+            closeOutput();
+        }
+        onJournaled();
+    }
+
+    /**
+     * Same semantics as {@link MediaWrapperList#move(int, int)}
+     */
+    public void move(int startPosition, int endPosition) {
+        ensureLoaded();
+        if (!applyMove(mEntries, startPosition, endPosition))
+            return;
+        try {
+            final DataOutputStream out = getOutput();
+            out.writeByte(OP_MOVE);
+            out.writeInt(startPosition);
+            out.writeInt(endPosition);
+        } catch (IOException e) {
+            closeOutput();
+        }
+        onJournaled();
+    }
+
+    public void close() {
+        closeOutput();
+    }
+
+    private static boolean applyMove(List<Entry> entries, int startPosition, int endPosition) {
+        if (startPosition < 0 || startPosition >= entries.size() || endPosition < 0 || endPosition > entries.size())
+            return false;
+        final Entry entry = entries.remove(startPosition);
+        entries.add(startPosition >= endPosition ? endPosition : endPosition - 1, entry);
+        return true;
+    }
+
+    private void onJournaled() {
+        if (mOut == null) {
+            // Journal could not be written, fall back to a snapshot
+            writeSnapshot();
+            return;
+        }
+        try {
+            mOut.flush();
+        } catch (IOException e) {
+            closeOutput();
+            writeSnapshot();
+            return;
+        }
+        if (++mJournalSize > Math.max(MIN_JOURNAL_SIZE, mEntries.size()))
+            writeSnapshot();
+    }
+
+    private void ensureLoaded() {
+        if (mEntries != null)
+            return;
+        mEntries = new ArrayList<>();
+        if (!mFile.exists()) {
+            // Edits are appended to a snapshot
+            writeSnapshot();
+            return;
+        }
+        DataInputStream in = null;
+        boolean complete = false;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(mFile)));
+            if (in.readInt() != MAGIC || in.readInt() != VERSION)
+                throw new IOException("Unknown queue format");
+            final int count = in.readInt();
+            for (int i = 0; i < count; ++i)
+                mEntries.add(readEntry(in));
+            while (true) {
+                final int op = in.read();
+                if (op == -1)
+                    break;
+                switch (op) {
+                    case OP_ADD: {
+                        final int index = in.readInt();
+                        final Entry entry = readEntry(in);
+                        if (index >= 0 && index <= mEntries.size())
+                            mEntries.add(index, entry);
+                        break;
+                    }
+                    case OP_REMOVE: {
+                        final int index = in.readInt();
+                        if (index >= 0 && index < mEntries.size())
+                            mEntries.remove(index);
+                        break;
+                    }
+                    case OP_MOVE:
+                        applyMove(mEntries, in.readInt(), in.readInt());
+                        break;
+                    default:
+                        throw new IOException("Unknown record " + op);
+                }
+                ++mJournalSize;
+            }
+            complete = true;
+        } catch (EOFException e) {
+            // Truncated last record
+        } catch (IOException e) {
+            mEntries.clear();
+        } finally {
+            if (in != null) try {
+                in.close();
+            } catch (IOException ignored) {}
+        }
+        // Don't append after a damaged record
+        if (!complete)
+            writeSnapshot();
+    }
+
+    private void writeSnapshot() {
+        closeOutput();
+        final File tmp = new File(mFile.getPath() + ".tmp");
+        DataOutputStream out = null;
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(mEntries.size());
+            for (Entry entry : mEntries)
+                writeEntry(out, entry);
+            out.close();
+            out = null;
+            if (!tmp.renameTo(mFile))
+                tmp.delete();
+            mJournalSize = 0;
+        } catch (IOException e) {
+            tmp.delete();
+        } finally {
+            if (out != null) try {
+                out.close();
+            } catch (IOException ignored) {}
+        }
+    }
+
+    private DataOutputStream getOutput() throws IOException {
+        if (mOut == null)
+            mOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(mFile, true)));
+        return mOut;
+    }
+
+    private void closeOutput() {
+        if (mOut == null)
+            return;
+        try {
+            mOut.close();
+        } catch (IOException ignored) {
+        } finally {
+            mOut = null;
+        }
+    }
+
+    private static void writeEntry(DataOutputStream out, Entry entry) throws IOException {
+        final byte[] uri = entry.uri.getBytes(UTF8);
+        out.writeLong(entry.id);
+        out.writeInt(uri.length);
+        out.write(uri);
+    }
+
+    private static Entry readEntry(DataInputStream in) throws IOException {
+        final long id = in.readLong();
+        final int length = in.readInt();
+        if (length < 0)
+            throw new IOException("Invalid uri length");
+        final byte[] uri = new byte[length];
+        in.readFully(uri);
+        return new Entry(id, new String(uri, UTF8));
+    }
+}
@@ -71,7 +71,7 @@ class PlayerController : IVLCVout.Callback, MediaPlayer.EventListener {
         length = media.duration
         mediaplayer.setEventListener(null)
         mediaplayer.media = media.apply { if (hasRenderer) parse() }
-        mediaplayer.setEventListener(this@PlayerController)
+        mediaplayer.setEventListener(this@PlayerController, null, true)
         mediaplayer.setEqualizer(VLCOptions.getEqualizerSetFromSettings(VLCApplication.getAppContext()))
         mediaplayer.setVideoTitleDisplay(MediaPlayer.Position.Disable, 0)
         mediaplayer.play()
@@ -251,7 +251,7 @@ class PlayerController : IVLCVout.Callback, MediaPlayer.EventListener {
                 mediaplayer.setEventListener(null)
                 val items = it.subItems()
                 it.release()
-                mediaplayer.setEventListener(this@PlayerController)
+                mediaplayer.setEventListener(this@PlayerController, null, true)
                 items
             }.await()
         }
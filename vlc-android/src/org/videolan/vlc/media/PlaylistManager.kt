@@ -9,6 +9,7 @@ import android.util.Log
 import android.widget.Toast
 import kotlinx.coroutines.experimental.CoroutineStart
 import kotlinx.coroutines.experimental.android.UI
+import kotlinx.coroutines.experimental.asCoroutineDispatcher
 import kotlinx.coroutines.experimental.async
 import kotlinx.coroutines.experimental.launch
 import org.videolan.libvlc.Media
@@ -23,7 +24,11 @@ import org.videolan.vlc.gui.preferences.PreferencesActivity
 import org.videolan.vlc.gui.preferences.PreferencesFragment
 import org.videolan.vlc.gui.video.VideoPlayerActivity
 import org.videolan.vlc.util.*
+import java.io.File
 import java.util.*
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.ThreadPoolExecutor
+import java.util.concurrent.TimeUnit
 
 
 class PlaylistManager(val service: PlaybackService) : MediaWrapperList.EventListener, Media.EventListener {
@@ -31,16 +36,25 @@ class PlaylistManager(val service: PlaybackService) : MediaWrapperList.EventList
     private val TAG = "VLC/PlaylistManager"
     private val PREVIOUS_LIMIT_DELAY = 5000L
     private val AUDIO_REPEAT_MODE_KEY = "audio_repeat_mode"
+    private val AUDIO_QUEUE_FILE = "audio_queue"
+    private val MEDIA_QUEUE_FILE = "media_queue"
 
     private val medialibrary by lazy(LazyThreadSafetyMode.NONE) { Medialibrary.getInstance() }
     val player by lazy(LazyThreadSafetyMode.NONE) { PlayerController() }
     private val settings by lazy(LazyThreadSafetyMode.NONE) { VLCApplication.getSettings() }
     private val ctx by lazy(LazyThreadSafetyMode.NONE) { VLCApplication.getAppContext() }
     private val mediaList = MediaWrapperList()
+    private val audioQueue by lazy(LazyThreadSafetyMode.NONE) { PlayQueueStore(File(ctx.filesDir, AUDIO_QUEUE_FILE)) }
+    private val mediaQueue by lazy(LazyThreadSafetyMode.NONE) { PlayQueueStore(File(ctx.filesDir, MEDIA_QUEUE_FILE)) }
+    // Queue stores are only accessed from this thread
+    private val queueExecutor = ThreadPoolExecutor(1, 1, 2, TimeUnit.SECONDS, LinkedBlockingQueue<Runnable>(), VLCApplication.THREAD_FACTORY).apply { allowCoreThreadTimeOut(true) }
+    private val queueDispatcher by lazy(LazyThreadSafetyMode.NONE) { queueExecutor.asCoroutineDispatcher() }
+    // Store in sync with mediaList, edits are journaled into it. null when a full save is needed.
+    private var savedQueue: PlayQueueStore? = null
     var currentIndex = -1
     private var nextIndex = -1
     private var prevIndex = -1
-    private var previous = Stack<Int>()
+    private val shuffleOrder = ShuffleOrder()
     var repeating = Constants.REPEAT_NONE
     var shuffling = false
     var videoBackground = false
@@ -49,7 +63,6 @@ class PlaylistManager(val service: PlaybackService) : MediaWrapperList.EventList
     var isHardware = false
     private var parsed = false
     var savedTime = 0L
-    private var random = Random(System.currentTimeMillis())
     private var newMedia = false
     @Volatile var expanding = false
 
@@ -96,7 +109,8 @@ class PlaylistManager(val service: PlaybackService) : MediaWrapperList.EventList
     fun load(list: List<MediaWrapper>, position: Int) {
         mediaList.removeEventListener(this)
         mediaList.clear()
-        previous.clear()
+        shuffleOrder.clear()
+        savedQueue = null
         for (media in list) mediaList.add(media)
         if (!hasMedia()) {
             Log.w(TAG, "Warning: empty media list, nothing to play !")
@@ -119,11 +133,9 @@ class PlaylistManager(val service: PlaybackService) : MediaWrapperList.EventList
             val audio = type == Constants.PLAYLIST_TYPE_AUDIO
             val currentMedia = settings.getString(if (audio) "current_song" else "current_media", "")
             if ("" == currentMedia) return@launch
-            val locations = settings.getString(if (audio) "audio_list" else "media_list", "").split(" ".toRegex()).dropLastWhile({ it.isEmpty() }).toTypedArray()
-            if (Util.isArrayEmpty(locations)) return@launch
-            val playList = async {
-                locations.map { Uri.decode(it) }.mapTo(ArrayList(locations.size)) { MediaWrapper(Uri.parse(it)) }
-            }.await()
+            val queue = if (audio) audioQueue else mediaQueue
+            val playList = async(queueDispatcher) { restoreQueue(queue, audio) }.await()
+            if (playList.isEmpty()) return@launch
             // load playlist
             shuffling = settings.getBoolean(if (audio) "audio_shuffling" else "media_shuffling", false)
             repeating = settings.getInt(if (audio) "audio_repeating" else "media_repeating", Constants.REPEAT_NONE)
@@ -141,6 +153,26 @@ class PlaylistManager(val service: PlaybackService) : MediaWrapperList.EventList
         }
     }
 
+    /**
+     * Read the saved queue, and resolve all its media in one medialibrary call.
+     * Falls back to the list saved in preferences by previous versions.
+     */
+    private fun restoreQueue(queue: PlayQueueStore, audio: Boolean): ArrayList<MediaWrapper> {
+        val entries = queue.load()
+        if (entries.isEmpty()) {
+            val key = if (audio) "audio_list" else "media_list"
+            val locations = settings.getString(key, "").split(" ".toRegex()).dropLastWhile({ it.isEmpty() }).toTypedArray()
+            if (!Util.isArrayEmpty(locations)) settings.edit().remove(key).apply()
+            return locations.map { Uri.decode(it) }.mapTo(ArrayList(locations.size)) { MediaWrapper(Uri.parse(it)) }
+        }
+        val ids = LongArray(entries.size) { entries[it].id }
+        val medias = medialibrary.getMedia(ids)
+        return entries.mapIndexedTo(ArrayList(entries.size)) { i, entry ->
+            val media = medias[i]
+            if (media !== null && media.uri.toString() == entry.uri) media else MediaWrapper(Uri.parse(entry.uri))
+        }
+    }
+
     private fun onPlaylistLoaded() {
         service.onPlaylistLoaded()
         launch(UI, CoroutineStart.UNDISPATCHED) {
@@ -160,7 +192,6 @@ class PlaylistManager(val service: PlaybackService) : MediaWrapperList.EventList
     @MainThread
     fun next() {
         val size = mediaList.size()
-        previous.push(currentIndex)
         currentIndex = nextIndex
         if (size == 0 || currentIndex < 0 || currentIndex >= size) {
             Log.w(TAG, "Warning: invalid next index, aborted !")
@@ -180,7 +211,8 @@ class PlaylistManager(val service: PlaybackService) : MediaWrapperList.EventList
         }
         player.releaseMedia()
         mediaList.removeEventListener(this)
-        previous.clear()
+        shuffleOrder.clear()
+        savedQueue = null
         currentIndex = -1
         mediaList.clear()
         if (systemExit) player.release()
@@ -194,7 +226,6 @@ class PlaylistManager(val service: PlaybackService) : MediaWrapperList.EventList
                 (force || !player.seekable || player.getTime() < PREVIOUS_LIMIT_DELAY)) {
             val size = mediaList.size()
             currentIndex = prevIndex
-            if (previous.size > 0) previous.pop()
             if (size == 0 || prevIndex < 0 || currentIndex >= size) {
                 Log.w(TAG, "Warning: invalid previous index, aborted !")
                 player.stop()
@@ -205,7 +236,8 @@ class PlaylistManager(val service: PlaybackService) : MediaWrapperList.EventList
     }
 
     fun shuffle() {
-        if (shuffling) previous.clear()
+        if (shuffling) shuffleOrder.clear()
+        else shuffleOrder.reset(mediaList.size(), currentIndex)
         shuffling = !shuffling
         savePosition()
         launch(UI, CoroutineStart.UNDISPATCHED) { determinePrevAndNextIndices() }
@@ -224,6 +256,7 @@ class PlaylistManager(val service: PlaybackService) : MediaWrapperList.EventList
             Log.w(TAG, "Warning: empty media list, nothing to play !")
             return
         }
+        if (shuffling) shuffleOrder.select(currentIndex, index)
         currentIndex = if (isValidPosition(index)) {
             index
         } else {
@@ -325,6 +358,12 @@ class PlaylistManager(val service: PlaybackService) : MediaWrapperList.EventList
     override fun onItemAdded(index: Int, mrl: String?) {
         if (BuildConfig.DEBUG) Log.i(TAG, "CustomMediaListItemAdded")
         if (currentIndex >= index && !expanding) ++currentIndex
+        if (shuffling && shuffleOrder.size == mediaList.size() - 1) shuffleOrder.onItemAdded(index, currentIndex)
+        mediaList.getMedia(index)?.let { media ->
+            val id = media.id
+            val uri = media.uri.toString()
+            journal { it.add(index, id, uri) }
+        }
         launch(UI, CoroutineStart.UNDISPATCHED) {
             determinePrevAndNextIndices()
             executeUpdate()
@@ -335,11 +374,20 @@ class PlaylistManager(val service: PlaybackService) : MediaWrapperList.EventList
     override fun onItemRemoved(index: Int, mrl: String?) {
         if (BuildConfig.DEBUG) Log.i(TAG, "CustomMediaListItemDeleted")
         val currentRemoved = currentIndex == index
-        if (currentIndex >= index && !expanding) --currentIndex
+        val shuffleRemoved = shuffling && currentRemoved && !expanding && shuffleOrder.size == mediaList.size() + 1
+        // In shuffle mode, go on with the item that followed the removed one in the order,
+        // or end the cycle on the item before it
+        val shuffleNext = if (shuffleRemoved) shuffleOrder.next(index) else -1
+        val shuffleCurrent = if (shuffleNext != -1) shuffleNext else if (shuffleRemoved) shuffleOrder.previous(index) else -1
+        if (shuffleCurrent != -1) currentIndex = if (shuffleCurrent > index) shuffleCurrent - 1 else shuffleCurrent
+        else if (currentIndex >= index && !expanding) --currentIndex
+        if (shuffling && shuffleOrder.size == mediaList.size() + 1) shuffleOrder.onItemRemoved(index)
+        journal { it.remove(index) }
         launch(UI, CoroutineStart.UNDISPATCHED) {
             determinePrevAndNextIndices()
             if (currentRemoved && !expanding) {
                 when {
+                    shuffleNext != -1 -> playIndex(currentIndex, 0)
                     nextIndex != -1 -> next()
                     currentIndex != -1 -> playIndex(currentIndex, 0)
                     else -> stop()
@@ -384,6 +432,7 @@ class PlaylistManager(val service: PlaybackService) : MediaWrapperList.EventList
     private fun loadMediaMeta(media: MediaWrapper) {
         if (media.id == 0L) return
         if (player.canSwitchToVideo()) {
+            media.prefetchMetaLong(MediaWrapper.META_AUDIODELAY, MediaWrapper.META_SUBTITLE_TRACK, MediaWrapper.META_SUBTITLE_DELAY)
             if (settings.getBoolean("save_individual_audio_delay", false))
                 player.setAudioDelay(media.getMetaLong(MediaWrapper.META_AUDIODELAY))
             player.setSpuTrack(media.getMetaLong(MediaWrapper.META_SUBTITLE_TRACK).toInt())
@@ -401,12 +450,26 @@ class PlaylistManager(val service: PlaybackService) : MediaWrapperList.EventList
     @Synchronized
     private fun saveMediaList() {
         if (getCurrentMedia() === null) return
-        val locations = StringBuilder()
-        for (mw in mediaList.all) locations.append(" ").append(mw.uri.toString())
-        //We save a concatenated String because putStringSet is APIv11.
-        settings.edit()
-                .putString(if (!isAudioList()) "media_list" else "audio_list", locations.toString().trim { it <= ' ' })
-                .apply()
+        val queue = if (isAudioList()) audioQueue else mediaQueue
+        // Edits since the last save have been journaled
+        if (queue === savedQueue) return
+        savedQueue = queue
+        val entries = mediaList.all.map { PlayQueueStore.Entry(it.id, it.uri.toString()) }
+        queueExecutor.execute { queue.replace(entries) }
+    }
+
+    /**
+     * Append a playlist edit to the saved queue, if it is in sync
+     */
+    @Synchronized
+    private fun journal(edit: (PlayQueueStore) -> Unit) {
+        val queue = savedQueue ?: return
+        // List type changed, it will be saved in the other queue
+        if (queue !== (if (isAudioList()) audioQueue else mediaQueue)) {
+            savedQueue = null
+            return
+        }
+        queueExecutor.execute { edit(queue) }
     }
 
     override fun onItemMoved(indexBefore: Int, indexAfter: Int, mrl: String?) {
@@ -420,9 +483,8 @@ class PlaylistManager(val service: PlaybackService) : MediaWrapperList.EventList
         else if (currentIndex in (indexBefore + 1)..(indexAfter - 1))
             --currentIndex
 
-        // If we are in random mode, we completely reset the stored previous track
-        // as their indices changed.
-        previous.clear()
+        if (shuffling && shuffleOrder.size == mediaList.size()) shuffleOrder.onItemMoved(indexBefore, indexAfter)
+        journal { it.move(indexBefore, indexAfter) }
         launch(UI, CoroutineStart.UNDISPATCHED) {
             determinePrevAndNextIndices()
             executeUpdate()
@@ -452,34 +514,16 @@ class PlaylistManager(val service: PlaybackService) : MediaWrapperList.EventList
                 prevIndex = nextIndex
             } else {
                 if (shuffling) {
-                    if (!previous.isEmpty()) {
-                        prevIndex = previous.peek()
-                        while (!isValidPosition(prevIndex)) {
-                            previous.removeAt(previous.size - 1)
-                            if (previous.isEmpty()) {
-                                prevIndex = -1
-                                break
-                            }
-                            prevIndex = previous.peek()
-                        }
-                    }
+                    if (shuffleOrder.size != size) shuffleOrder.reset(size, currentIndex)
+                    prevIndex = shuffleOrder.previous(currentIndex)
+                    nextIndex = shuffleOrder.next(currentIndex)
                     // If we've played all songs already in shuffle, then either
                     // reshuffle or stop (depending on RepeatType).
-                    if (previous.size + 1 == size) {
-                        if (repeating == Constants.REPEAT_NONE) {
-                            nextIndex = -1
-                            return
-                        } else {
-                            previous.clear()
-                            random = Random(System.currentTimeMillis())
-                        }
+                    if (nextIndex == -1 && repeating != Constants.REPEAT_NONE) {
+                        shuffleOrder.reset(size, currentIndex)
+                        prevIndex = -1
+                        nextIndex = shuffleOrder.next(currentIndex)
                     }
-                    random = Random(System.currentTimeMillis())
-                    // Find a new index not in previous.
-                    do {
-                        nextIndex = random.nextInt(size)
-                    } while (nextIndex == currentIndex || previous.contains(nextIndex))
-
                 } else {
                     // normal playback
                     if (currentIndex > 0)
@@ -0,0 +1,156 @@
+/*****************************************************************************
+ * ShuffleOrder.kt
+ *****************************************************************************
+ * Copyright © 2018 VLC authors and VideoLAN
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston MA 02110-1301, USA.
+ *****************************************************************************/
+
+package org.videolan.vlc.media
+
+import java.util.*
+
+/**
+ * Play order of a shuffled playlist.
+ *
+ * [order] is a random permutation of the playlist indices, and [positions] its inverse,
+ * so next and previous items are found in constant time. Playlist edits update both
+ * arrays in linear time, keeping the items already played before the current one.
+ */
+class ShuffleOrder(private val random: Random = Random()) {
+
+    private var order = IntArray(0)
+    private var positions = IntArray(0)
+    var size = 0
+        private set
+
+    /**
+     * Draw a new permutation of [size] items, starting with [current].
+     */
+    fun reset(size: Int, current: Int) {
+        this.size = size
+        if (order.size < size) {
+            order = IntArray(size)
+            positions = IntArray(size)
+        }
+        for (i in 0 until size) order[i] = i
+        for (i in size - 1 downTo 1) swap(i, random.nextInt(i + 1))
+        if (current in 0 until size) swap(0, indexOf(current))
+        updatePositions(0, size)
+    }
+
+    fun clear() {
+        size = 0
+    }
+
+    /**
+     * @return the item played after [current] in this cycle, -1 at the end of the cycle
+     */
+    fun next(current: Int): Int {
+        if (current !in 0 until size) return -1
+        val position = positions[current] + 1
+        return if (position < size) order[position] else -1
+    }
+
+    /**
+     * @return the item played before [current] in this cycle, -1 at its beginning
+     */
+    fun previous(current: Int): Int {
+        if (current !in 0 until size) return -1
+        val position = positions[current] - 1
+        return if (position >= 0) order[position] else -1
+    }
+
+    /**
+     * The user jumped from [current] to [index]: play [index] right after [current] if it has
+     * not been played yet in this cycle, so the remaining order is not altered.
+     */
+    fun select(current: Int, index: Int) {
+        if (current !in 0 until size || index !in 0 until size) return
+        val target = positions[current] + 1
+        val position = positions[index]
+        if (position > target) {
+            swap(target, position)
+            updatePositions(target, target + 1)
+            updatePositions(position, position + 1)
+        }
+    }
+
+    /**
+     * An item has been inserted at [index] in the playlist. It is given a random place among
+     * the items not played yet, [current] being the current item index after insertion.
+     */
+    fun onItemAdded(index: Int, current: Int) {
+        ensureCapacity(size + 1)
+        for (i in 0 until size) if (order[i] >= index) ++order[i]
+        val first = if (current in 0 until size + 1) positions[if (current > index) current - 1 else current] + 1 else 0
+        val position = first + random.nextInt(size - first + 1)
+        System.arraycopy(order, position, order, position + 1, size - position)
+        order[position] = index
+        ++size
+        updatePositions(0, size)
+    }
+
+    fun onItemRemoved(index: Int) {
+        if (index !in 0 until size) return
+        val position = positions[index]
+        System.arraycopy(order, position + 1, order, position, size - position - 1)
+        --size
+        for (i in 0 until size) if (order[i] > index) --order[i]
+        updatePositions(0, size)
+    }
+
+    /**
+     * Follows [MediaWrapperList.move] semantics: the item is removed from [indexBefore] and
+     * inserted before the item previously at [indexAfter]. Its place in the order is kept.
+     */
+    fun onItemMoved(indexBefore: Int, indexAfter: Int) {
+        if (indexBefore !in 0 until size) return
+        val destination = if (indexAfter > indexBefore) indexAfter - 1 else indexAfter
+        if (destination == indexBefore) return
+        for (i in 0 until size) {
+            val index = order[i]
+            order[i] = when {
+                index == indexBefore -> destination
+                destination > indexBefore && index in indexBefore + 1..destination -> index - 1
+                destination < indexBefore && index in destination until indexBefore -> index + 1
+                else -> index
+            }
+        }
+        updatePositions(0, size)
+    }
+
+    private fun indexOf(item: Int): Int {
+        for (i in 0 until size) if (order[i] == item) return i
+        return -1
+    }
+
+    private fun swap(i: Int, j: Int) {
+        val tmp = order[i]
+        order[i] = order[j]
+        order[j] = tmp
+    }
+
+    private fun updatePositions(from: Int, to: Int) {
+        for (i in from until to) positions[order[i]] = i
+    }
+
+    private fun ensureCapacity(capacity: Int) {
+        if (order.size >= capacity) return
+        val newCapacity = Math.max(capacity, order.size * 2)
+        order = order.copyOf(newCapacity)
+        positions = positions.copyOf(newCapacity)
+    }
+}
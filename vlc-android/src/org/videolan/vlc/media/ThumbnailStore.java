@@ -0,0 +1,241 @@
+/*****************************************************************************
+ * ThumbnailStore.java
+ *****************************************************************************
+ * Copyright © 2018 VLC authors and VideoLAN
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston MA 02110-1301, USA.
+ *****************************************************************************/
+
+package org.videolan.vlc.media;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Size bounded, content addressed thumbnail files.
+ *
+ * Each thumbnail is stored in its own file, named after the SHA-1 of its content. The
+ * store index is a memory mapped file of fixed size records (key, length, last use), so
+ * marking an entry as used is a plain memory write. Least recently used entries are
+ * evicted once the total size exceeds the limit.
+ */
+public class ThumbnailStore {
+
+    private static final String INDEX_NAME = "index";
+    private static final int KEY_SIZE = 20;
+    private static final int LENGTH_OFFSET = KEY_SIZE;
+    private static final int CLOCK_OFFSET = LENGTH_OFFSET + 4;
+    private static final int RECORD_SIZE = CLOCK_OFFSET + 8;
+    private static final int MIN_SLOTS = 256;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final class Entry {
+        final int slot;
+        final int length;
+
+        Entry(int slot, int length) {
+            this.slot = slot;
+            this.length = length;
+        }
+    }
+
+    private final File mDirectory;
+    private final long mMaxSize;
+    private final LinkedHashMap<String, Entry> mEntries = new LinkedHashMap<>(MIN_SLOTS, 0.75f, true);
+    private final ArrayDeque<Integer> mFreeSlots = new ArrayDeque<>();
+    private final RandomAccessFile mIndexFile;
+    private MappedByteBuffer mIndex;
+    private int mSlotCount;
+    private long mSize;
+    private long mClock;
+
+    public ThumbnailStore(File directory, long maxSize) throws IOException {
+        mDirectory = directory;
+        mMaxSize = maxSize;
+        if (!directory.isDirectory() && !directory.mkdirs())
+            throw new IOException("Can't create " + directory);
+        mIndexFile = new RandomAccessFile(new File(directory, INDEX_NAME), "rw");
+        mSlotCount = Math.max(MIN_SLOTS, (int) (mIndexFile.length() / RECORD_SIZE));
+        map();
+        load();
+    }
+
+    /**
+     * Store a thumbnail
+     *
+     * @param data encoded picture
+     * @return the key to retrieve it
+     */
+    public synchronized String put(byte[] data) throws IOException {
+        final byte[] digest = digest(data);
+        final String key = toHex(digest);
+        if (get(key) != null)
+            return key;
+        final File file = new File(mDirectory, key);
+        final File tmp = new File(mDirectory, key + ".tmp");
+        final FileOutputStream out = new FileOutputStream(tmp);
+        try {
+            out.write(data);
+        } finally {
+            out.close();
+        }
+        if (!tmp.renameTo(file)) {
+            tmp.delete();
+            throw new IOException("Can't write " + file);
+        }
+        final int slot = allocateSlot();
+        final int offset = slot * RECORD_SIZE;
+        for (int i = 0; i < KEY_SIZE; ++i)
+            mIndex.put(offset + i, digest[i]);
+        mIndex.putInt(offset + LENGTH_OFFSET, data.length);
+        mIndex.putLong(offset + CLOCK_OFFSET, ++mClock);
+        mEntries.put(key, new Entry(slot, data.length));
+        mSize += data.length;
+        trim();
+        return key;
+    }
+
+    /**
+     * @param key a key returned by {@link #put(byte[])}
+     * @return the thumbnail file, or null if it has been evicted
+     */
+    public synchronized File get(String key) {
+        final Entry entry = key != null ? mEntries.get(key) : null;
+        if (entry == null)
+            return null;
+        final File file = new File(mDirectory, key);
+        if (!file.exists()) {
+            remove(key, entry);
+            return null;
+        }
+        mIndex.putLong(entry.slot * RECORD_SIZE + CLOCK_OFFSET, ++mClock);
+        return file;
+    }
+
+    public synchronized long getSize() {
+        return mSize;
+    }
+
+    public synchronized void close() throws IOException {
+        mIndex.force();
+        mIndexFile.close();
+    }
+
+    private void map() throws IOException {
+        mIndex = mIndexFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, (long) mSlotCount * RECORD_SIZE);
+    }
+
+    private void load() {
+        final List<long[]> used = new ArrayList<>();
+        for (int slot = 0; slot < mSlotCount; ++slot) {
+            final int offset = slot * RECORD_SIZE;
+            final int length = mIndex.getInt(offset + LENGTH_OFFSET);
+            if (length > 0)
+                used.add(new long[] { mIndex.getLong(offset + CLOCK_OFFSET), slot, length });
+            else
+                mFreeSlots.add(slot);
+        }
+        // Oldest first, to rebuild the LRU order
+        Collections.sort(used, new Comparator<long[]>() {
+            @Override
+            public int compare(long[] a, long[] b) {
+                return a[0] < b[0] ? -1 : (a[0] == b[0] ? 0 : 1);
+            }
+        });
+        final byte[] digest = new byte[KEY_SIZE];
+        for (long[] record : used) {
+            final int slot = (int) record[1];
+            final int length = (int) record[2];
+            for (int i = 0; i < KEY_SIZE; ++i)
+                digest[i] = mIndex.get(slot * RECORD_SIZE + i);
+            final String key = toHex(digest);
+            if (new File(mDirectory, key).length() != length) {
+                freeSlot(slot);
+                continue;
+            }
+            mEntries.put(key, new Entry(slot, length));
+            mSize += length;
+            mClock = Math.max(mClock, record[0]);
+        }
+        trim();
+    }
+
+    private void trim() {
+        final Iterator<Map.Entry<String, Entry>> it = mEntries.entrySet().iterator();
+        while (mSize > mMaxSize && mEntries.size() > 1 && it.hasNext()) {
+            final Map.Entry<String, Entry> eldest = it.next();
+            it.remove();
+            evict(eldest.getKey(), eldest.getValue());
+        }
+    }
+
+    private void remove(String key, Entry entry) {
+        mEntries.remove(key);
+        evict(key, entry);
+    }
+
+    private void evict(String key, Entry entry) {
+        new File(mDirectory, key).delete();
+        freeSlot(entry.slot);
+        mSize -= entry.length;
+    }
+
+    private void freeSlot(int slot) {
+        mIndex.putInt(slot * RECORD_SIZE + LENGTH_OFFSET, 0);
+        mFreeSlots.add(slot);
+    }
+
+    private int allocateSlot() throws IOException {
+        if (mFreeSlots.isEmpty()) {
+            final int oldCount = mSlotCount;
+            mSlotCount *= 2;
+            map();
+            for (int slot = oldCount; slot < mSlotCount; ++slot)
+                mFreeSlots.add(slot);
+        }
+        return mFreeSlots.poll();
+    }
+
+    private static byte[] digest(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-1").digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        final char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; ++i) {
+            chars[2 * i] = HEX[(bytes[i] >> 4) & 0xf];
+            chars[2 * i + 1] = HEX[bytes[i] & 0xf];
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,287 @@
+/*****************************************************************************
+ * TitleGrouper.java
+ *****************************************************************************
+ * Copyright © 2018 VLC authors and VideoLAN
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston MA 02110-1301, USA.
+ *****************************************************************************/
+
+package org.videolan.vlc.media;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Groups items whose titles share a common prefix of at least minLength characters,
+ * ignoring case and a leading "The ".
+ *
+ * Sharing such a prefix means having the same first minLength characters, so an item
+ * finds its group with a single lookup on that key. Each group keeps its titles in a
+ * radix trie, the group title being the path from the root down to the first branch.
+ * Items can be added and removed one at a time.
+ */
+public class TitleGrouper<T> {
+
+    private static final String THE = "the ";
+
+    private final int mMinLength;
+    private final HashMap<String, Group<T>> mGroups = new HashMap<>();
+    // All groups, including single items with a too short title, in creation order
+    private final LinkedHashSet<Group<T>> mAllGroups = new LinkedHashSet<>();
+
+    public static final class Group<T> {
+        private final ArrayList<T> mItems = new ArrayList<>(1);
+        private final ArrayList<String> mTitles = new ArrayList<>(1);
+        private final String mKey;
+        private final Node mRoot = new Node("", 0, 0);
+        private String mTitle;
+
+        private Group(String key) {
+            mKey = key;
+        }
+
+        public List<T> getItems() {
+            return Collections.unmodifiableList(mItems);
+        }
+
+        public T getFirst() {
+            return mItems.get(0);
+        }
+
+        public int size() {
+            return mItems.size();
+        }
+
+        /**
+         * @return the common prefix of the titles, with the case and leading "The " of the first one
+         */
+        public String getTitle() {
+            if (mTitle == null) {
+                final String first = mTitles.get(0);
+                mTitle = first.substring(0, Math.min(first.length(), theOffset(first) + mRoot.commonPrefixLength()));
+            }
+            return mTitle;
+        }
+
+        private void add(T item, String title, String key) {
+            mItems.add(item);
+            mTitles.add(title);
+            mRoot.insert(key, 0);
+            mTitle = null;
+        }
+
+        private boolean remove(T item, String key) {
+            final int index = mItems.indexOf(item);
+            if (index == -1)
+                return false;
+            mItems.remove(index);
+            mTitles.remove(index);
+            mRoot.remove(key, 0);
+            mTitle = null;
+            return true;
+        }
+    }
+
+    /**
+     * Radix trie node, counting the keys going through it
+     */
+    private static final class Node {
+        private String mKey;
+        private int mStart, mEnd;
+        private Node mChild, mNext;
+        private int mCount;
+        private int mEnds;
+
+        Node(String key, int start, int end) {
+            mKey = key;
+            mStart = start;
+            mEnd = end;
+        }
+
+        private int length() {
+            return mEnd - mStart;
+        }
+
+        private char charAt(int i) {
+            return mKey.charAt(mStart + i);
+        }
+
+        private Node findChild(char c) {
+            for (Node child = mChild; child != null; child = child.mNext)
+                if (child.charAt(0) == c) return child;
+            return null;
+        }
+
+        /**
+         * Insert key, from position pos which is the end of this node label
+         */
+        void insert(String key, int pos) {
+            Node node = this;
+            while (true) {
+                ++node.mCount;
+                if (pos == key.length()) {
+                    ++node.mEnds;
+                    return;
+                }
+                final Node child = node.findChild(key.charAt(pos));
+                if (child == null) {
+                    final Node leaf = new Node(key, pos, key.length());
+                    leaf.mNext = node.mChild;
+                    node.mChild = leaf;
+                    leaf.mCount = 1;
+                    leaf.mEnds = 1;
+                    return;
+                }
+                int common = 1;
+                final int max = Math.min(child.length(), key.length() - pos);
+                while (common < max && child.charAt(common) == key.charAt(pos + common))
+                    ++common;
+                if (common < child.length())
+                    child.split(common);
+                node = child;
+                pos += common;
+            }
+        }
+
+        /**
+         * Split this node label at length, moving the rest into a new child
+         */
+        private void split(int length) {
+            final Node tail = new Node(mKey, mStart + length, mEnd);
+            tail.mChild = mChild;
+            tail.mCount = mCount;
+            tail.mEnds = mEnds;
+            mChild = tail;
+            mEnd = mStart + length;
+            mEnds = 0;
+        }
+
+        void remove(String key, int pos) {
+            Node node = this;
+            while (true) {
+                --node.mCount;
+                if (pos == key.length()) {
+                    --node.mEnds;
+                    return;
+                }
+                Node previous = null;
+                Node child = node.mChild;
+                while (child != null && child.charAt(0) != key.charAt(pos)) {
+                    previous = child;
+                    child = child.mNext;
+                }
+                if (child == null)
+                    return;
+                if (child.mCount == 1) {
+                    // Last key in this branch, drop it
+                    if (previous == null) node.mChild = child.mNext;
+                    else previous.mNext = child.mNext;
+                    return;
+                }
+                pos += child.length();
+                node = child;
+            }
+        }
+
+        /**
+         * @return length of the prefix common to all keys
+         */
+        int commonPrefixLength() {
+            int length = 0;
+            Node node = this;
+            while (node.mEnds == 0 && node.mChild != null && node.mChild.mNext == null) {
+                node = node.mChild;
+                length += node.length();
+            }
+            return length;
+        }
+    }
+
+    public TitleGrouper(int minLength) {
+        mMinLength = minLength;
+    }
+
+    private static int theOffset(String title) {
+        return title.regionMatches(true, 0, THE, 0, THE.length()) ? THE.length() : 0;
+    }
+
+    private static String normalize(String title) {
+        return title.substring(theOffset(title)).toLowerCase();
+    }
+
+    /**
+     * @return the group key, or null if this title can't be grouped
+     */
+    private String groupKey(String key) {
+        return mMinLength > 0 && key.length() >= mMinLength ? key.substring(0, mMinLength) : null;
+    }
+
+    /**
+     * @return the group item has been added to
+     */
+    public Group<T> add(T item, String title) {
+        if (title == null) title = "";
+        final String key = normalize(title);
+        final String groupKey = groupKey(key);
+        Group<T> group = groupKey != null ? mGroups.get(groupKey) : null;
+        if (group == null) {
+            group = new Group<>(groupKey);
+            if (groupKey != null) mGroups.put(groupKey, group);
+            mAllGroups.add(group);
+        }
+        group.add(item, title, key);
+        return group;
+    }
+
+    /**
+     * @param title title the item has been added with
+     * @return the group item has been removed from, null if it was not found
+     */
+    public Group<T> remove(T item, String title) {
+        if (title == null) title = "";
+        final String key = normalize(title);
+        final String groupKey = groupKey(key);
+        Group<T> group = null;
+        if (groupKey != null) {
+            group = mGroups.get(groupKey);
+        } else {
+            for (Group<T> candidate : mAllGroups) {
+                if (candidate.mKey == null && candidate.getFirst().equals(item)) {
+                    group = candidate;
+                    break;
+                }
+            }
+        }
+        if (group == null || !group.remove(item, key))
+            return null;
+        if (group.size() == 0) {
+            if (groupKey != null) mGroups.remove(groupKey);
+            mAllGroups.remove(group);
+        }
+        return group;
+    }
+
+    public Collection<Group<T>> getGroups() {
+        return Collections.unmodifiableCollection(mAllGroups);
+    }
+
+    public int getGroupCount() {
+        return mAllGroups.size();
+    }
+}
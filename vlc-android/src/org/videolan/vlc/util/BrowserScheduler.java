@@ -0,0 +1,157 @@
+/*****************************************************************************
+ * BrowserScheduler.java
+ *****************************************************************************
+ * Copyright © 2018 VLC authors and VideoLAN
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston MA 02110-1301, USA.
+ *****************************************************************************/
+
+package org.videolan.vlc.util;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Process;
+import android.util.Log;
+
+import org.videolan.vlc.BuildConfig;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Browsing threads shared by all browsers.
+ *
+ * A few worker threads are started on demand and never stopped. Each browser owner opens a
+ * {@link Session}, bound to one of them, to run its browsing tasks and receive its MediaBrowser
+ * events. Cancelling a session only drops the tasks of this session.
+ */
+public class BrowserScheduler {
+    private static final String TAG = "VLC/BrowserScheduler";
+
+    private static final int WORKERS = 2;
+    private static final Looper[] sLoopers = new Looper[WORKERS];
+    private static int sNextWorker = 0;
+
+    private static final AtomicInteger sActiveSessions = new AtomicInteger();
+    private static final AtomicInteger sLeakedSessions = new AtomicInteger();
+
+    /**
+     * @return number of sessions currently holding a MediaBrowser
+     */
+    public static int getActiveSessions() {
+        return sActiveSessions.get();
+    }
+
+    /**
+     * @return number of sessions whose MediaBrowser was still open after they were destroyed
+     */
+    public static int getLeakedSessions() {
+        return sLeakedSessions.get();
+    }
+
+    public static Session openSession() {
+        return new Session(nextLooper());
+    }
+
+    private static synchronized Looper nextLooper() {
+        final int worker = sNextWorker;
+        sNextWorker = (sNextWorker + 1) % WORKERS;
+        if (sLoopers[worker] == null) {
+            final HandlerThread handlerThread = new HandlerThread("vlc-browser-" + worker, Process.THREAD_PRIORITY_DEFAULT+Process.THREAD_PRIORITY_LESS_FAVORABLE);
+            handlerThread.start();
+            sLoopers[worker] = handlerThread.getLooper();
+        }
+        return sLoopers[worker];
+    }
+
+    public static class Session {
+        private final Handler mHandler;
+        /* Accessed on the session thread */
+        private boolean mBrowsing = false;
+        private volatile boolean mDestroyed = false;
+
+        private Session(Looper looper) {
+            mHandler = new Handler(looper);
+        }
+
+        /**
+         * @return handler to give to MediaBrowser, so that its events come on the session thread
+         */
+        public Handler getHandler() {
+            return mHandler;
+        }
+
+        /**
+         * Run on the session thread, immediately if already on it. Ignored once destroyed.
+         */
+        public void run(Runnable runnable) {
+            if (mDestroyed)
+                return;
+            if (Looper.myLooper() == mHandler.getLooper())
+                runnable.run();
+            else
+                mHandler.post(runnable);
+        }
+
+        /**
+         * Drop the pending tasks of this session
+         */
+        public void cancel() {
+            mHandler.removeCallbacksAndMessages(null);
+        }
+
+        /**
+         * To call on the session thread once a MediaBrowser has been created
+         */
+        public void onBrowserCreated() {
+            if (mBrowsing)
+                return;
+            mBrowsing = true;
+            sActiveSessions.incrementAndGet();
+        }
+
+        /**
+         * To call on the session thread once the MediaBrowser has been released
+         */
+        public void onBrowserReleased() {
+            if (!mBrowsing)
+                return;
+            mBrowsing = false;
+            sActiveSessions.decrementAndGet();
+        }
+
+        /**
+         * Cancel pending tasks, run release on the session thread, then refuse any new task.
+         * A MediaBrowser still open after release is counted as leaked.
+         */
+        public void destroy(final Runnable release) {
+            if (mDestroyed)
+                return;
+            cancel();
+            mHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    if (release != null)
+                        release.run();
+                    if (mBrowsing) {
+                        final int leaked = sLeakedSessions.incrementAndGet();
+                        if (BuildConfig.DEBUG) Log.w(TAG, "Browser left open after destroy, " + leaked + " leaked sessions");
+                    }
+                }
+            });
+            mDestroyed = true;
+        }
+    }
+}
@@ -0,0 +1,270 @@
+/*****************************************************************************
+ * HttpArtworkCache.java
+ *****************************************************************************
+ * Copyright © 2018 VLC authors and VideoLAN
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston MA 02110-1301, USA.
+ *****************************************************************************/
+
+package org.videolan.vlc.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Properties;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Disk cache for remote artwork.
+ *
+ * Each URL is stored in a file named after its SHA-1, next to a small properties file
+ * holding its ETag and Last-Modified validators. Entries are revalidated with a conditional
+ * request once they are older than the revalidation interval, and served stale when the
+ * server can't be reached. Downloads are limited per host, least recently used entries are
+ * deleted once the total size exceeds the limit.
+ */
+public class HttpArtworkCache {
+
+    private static final String META_SUFFIX = ".meta";
+    private static final String TMP_SUFFIX = ".tmp";
+    private static final String KEY_ETAG = "etag";
+    private static final String KEY_LAST_MODIFIED = "last-modified";
+    private static final String KEY_CHECKED = "checked";
+    private static final int TIMEOUT = 10000;
+    private static final long DEFAULT_REVALIDATE_INTERVAL = 24L * 60 * 60 * 1000;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final File mDirectory;
+    private final long mMaxSize;
+    private final int mMaxPerHost;
+    private final long mRevalidateInterval;
+    private final HashMap<String, Semaphore> mHostPermits = new HashMap<>();
+
+    public HttpArtworkCache(File directory, long maxSize, int maxPerHost) {
+        this(directory, maxSize, maxPerHost, DEFAULT_REVALIDATE_INTERVAL);
+    }
+
+    HttpArtworkCache(File directory, long maxSize, int maxPerHost, long revalidateInterval) {
+        mDirectory = directory;
+        mMaxSize = maxSize;
+        mMaxPerHost = maxPerHost;
+        mRevalidateInterval = revalidateInterval;
+    }
+
+    /**
+     * Get the artwork file for this URL, downloading or revalidating it if needed.
+     *
+     * @return the cached file
+     * @throws IOException if the artwork is neither cached nor downloadable
+     */
+    public File get(String imageUrl) throws IOException {
+        final String key = hash(imageUrl);
+        final File file = new File(mDirectory, key);
+        final File metaFile = new File(mDirectory, key + META_SUFFIX);
+        final Properties meta = file.exists() ? readMeta(metaFile) : null;
+        if (meta != null && System.currentTimeMillis() - getLong(meta, KEY_CHECKED) < mRevalidateInterval) {
+            touch(file);
+            return file;
+        }
+        final URL url = new URL(imageUrl);
+        final Semaphore permits = getHostPermits(url.getHost());
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+        try {
+            return download(url, file, metaFile, meta);
+        } catch (IOException e) {
+            // Offline, serve the stale copy
+            if (meta != null) return file;
+            throw e;
+        } finally {
+            permits.release();
+        }
+    }
+
+    private File download(URL url, File file, File metaFile, Properties meta) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        try {
+            connection.setConnectTimeout(TIMEOUT);
+            connection.setReadTimeout(TIMEOUT);
+            if (meta != null) {
+                final String etag = meta.getProperty(KEY_ETAG);
+                final String lastModified = meta.getProperty(KEY_LAST_MODIFIED);
+                if (etag != null) connection.setRequestProperty("If-None-Match", etag);
+                if (lastModified != null) connection.setRequestProperty("If-Modified-Since", lastModified);
+            }
+            final int code = connection.getResponseCode();
+            if (code == HttpURLConnection.HTTP_NOT_MODIFIED && meta != null) {
+                meta.setProperty(KEY_CHECKED, String.valueOf(System.currentTimeMillis()));
+                writeMeta(metaFile, meta);
+                touch(file);
+                return file;
+            }
+            if (code != HttpURLConnection.HTTP_OK)
+                throw new IOException("HTTP " + code + " for " + url);
+            if (!mDirectory.isDirectory() && !mDirectory.mkdirs())
+                throw new IOException("Can't create " + mDirectory);
+            // Unique temporary file, the same URL can be downloaded by several threads at once
+            final File tmp = File.createTempFile(file.getName(), TMP_SUFFIX, mDirectory);
+            boolean written = false;
+            InputStream in = null;
+            OutputStream out = null;
+            try {
+                in = connection.getInputStream();
+                out = new FileOutputStream(tmp);
+                final byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) != -1)
+                    out.write(buffer, 0, read);
+                Util.close(out);
+                out = null;
+                written = tmp.renameTo(file);
+            } finally {
+                Util.close(in);
+                Util.close(out);
+                if (!written)
+                    tmp.delete();
+            }
+            if (!written)
+                throw new IOException("Can't write " + file);
+            final Properties newMeta = new Properties();
+            final String etag = connection.getHeaderField("ETag");
+            final String lastModified = connection.getHeaderField("Last-Modified");
+            if (etag != null) newMeta.setProperty(KEY_ETAG, etag);
+            if (lastModified != null) newMeta.setProperty(KEY_LAST_MODIFIED, lastModified);
+            newMeta.setProperty(KEY_CHECKED, String.valueOf(System.currentTimeMillis()));
+            writeMeta(metaFile, newMeta);
+            trim(file);
+            return file;
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private synchronized Semaphore getHostPermits(String host) {
+        Semaphore permits = mHostPermits.get(host);
+        if (permits == null) {
+            permits = new Semaphore(mMaxPerHost, true);
+            mHostPermits.put(host, permits);
+        }
+        return permits;
+    }
+
+    /**
+     * Delete least recently used entries, except keep, until the cache fits in its size limit
+     */
+    private synchronized void trim(File keep) {
+        final File[] files = mDirectory.listFiles();
+        if (files == null)
+            return;
+        long size = 0;
+        for (File file : files)
+            if (isEntry(file)) size += file.length();
+        if (size <= mMaxSize)
+            return;
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File a, File b) {
+                final long diff = a.lastModified() - b.lastModified();
+                return diff < 0 ? -1 : (diff == 0 ? 0 : 1);
+            }
+        });
+        for (File file : files) {
+            if (size <= mMaxSize)
+                break;
+            if (!isEntry(file) || file.equals(keep))
+                continue;
+            final long length = file.length();
+            if (file.delete()) {
+                new File(mDirectory, file.getName() + META_SUFFIX).delete();
+                size -= length;
+            }
+        }
+    }
+
+    private static boolean isEntry(File file) {
+        final String name = file.getName();
+        return !name.endsWith(META_SUFFIX) && !name.endsWith(TMP_SUFFIX);
+    }
+
+    private static void touch(File file) {
+        file.setLastModified(System.currentTimeMillis());
+    }
+
+    private static Properties readMeta(File metaFile) {
+        final Properties meta = new Properties();
+        InputStream in = null;
+        try {
+            in = new FileInputStream(metaFile);
+            meta.load(in);
+            return meta;
+        } catch (IOException e) {
+            return null;
+        } finally {
+            Util.close(in);
+        }
+    }
+
+    private static void writeMeta(File metaFile, Properties meta) throws IOException {
+        final File tmp = File.createTempFile(metaFile.getName(), TMP_SUFFIX, metaFile.getParentFile());
+        final OutputStream out = new FileOutputStream(tmp);
+        try {
+            meta.store(out, null);
+        } finally {
+            Util.close(out);
+        }
+        if (!tmp.renameTo(metaFile)) {
+            tmp.delete();
+            throw new IOException("Can't write " + metaFile);
+        }
+    }
+
+    private static long getLong(Properties meta, String key) {
+        try {
+            return Long.parseLong(meta.getProperty(key, "0"));
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+
+    private static String hash(String url) {
+        final byte[] digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1").digest(url.getBytes("UTF-8"));
+        } catch (NoSuchAlgorithmException|IOException e) {
+            throw new IllegalStateException(e);
+        }
+        final char[] chars = new char[digest.length * 2];
+        for (int i = 0; i < digest.length; ++i) {
+            chars[2 * i] = HEX[(digest[i] >> 4) & 0xf];
+            chars[2 * i + 1] = HEX[digest[i] & 0xf];
+        }
+        return new String(chars);
+    }
+}
@@ -30,72 +30,117 @@ import android.graphics.BitmapFactory;
 import android.os.Handler;
 import android.os.Looper;
 import android.support.annotation.Nullable;
-import android.support.v4.util.SimpleArrayMap;
+import android.support.v4.util.LruCache;
+import android.util.Log;
 import android.view.View;
 
+import org.videolan.vlc.VLCApplication;
 import org.videolan.vlc.gui.helpers.AsyncImageLoader;
 
-import java.io.BufferedInputStream;
+import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
-import java.lang.ref.SoftReference;
-import java.net.HttpURLConnection;
-import java.net.URL;
 
 public class HttpImageLoader extends AsyncImageLoader.CoverFetcher {
 
-    private static SimpleArrayMap<String, SoftReference<Bitmap>> iconsMap = new SimpleArrayMap<>();
+    private static final String TAG = "VLC/HttpImageLoader";
+    private static final String CACHE_DIR = "artwork";
+    private static final long DISK_CACHE_SIZE = 20 * 1024 * 1024;
+    private static final int MAX_DOWNLOADS_PER_HOST = 2;
+
+    private static final LruCache<String, Bitmap> iconsMap = new LruCache<String, Bitmap>((int) (Runtime.getRuntime().maxMemory() / 32)) {
+        @Override
+        protected int sizeOf(String key, Bitmap value) {
+            return value.getRowBytes() * value.getHeight();
+        }
+    };
+    private static volatile HttpArtworkCache sDiskCache;
     private String mImageLink;
+    private int mWidth;
     private static final Handler sHandler = new Handler(Looper.getMainLooper());
 
     public HttpImageLoader(String imageLink, ViewDataBinding binding) {
+        this(imageLink, 0, binding);
+    }
+
+    public HttpImageLoader(String imageLink, int width, ViewDataBinding binding) {
         init(binding);
         mImageLink = imageLink;
+        mWidth = width;
     }
 
     @Override
     public Bitmap getImage() {
-        return downloadBitmap(mImageLink);
+        return downloadBitmap(mImageLink, mWidth);
     }
 
     @Nullable
     public static Bitmap getBitmapFromIconCache(String imageUrl) {
-        synchronized (iconsMap) {
-            if (iconsMap.containsKey(imageUrl)) {
-                final Bitmap bd = iconsMap.get(imageUrl).get();
-                if (bd != null) {
-                    return bd;
-                } else
-                    iconsMap.remove(imageUrl);
+        return getBitmapFromIconCache(imageUrl, 0);
+    }
+
+    /**
+     * @param width target width the image has been downsampled to, 0 for full size
+     */
+    @Nullable
+    public static Bitmap getBitmapFromIconCache(String imageUrl, int width) {
+        return imageUrl != null ? iconsMap.get(iconKey(imageUrl, width)) : null;
+    }
+
+    /* Decodes for different widths have different sample sizes */
+    private static String iconKey(String imageUrl, int width) {
+        return width > 0 ? imageUrl + "#" + width : imageUrl;
+    }
+
+    private static HttpArtworkCache getDiskCache() {
+        if (sDiskCache == null) {
+            synchronized (HttpImageLoader.class) {
+                if (sDiskCache == null)
+                    sDiskCache = new HttpArtworkCache(new File(VLCApplication.getAppContext().getCacheDir(), CACHE_DIR),
+                            DISK_CACHE_SIZE, MAX_DOWNLOADS_PER_HOST);
             }
         }
-        return null;
+        return sDiskCache;
     }
 
     @Nullable
     public static Bitmap downloadBitmap(String imageUrl) {
-        HttpURLConnection urlConnection = null;
-        InputStream in = null;
-        Bitmap icon = getBitmapFromIconCache(imageUrl);
+        return downloadBitmap(imageUrl, 0);
+    }
+
+    /**
+     * Get a remote image, from memory, disk cache or network.
+     *
+     * @param width target width to downsample to, 0 for full size
+     */
+    @Nullable
+    public static Bitmap downloadBitmap(String imageUrl, int width) {
+        Bitmap icon = getBitmapFromIconCache(imageUrl, width);
         if (icon != null)
             return icon;
         try {
-            final URL url = new URL(imageUrl);
-            urlConnection = (HttpURLConnection) url.openConnection();
-            in = new BufferedInputStream(urlConnection.getInputStream());
-            icon = BitmapFactory.decodeStream(in);
-            synchronized (iconsMap) {
-                iconsMap.put(imageUrl, new SoftReference<>(icon));
-            }
-        } catch (IOException|IllegalArgumentException ignored) {
-        } finally {
-            Util.close(in);
-            if (urlConnection != null)
-                urlConnection.disconnect();
+            final File file = getDiskCache().get(imageUrl);
+            icon = decodeFile(file.getPath(), width);
+            if (icon != null)
+                iconsMap.put(iconKey(imageUrl, width), icon);
+        } catch (IOException|IllegalArgumentException e) {
+            Log.w(TAG, "Can't load " + imageUrl + ": " + e.getMessage());
         }
         return icon;
     }
 
+    private static Bitmap decodeFile(String path, int width) {
+        final BitmapFactory.Options options = new BitmapFactory.Options();
+        if (width > 0) {
+            options.inJustDecodeBounds = true;
+            BitmapFactory.decodeFile(path, options);
+            options.inJustDecodeBounds = false;
+            options.inSampleSize = 1;
+            while (options.outWidth / (options.inSampleSize * 2) >= width)
+                options.inSampleSize *= 2;
+        }
+        return BitmapFactory.decodeFile(path, options);
+    }
+
     @Override
     public void updateImage(final Bitmap bitmap, final View target) {
         AsyncImageLoader.updateTargetImage(bitmap, target, binding);
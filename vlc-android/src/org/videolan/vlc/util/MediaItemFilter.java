@@ -1,10 +1,13 @@
 package org.videolan.vlc.util;
 
+import android.text.TextUtils;
 import android.widget.Filter;
 
 import org.videolan.medialibrary.media.MediaLibraryItem;
 
-import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
 
 
@@ -16,23 +19,63 @@ public abstract class MediaItemFilter extends Filter {
 
     protected List<MediaLibraryItem> referenceList;
 
+    // Index of the initData() list, only used from the filtering thread
+    private final TitleIndex<MediaLibraryItem> mIndex = new TitleIndex<>();
+    private IdentityHashMap<MediaLibraryItem, String> mIndexedTitles = new IdentityHashMap<>();
+    private IdentityHashMap<MediaLibraryItem, Integer> mPositions = new IdentityHashMap<>();
+    private List<? extends MediaLibraryItem> mIndexedData;
+    private int mIndexedSize;
+
+    private final Comparator<MediaLibraryItem> mPositionComparator = new Comparator<MediaLibraryItem>() {
+        @Override
+        public int compare(MediaLibraryItem item1, MediaLibraryItem item2) {
+            return mPositions.get(item1).compareTo(mPositions.get(item2));
+        }
+    };
+
     @Override
     protected FilterResults performFiltering(CharSequence charSequence) {
         final String[] queryStrings = charSequence.toString().trim().toLowerCase().split(" ");
         FilterResults results = new FilterResults();
-        List<MediaLibraryItem> list = new ArrayList<>();
-        for (MediaLibraryItem item : initData()) {
-            for (String queryString : queryStrings) {
-                if (queryString.length() < 2)
-                    continue;
-                if (item.getTitle() != null && item.getTitle().toLowerCase().contains(queryString)) {
-                    list.add(item);
-                    break ; //avoid duplicates in search results, and skip useless processing
-                }
-            }
-        }
+        final List<MediaLibraryItem> list = getIndex().search(queryStrings);
+        // Items added since the index was built come last, results follow the list order.
+        // Already ordered results are only checked, in linear time.
+        Collections.sort(list, mPositionComparator);
         results.values = list;
         results.count = list.size();
         return results;
     }
+
+    private TitleIndex<MediaLibraryItem> getIndex() {
+        final List<? extends MediaLibraryItem> data = initData();
+        if (data != mIndexedData || mIndexedSize != data.size()) {
+            update(data);
+            mIndexedData = data;
+            mIndexedSize = data.size();
+        }
+        return mIndex;
+    }
+
+    /**
+     * Only index the items of data which are new or renamed, and unindex the ones it lost
+     */
+    private void update(List<? extends MediaLibraryItem> data) {
+        final IdentityHashMap<MediaLibraryItem, String> titles = new IdentityHashMap<>(data.size());
+        final IdentityHashMap<MediaLibraryItem, Integer> positions = new IdentityHashMap<>(data.size());
+        for (int i = 0; i < data.size(); ++i) {
+            final MediaLibraryItem item = data.get(i);
+            if (positions.containsKey(item))
+                continue;
+            final String title = item.getTitle();
+            positions.put(item, i);
+            titles.put(item, title);
+            if (!mIndexedTitles.containsKey(item) || !TextUtils.equals(mIndexedTitles.get(item), title))
+                mIndex.add(item, title);
+        }
+        for (MediaLibraryItem item : mIndexedTitles.keySet())
+            if (!titles.containsKey(item))
+                mIndex.remove(item);
+        mIndexedTitles = titles;
+        mPositions = positions;
+    }
 }
@@ -9,8 +9,9 @@ import org.videolan.medialibrary.media.Playlist;
 import org.videolan.vlc.gui.audio.AudioBrowserAdapter;
 import org.videolan.vlc.gui.video.VideoListAdapter;
 
+import java.util.Arrays;
 import java.util.Comparator;
-import java.util.Locale;
+import java.util.List;
 
 public class MediaLibraryItemComparator implements Comparator<MediaLibraryItem> {
 
@@ -75,26 +76,26 @@ public class MediaLibraryItemComparator implements Comparator<MediaLibraryItem>
 
         switch (sortBy) {
             case SORT_BY_TITLE:
-                compare = item1.getTitle().toUpperCase(Locale.ENGLISH).compareTo(item2.getTitle().toUpperCase(Locale.ENGLISH));
+                compare = item1.getTitleSortKey().compareTo(item2.getTitleSortKey());
                 break;
             case SORT_BY_ARTIST:
                 if (item1.getItemType() == MediaLibraryItem.TYPE_MEDIA) {
                     String artist1 = ((MediaWrapper)item1).getArtist();
                     String artist2 = ((MediaWrapper)item2).getArtist();
                     if (TextUtils.equals(artist1,artist2))
-                        compare = item1.getTitle().toUpperCase(Locale.ENGLISH).compareTo(item2.getTitle().toUpperCase(Locale.ENGLISH));
+                        compare = item1.getTitleSortKey().compareTo(item2.getTitleSortKey());
                     else
-                        compare = artist1.toUpperCase(Locale.ENGLISH).compareTo(artist2.toUpperCase(Locale.ENGLISH));
+                        compare = ((MediaWrapper)item1).getArtistSortKey().compareTo(((MediaWrapper)item2).getArtistSortKey());
                 }
                 break;
             case SORT_BY_ALBUM:
                 if (item1.getItemType() == MediaLibraryItem.TYPE_MEDIA) {
                     String album1 = ((MediaWrapper)item1).getAlbum();
                     String album2 = ((MediaWrapper)item2).getAlbum();
-                    if (album1.equals(album2))
+                    if (TextUtils.equals(album1, album2))
                         return ((MediaWrapper) item1).getTrackNumber() - ((MediaWrapper) item2).getTrackNumber();
                     else
-                        compare = album1.toUpperCase(Locale.ENGLISH).compareTo(album2.toUpperCase(Locale.ENGLISH));
+                        compare = ((MediaWrapper)item1).getAlbumSortKey().compareTo(((MediaWrapper)item2).getAlbumSortKey());
                 }
                 break;
             case SORT_BY_LENGTH:
@@ -109,9 +110,7 @@ public class MediaLibraryItemComparator implements Comparator<MediaLibraryItem>
                     compare = ((Album)item1).getReleaseYear() - ((Album)item2).getReleaseYear();
                 } else if (item1.getItemType() == MediaLibraryItem.TYPE_MEDIA) {
                     if (adapterType == ADAPTER_AUDIO) {
-                        int date1 = (((MediaWrapper) item1).getDate() == null) ? 0 : Integer.valueOf(((MediaWrapper) item1).getDate());
-                        int date2 = (((MediaWrapper) item2).getDate() == null) ? 0 : Integer.valueOf(((MediaWrapper) item2).getDate());
-                        compare = date1 - date2;
+                        compare = parseDate((MediaWrapper) item1) - parseDate((MediaWrapper) item2);
                     } else if (adapterType == ADAPTER_FILE || adapterType == ADAPTER_VIDEO)
                         compare = ((Long) ((MediaWrapper)item1).getLastModified()).compareTo(((MediaWrapper)item2).getLastModified());
                 }
@@ -126,6 +125,136 @@ public class MediaLibraryItemComparator implements Comparator<MediaLibraryItem>
         return sortDirection * compare;
     }
 
+    private static int parseDate(MediaWrapper media) {
+        final String date = media.getDate();
+        if (date == null)
+            return 0;
+        try {
+            return Integer.parseInt(date);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Item with its sort keys, extracted once per sort
+     */
+    private static final class SortEntry {
+        MediaLibraryItem item;
+        // Nulls first, then directories
+        int rank;
+        String key;
+        String value;
+        String secondaryKey;
+        long number;
+        int trackNumber;
+        boolean hasKey;
+    }
+
+    /**
+     * Sort list the same way {@link #compare(MediaLibraryItem, MediaLibraryItem)} does, with the
+     * keys extracted once per item instead of once per comparison. String keys are cached by the
+     * items, so sorting them again in the other direction does not compute them again.
+     */
+    public <T extends MediaLibraryItem> void sort(List<T> list) {
+        final int size = list.size();
+        if (size < 2)
+            return;
+        final int sortBy = this.sortBy;
+        final int direction = sortDirection;
+        final SortEntry[] entries = new SortEntry[size];
+        for (int i = 0; i < size; ++i)
+            entries[i] = createEntry(list.get(i), sortBy);
+        Arrays.sort(entries, new Comparator<SortEntry>() {
+            @Override
+            public int compare(SortEntry entry1, SortEntry entry2) {
+                if (entry1.rank != entry2.rank)
+                    return entry1.rank - entry2.rank;
+                if (entry1.item == null || !entry1.hasKey || !entry2.hasKey)
+                    return 0;
+                int compare = 0;
+                switch (sortBy) {
+                    case SORT_BY_TITLE:
+                        compare = entry1.key.compareTo(entry2.key);
+                        break;
+                    case SORT_BY_ARTIST:
+                        compare = TextUtils.equals(entry1.value, entry2.value)
+                                ? entry1.secondaryKey.compareTo(entry2.secondaryKey)
+                                : entry1.key.compareTo(entry2.key);
+                        break;
+                    case SORT_BY_ALBUM:
+                        if (TextUtils.equals(entry1.value, entry2.value))
+                            return entry1.trackNumber - entry2.trackNumber;
+                        compare = entry1.key.compareTo(entry2.key);
+                        break;
+                    case SORT_BY_LENGTH:
+                    case SORT_BY_DATE:
+                    case SORT_BY_NUMBER:
+                        compare = entry1.number < entry2.number ? -1 : (entry1.number == entry2.number ? 0 : 1);
+                        break;
+                }
+                return direction * compare;
+            }
+        });
+        for (int i = 0; i < size; ++i) {
+            @SuppressWarnings("unchecked")
+            final T item = (T) entries[i].item;
+            list.set(i, item);
+        }
+    }
+
+    private SortEntry createEntry(MediaLibraryItem item, int sortBy) {
+        final SortEntry entry = new SortEntry();
+        entry.item = item;
+        if (item == null)
+            return entry;
+        final int itemType = item.getItemType();
+        final MediaWrapper media = itemType == MediaLibraryItem.TYPE_MEDIA ? (MediaWrapper) item : null;
+        entry.rank = media != null && media.getType() == MediaWrapper.TYPE_DIR ? 1 : 2;
+        entry.hasKey = true;
+        switch (sortBy) {
+            case SORT_BY_TITLE:
+                entry.key = item.getTitleSortKey();
+                break;
+            case SORT_BY_ARTIST:
+                if (media != null) {
+                    entry.value = media.getArtist();
+                    entry.key = media.getArtistSortKey();
+                    entry.secondaryKey = media.getTitleSortKey();
+                } else entry.hasKey = false;
+                break;
+            case SORT_BY_ALBUM:
+                if (media != null) {
+                    entry.value = media.getAlbum();
+                    entry.key = media.getAlbumSortKey();
+                    entry.trackNumber = media.getTrackNumber();
+                } else entry.hasKey = false;
+                break;
+            case SORT_BY_LENGTH:
+                if (itemType == MediaLibraryItem.TYPE_ALBUM)
+                    entry.number = ((Album) item).getDuration();
+                else if (media != null)
+                    entry.number = media.getLength();
+                else entry.hasKey = false;
+                break;
+            case SORT_BY_DATE:
+                if (itemType == MediaLibraryItem.TYPE_ALBUM)
+                    entry.number = ((Album) item).getReleaseYear();
+                else if (media != null)
+                    entry.number = adapterType == ADAPTER_AUDIO ? parseDate(media) : media.getLastModified();
+                else entry.hasKey = false;
+                break;
+            case SORT_BY_NUMBER:
+                if (itemType == MediaLibraryItem.TYPE_ALBUM)
+                    entry.number = ((Album) item).getTracksCount();
+                else entry.hasKey = false;
+                break;
+            default:
+                entry.hasKey = false;
+        }
+        return entry;
+    }
+
     public static String getYear(MediaLibraryItem media) {
         switch (media.getItemType()) {
             case MediaLibraryItem.TYPE_ALBUM:
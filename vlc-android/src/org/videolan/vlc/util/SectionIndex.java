@@ -0,0 +1,106 @@
+/*****************************************************************************
+ * SectionIndex.java
+ *****************************************************************************
+ * Copyright © 2018 VLC authors and VideoLAN
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston MA 02110-1301, USA.
+ *****************************************************************************/
+
+package org.videolan.vlc.util;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Start positions and labels of the sections of a list, to find the section of a position
+ * and the position of a section with a binary search. Immutable once built.
+ */
+public class SectionIndex {
+
+    private final List<?> mList;
+    private final int[] mStarts;
+    private final String[] mLabels;
+    private final int mCount;
+
+    public static class Builder {
+        private int[] mStarts = new int[16];
+        private String[] mLabels = new String[16];
+        private int mCount = 0;
+
+        /**
+         * Sections are to be added in increasing position order
+         */
+        public void add(int position, String label) {
+            if (mCount > 0 && position <= mStarts[mCount - 1])
+                throw new IllegalArgumentException("Section at " + position + " is not after the previous one");
+            if (mCount == mStarts.length) {
+                mStarts = Arrays.copyOf(mStarts, mCount * 2);
+                mLabels = Arrays.copyOf(mLabels, mCount * 2);
+            }
+            mStarts[mCount] = position;
+            mLabels[mCount] = label;
+            ++mCount;
+        }
+
+        /**
+         * @param list the list the sections are in
+         */
+        public SectionIndex build(List<?> list) {
+            return new SectionIndex(list, mStarts, mLabels, mCount);
+        }
+    }
+
+    private SectionIndex(List<?> list, int[] starts, String[] labels, int count) {
+        mList = list;
+        mStarts = starts;
+        mLabels = labels;
+        mCount = count;
+    }
+
+    /**
+     * @return whether this index has been built for list
+     */
+    public boolean isFor(List<?> list) {
+        return list == mList;
+    }
+
+    public int getSectionCount() {
+        return mCount;
+    }
+
+    /**
+     * @return the section position belongs to, -1 if it is before the first section
+     */
+    public int getSectionForPosition(int position) {
+        final int index = Arrays.binarySearch(mStarts, 0, mCount, position);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    public int getPositionForSection(int section) {
+        return mStarts[section];
+    }
+
+    public String getLabel(int section) {
+        return mLabels[section];
+    }
+
+    /**
+     * @return the label of the section position belongs to, "" if none
+     */
+    public String getLabelForPosition(int position) {
+        final int section = getSectionForPosition(position);
+        return section >= 0 ? mLabels[section] : "";
+    }
+}
@@ -14,6 +14,7 @@ import org.videolan.vlc.R;
 import org.videolan.vlc.VLCApplication;
 import org.videolan.vlc.gui.helpers.AudioUtil;
 import org.videolan.vlc.gui.helpers.BitmapCache;
+import org.videolan.vlc.gui.helpers.BitmapPool;
 import org.videolan.vlc.gui.helpers.BitmapUtil;
 import org.videolan.vlc.media.MediaGroup;
 
@@ -116,31 +117,26 @@ public class ThumbnailsProvider {
                 overlayHeight = minHeight;
                 break;
         }
-        Bitmap bmOverlay = Bitmap.createBitmap(overlayWidth, overlayHeight, sourcesImages[0].getConfig());
+        final Bitmap.Config config = sourcesImages[0].getConfig() != null ? sourcesImages[0].getConfig() : Bitmap.Config.ARGB_8888;
+        final Bitmap bmOverlay = BitmapPool.getInstance().getOrCreate(overlayWidth, overlayHeight, config);
 
-        Canvas canvas = new Canvas(bmOverlay);
+        // Draw cropped regions of the sources, no intermediate bitmaps
+        final Canvas canvas = new Canvas(bmOverlay);
         switch (count) {
             case 2:
-                for (int i = 0; i < count; ++i)
-                    sourcesImages[i] = BitmapUtil.centerCrop(sourcesImages[i], minWidth/2, minHeight);
-                canvas.drawBitmap(sourcesImages[0], 0, 0, null);
-                canvas.drawBitmap(sourcesImages[1], minWidth / 2, 0, null);
+                BitmapUtil.drawCenterCrop(canvas, sourcesImages[0], 0, 0, minWidth/2, minHeight);
+                BitmapUtil.drawCenterCrop(canvas, sourcesImages[1], minWidth/2, 0, minWidth/2, minHeight);
                 break;
             case 3:
-                sourcesImages[0] = BitmapUtil.centerCrop(sourcesImages[0], minWidth/2, minHeight/2);
-                sourcesImages[1] = BitmapUtil.centerCrop(sourcesImages[1], minWidth/2, minHeight/2);
-                sourcesImages[2] = BitmapUtil.centerCrop(sourcesImages[2], minWidth, minHeight/2);
-                canvas.drawBitmap(sourcesImages[0], 0, 0, null);
-                canvas.drawBitmap(sourcesImages[1], minWidth / 2, 0, null);
-                canvas.drawBitmap(sourcesImages[2], 0, minHeight/2, null);
+                BitmapUtil.drawCenterCrop(canvas, sourcesImages[0], 0, 0, minWidth/2, minHeight/2);
+                BitmapUtil.drawCenterCrop(canvas, sourcesImages[1], minWidth/2, 0, minWidth/2, minHeight/2);
+                BitmapUtil.drawCenterCrop(canvas, sourcesImages[2], 0, minHeight/2, minWidth, minHeight/2);
                 break;
             case 4:
-                for (int i = 0; i < count; ++i)
-                    sourcesImages[i] = BitmapUtil.centerCrop(sourcesImages[i], minWidth, minHeight);
-                canvas.drawBitmap(sourcesImages[0], 0, 0, null);
-                canvas.drawBitmap(sourcesImages[1], minWidth , 0, null);
-                canvas.drawBitmap(sourcesImages[2], 0, minHeight, null);
-                canvas.drawBitmap(sourcesImages[3], minWidth , minHeight, null);
+                BitmapUtil.drawCenterCrop(canvas, sourcesImages[0], 0, 0, minWidth, minHeight);
+                BitmapUtil.drawCenterCrop(canvas, sourcesImages[1], minWidth, 0, minWidth, minHeight);
+                BitmapUtil.drawCenterCrop(canvas, sourcesImages[2], 0, minHeight, minWidth, minHeight);
+                BitmapUtil.drawCenterCrop(canvas, sourcesImages[3], minWidth, minHeight, minWidth, minHeight);
                 break;
         }
         return bmOverlay;
@@ -0,0 +1,211 @@
+/*****************************************************************************
+ * TitleIndex.java
+ *****************************************************************************
+ * Copyright © 2018 VLC authors and VideoLAN
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston MA 02110-1301, USA.
+ *****************************************************************************/
+
+package org.videolan.vlc.util;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Substring search over item titles.
+ *
+ * Titles are lower cased once, and each pair of consecutive characters points to the items
+ * whose title contains it. A query word is then only looked for in the items of its rarest
+ * pair. When the new query words contain the previous ones, as when typing, the search is
+ * narrowed to the previous results.
+ *
+ * Results keep the order in which items have been added. Not thread safe.
+ */
+public class TitleIndex<T> {
+
+    public static final int MIN_QUERY_LENGTH = 2;
+
+    private final ArrayList<T> mItems = new ArrayList<>();
+    private final ArrayList<String> mTitles = new ArrayList<>();
+    private final IdentityHashMap<T, Integer> mIds = new IdentityHashMap<>();
+    private final HashMap<Integer, Postings> mPostings = new HashMap<>();
+    private final BitSet mRemoved = new BitSet();
+    private int mRemovedCount;
+
+    // Previous search, to narrow the next one
+    private String[] mLastQuery;
+    private int[] mLastResult;
+
+    private static final class Postings {
+        int[] ids = new int[4];
+        int size;
+
+        void add(int id) {
+            // Ids are added in increasing order, once per title
+            if (size > 0 && ids[size - 1] == id)
+                return;
+            if (size == ids.length) {
+                final int[] grown = new int[size * 2];
+                System.arraycopy(ids, 0, grown, 0, size);
+                ids = grown;
+            }
+            ids[size++] = id;
+        }
+    }
+
+    public TitleIndex() {}
+
+    public TitleIndex(List<? extends T> items, List<String> titles) {
+        for (int i = 0; i < items.size(); ++i)
+            add(items.get(i), titles.get(i));
+    }
+
+    public int size() {
+        return mItems.size() - mRemovedCount;
+    }
+
+    public void add(T item, String title) {
+        if (mIds.containsKey(item))
+            remove(item);
+        final int id = mItems.size();
+        final String key = title != null ? title.toLowerCase() : null;
+        mItems.add(item);
+        mTitles.add(key);
+        mIds.put(item, id);
+        if (key != null)
+            for (int i = 0; i + 1 < key.length(); ++i)
+                getPostings(pair(key, i), true).add(id);
+        // The new item may match the previous query
+        mLastQuery = null;
+        mLastResult = null;
+    }
+
+    public boolean remove(T item) {
+        final Integer id = mIds.remove(item);
+        if (id == null)
+            return false;
+        mRemoved.set(id);
+        mTitles.set(id, null);
+        if (++mRemovedCount > 64 && mRemovedCount > mItems.size() / 2)
+            compact();
+        return true;
+    }
+
+    /**
+     * @param query lower cased words, shorter ones are ignored
+     * @return items whose title contains at least one of the query words
+     */
+    public List<T> search(String[] query) {
+        final ArrayList<String> words = new ArrayList<>(query.length);
+        for (String word : query)
+            if (word.length() >= MIN_QUERY_LENGTH) words.add(word);
+        final String[] current = words.toArray(new String[words.size()]);
+        final int[] previous = narrows(current) ? mLastResult : null;
+
+        final BitSet matches = new BitSet(mItems.size());
+        for (String word : current) {
+            int[] candidates = previous;
+            int count = previous != null ? previous.length : Integer.MAX_VALUE;
+            for (int i = 0; i + 1 < word.length(); ++i) {
+                final Postings postings = getPostings(pair(word, i), false);
+                if (postings == null) {
+                    // No title contains this pair
+                    candidates = null;
+                    count = 0;
+                    break;
+                }
+                if (postings.size < count) {
+                    candidates = postings.ids;
+                    count = postings.size;
+                }
+            }
+            for (int i = 0; i < count; ++i) {
+                final int id = candidates[i];
+                if (matches.get(id))
+                    continue;
+                final String title = mTitles.get(id);
+                if (title != null && title.contains(word))
+                    matches.set(id);
+            }
+        }
+
+        final int[] result = new int[matches.cardinality()];
+        final List<T> items = new ArrayList<>(result.length);
+        int index = 0;
+        for (int id = matches.nextSetBit(0); id >= 0; id = matches.nextSetBit(id + 1)) {
+            result[index++] = id;
+            items.add(mItems.get(id));
+        }
+        mLastQuery = current;
+        mLastResult = result;
+        return items;
+    }
+
+    /**
+     * @return true if all results of query are in the previous ones, which is the case
+     * when every word of query contains one of the previous query words
+     */
+    private boolean narrows(String[] query) {
+        if (mLastQuery == null || mLastQuery.length == 0 || query.length == 0)
+            return false;
+        for (String word : query) {
+            boolean found = false;
+            for (String previous : mLastQuery) {
+                if (word.contains(previous)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found)
+                return false;
+        }
+        return true;
+    }
+
+    private void compact() {
+        final ArrayList<T> items = new ArrayList<>(mItems.size() - mRemovedCount);
+        final ArrayList<String> titles = new ArrayList<>(items.size());
+        for (int id = 0; id < mItems.size(); ++id) {
+            if (mRemoved.get(id))
+                continue;
+            items.add(mItems.get(id));
+            titles.add(mTitles.get(id));
+        }
+        mItems.clear();
+        mTitles.clear();
+        mIds.clear();
+        mPostings.clear();
+        mRemoved.clear();
+        mRemovedCount = 0;
+        for (int i = 0; i < items.size(); ++i)
+            add(items.get(i), titles.get(i));
+    }
+
+    private Postings getPostings(int pair, boolean create) {
+        Postings postings = mPostings.get(pair);
+        if (postings == null && create) {
+            postings = new Postings();
+            mPostings.put(pair, postings);
+        }
+        return postings;
+    }
+
+    private static int pair(String s, int index) {
+        return s.charAt(index) << 16 | s.charAt(index + 1);
+    }
+}
@@ -24,6 +24,7 @@ import android.content.Context;
 import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.content.pm.ResolveInfo;
+import android.net.Uri;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.text.TextUtils;
@@ -33,6 +34,7 @@ import org.videolan.libvlc.Dialog;
 import org.videolan.libvlc.util.AndroidUtil;
 import org.videolan.medialibrary.Tools;
 import org.videolan.medialibrary.media.MediaLibraryItem;
+import org.videolan.medialibrary.media.MediaWrapper;
 import org.videolan.vlc.R;
 import org.videolan.vlc.VLCApplication;
 
@@ -44,7 +46,9 @@ import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class Util {
     public final static String TAG = "VLC/Util";
@@ -165,6 +169,64 @@ public class Util {
         dataset.addAll(newItems);
     }
 
+    /**
+     * Replace the items of dataset equal to items, like {@link #insertOrUdpate(List, Object[])}
+     * does, but look them up in an index of dataset ids and uris instead of scanning dataset
+     * for each item.
+     * @return the items not found in dataset, in the items order
+     */
+    public static <T extends MediaLibraryItem> List<T> updateItems(List<T> dataset, T[] items) {
+        final int size = dataset.size();
+        // First position of each id, and of each non zero id and uri of media
+        final Map<Long, Integer> ids = new HashMap<>(size * 2);
+        final Map<Long, Integer> mediaIds = new HashMap<>(size * 2);
+        final Map<Uri, Integer> uris = new HashMap<>(size * 2);
+        for (int i = size - 1; i >= 0; --i) {
+            final T item = dataset.get(i);
+            if (item == null)
+                continue;
+            ids.put(item.getId(), i);
+            if (item.getItemType() == MediaLibraryItem.TYPE_MEDIA) {
+                if (item.getId() != 0L)
+                    mediaIds.put(item.getId(), i);
+                final Uri uri = ((MediaWrapper) item).getUri();
+                if (uri != null)
+                    uris.put(uri, i);
+            }
+        }
+        final List<T> newItems = new ArrayList<>();
+        for (T newItem : items) {
+            int index = -1;
+            final int type = newItem.getItemType();
+            if (type == MediaLibraryItem.TYPE_DUMMY || type == MediaLibraryItem.TYPE_STORAGE) {
+                // Their own equality, not indexed
+                for (int i = 0; i < size; ++i) {
+                    if (newItem.equals(dataset.get(i))) {
+                        index = i;
+                        break;
+                    }
+                }
+            } else if (type == MediaLibraryItem.TYPE_MEDIA) {
+                final Integer byId = newItem.getId() != 0L ? mediaIds.get(newItem.getId()) : null;
+                final Uri uri = ((MediaWrapper) newItem).getUri();
+                final Integer byUri = uri != null ? uris.get(uri) : null;
+                if (byId != null)
+                    index = byId;
+                if (byUri != null && (index == -1 || byUri < index))
+                    index = byUri;
+            } else {
+                final Integer byId = ids.get(newItem.getId());
+                if (byId != null)
+                    index = byId;
+            }
+            if (index != -1)
+                dataset.set(index, newItem);
+            else
+                newItems.add(newItem);
+        }
+        return newItems;
+    }
+
     @NonNull
     public static String getMediaDescription(String artist, String album) {
         boolean hasArtist = !TextUtils.isEmpty(artist);
@@ -0,0 +1,186 @@
+package org.videolan.vlc.gui.helpers;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ImageLoadQueueTest {
+
+    private final ImageLoadQueue<String> mQueue = new ImageLoadQueue<>(1, Executors.defaultThreadFactory());
+
+    /**
+     * Occupy the single loading thread until the returned latch is released
+     */
+    private CountDownLatch block() throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        mQueue.enqueue("block", new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                started.countDown();
+                release.await();
+                return "block";
+            }
+        }, new ImageLoadQueue.Listener<String>() {
+            @Override
+            public void onLoaded(String result) {}
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        return release;
+    }
+
+    private static Callable<String> loader(final String value, final List<String> calls) {
+        return new Callable<String>() {
+            @Override
+            public String call() {
+                calls.add(value);
+                return value;
+            }
+        };
+    }
+
+    private static ImageLoadQueue.Listener<String> listener(final List<String> results, final CountDownLatch done) {
+        return new ImageLoadQueue.Listener<String>() {
+            @Override
+            public void onLoaded(String result) {
+                results.add(result);
+                done.countDown();
+            }
+        };
+    }
+
+    @Test
+    public void testSameKeyIsLoadedOnce() throws Exception {
+        final CountDownLatch release = block();
+        final List<String> calls = Collections.synchronizedList(new ArrayList<String>());
+        final List<String> results = Collections.synchronizedList(new ArrayList<String>());
+        final CountDownLatch done = new CountDownLatch(3);
+        for (int i = 0; i < 3; ++i)
+            mQueue.enqueue("cover", loader("cover", calls), listener(results, done));
+        assertEquals(1, mQueue.getPendingCount());
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(1, calls.size());
+        assertEquals(3, results.size());
+    }
+
+    @Test
+    public void testLatestRequestLoadsFirst() throws Exception {
+        final CountDownLatch release = block();
+        final List<String> calls = Collections.synchronizedList(new ArrayList<String>());
+        final CountDownLatch done = new CountDownLatch(4);
+        final List<String> results = Collections.synchronizedList(new ArrayList<String>());
+        mQueue.enqueue("a", loader("a", calls), listener(results, done));
+        mQueue.enqueue("b", loader("b", calls), listener(results, done));
+        mQueue.enqueue("c", loader("c", calls), listener(results, done));
+        // Rebinding a view to "a" moves it back to the head
+        mQueue.enqueue("a", loader("a", calls), listener(results, done));
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(3, calls.size());
+        assertEquals("a", calls.get(0));
+        assertEquals("c", calls.get(1));
+        assertEquals("b", calls.get(2));
+    }
+
+    @Test
+    public void testCancelledRequestIsNotLoaded() throws Exception {
+        final CountDownLatch release = block();
+        final List<String> calls = Collections.synchronizedList(new ArrayList<String>());
+        final List<String> results = Collections.synchronizedList(new ArrayList<String>());
+        final CountDownLatch done = new CountDownLatch(1);
+        final ImageLoadQueue<String>.Request cancelled = mQueue.enqueue("a", loader("a", calls), listener(results, done));
+        mQueue.enqueue("b", loader("b", calls), listener(results, done));
+        assertTrue(mQueue.cancel(cancelled));
+        assertFalse(mQueue.cancel(cancelled));
+        assertEquals(1, mQueue.getPendingCount());
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(Collections.singletonList("b"), calls);
+        assertEquals(Collections.singletonList("b"), results);
+    }
+
+    @Test
+    public void testCancelKeepsSharedLoad() throws Exception {
+        final CountDownLatch release = block();
+        final List<String> calls = Collections.synchronizedList(new ArrayList<String>());
+        final List<String> results = Collections.synchronizedList(new ArrayList<String>());
+        final CountDownLatch done = new CountDownLatch(1);
+        final ImageLoadQueue<String>.Request first = mQueue.enqueue("a", loader("a", calls), listener(results, done));
+        mQueue.enqueue("a", loader("a", calls), listener(results, done));
+        assertTrue(mQueue.cancel(first));
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(1, calls.size());
+        assertEquals(1, results.size());
+    }
+
+    @Test
+    public void testConcurrencyIsBounded() throws Exception {
+        final int threads = 2;
+        final ImageLoadQueue<String> queue = new ImageLoadQueue<>(threads, Executors.defaultThreadFactory());
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(20);
+        for (int i = 0; i < 20; ++i) {
+            queue.enqueue("key" + i, new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    final int current = running.incrementAndGet();
+                    int max;
+                    while ((max = maxRunning.get()) < current && !maxRunning.compareAndSet(max, current));
+                    Thread.sleep(5);
+                    running.decrementAndGet();
+                    return null;
+                }
+            }, new ImageLoadQueue.Listener<String>() {
+                @Override
+                public void onLoaded(String result) {
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertTrue(maxRunning.get() <= threads);
+    }
+
+    @Test
+    public void testRequestIsKnownBeforeDelivery() throws Exception {
+        final AtomicReference<ImageLoadQueue<String>.Request> holder = new AtomicReference<>();
+        final AtomicReference<ImageLoadQueue<String>.Request> delivered = new AtomicReference<>();
+        final CountDownLatch done = new CountDownLatch(1);
+        final ImageLoadQueue<String>.Request request = mQueue.newRequest(new ImageLoadQueue.Listener<String>() {
+            @Override
+            public void onLoaded(String result) {
+                delivered.set(holder.get());
+                done.countDown();
+            }
+        });
+        holder.set(request);
+        assertSame(request, mQueue.enqueue("a", loader("a", new ArrayList<String>()), request));
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertSame(request, delivered.get());
+        assertFalse(mQueue.cancel(request));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRequestIsEnqueuedOnce() throws Exception {
+        block();
+        final ImageLoadQueue<String>.Request request = mQueue.newRequest(listener(new ArrayList<String>(), new CountDownLatch(1)));
+        mQueue.enqueue("a", loader("a", new ArrayList<String>()), request);
+        mQueue.enqueue("b", loader("b", new ArrayList<String>()), request);
+    }
+}
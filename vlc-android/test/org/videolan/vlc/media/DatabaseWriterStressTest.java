@@ -0,0 +1,193 @@
+package org.videolan.vlc.media;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Concurrent readers and writers on a WAL SQLite database, writes going through
+ * {@link DatabaseWriter} the way MediaDatabase does it.
+ */
+public class DatabaseWriterStressTest {
+
+    private static final int READERS = 4;
+    private static final int READS_PER_READER = 2000;
+    private static final int WRITES = 300;
+    private static final byte[] PICTURE = new byte[64 * 1024];
+
+    private File mDbFile;
+    private Connection mWriteConnection;
+    private DatabaseWriter mWriter;
+
+    @Before
+    public void setUp() throws IOException, SQLException {
+        mDbFile = File.createTempFile("vlc_database", ".db");
+        mWriteConnection = open();
+        try (Statement st = mWriteConnection.createStatement()) {
+            st.execute("PRAGMA journal_mode=WAL");
+            st.execute("CREATE TABLE history_table (_id TEXT PRIMARY KEY NOT NULL, title TEXT NOT NULL)");
+            st.execute("CREATE TABLE media_table (_id TEXT PRIMARY KEY NOT NULL, picture BLOB)");
+            for (int i = 0; i < 100; ++i)
+                st.execute("INSERT INTO history_table VALUES ('file:///" + i + "', 'title " + i + "')");
+        }
+        new Random(42).nextBytes(PICTURE);
+        mWriter = new DatabaseWriter("vlc-db-writer");
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        mWriteConnection.close();
+        new File(mDbFile.getPath() + "-wal").delete();
+        new File(mDbFile.getPath() + "-shm").delete();
+        mDbFile.delete();
+    }
+
+    private Connection open() throws SQLException {
+        return DriverManager.getConnection("jdbc:sqlite:" + mDbFile.getPath());
+    }
+
+    private void writePicture(int i) {
+        try (PreparedStatement st = mWriteConnection.prepareStatement("INSERT OR REPLACE INTO media_table VALUES (?, ?)")) {
+            st.setString(1, "file:///" + i);
+            st.setBytes(2, PICTURE);
+            st.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void readHistory(Connection connection, int i) throws SQLException {
+        try (PreparedStatement st = connection.prepareStatement("SELECT title FROM history_table WHERE _id = ?")) {
+            st.setString(1, "file:///" + (i % 100));
+            try (ResultSet rs = st.executeQuery()) {
+                assertTrue(rs.next());
+            }
+        }
+    }
+
+    private static long percentile(long[] values, double p) {
+        final long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[(int) Math.ceil(p * sorted.length) - 1];
+    }
+
+    @Test
+    public void testReadsDoNotWaitForWriteTransaction() throws Exception {
+        final CountDownLatch inTransaction = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        mWriter.post(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    mWriteConnection.setAutoCommit(false);
+                    writePicture(0);
+                    inTransaction.countDown();
+                    release.await();
+                    mWriteConnection.commit();
+                    mWriteConnection.setAutoCommit(true);
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+        assertTrue(inTransaction.await(5, TimeUnit.SECONDS));
+        try (Connection reader = open()) {
+            final long start = System.nanoTime();
+            readHistory(reader, 1);
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        } finally {
+            release.countDown();
+        }
+        assertEquals(Integer.valueOf(1), mWriter.call(new Callable<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+                try (Statement st = mWriteConnection.createStatement();
+                     ResultSet rs = st.executeQuery("SELECT count(*) FROM media_table")) {
+                    rs.next();
+                    return rs.getInt(1);
+                }
+            }
+        }));
+    }
+
+    @Test
+    public void testConcurrentReadersAndWriters() throws Exception {
+        final ExecutorService readers = Executors.newFixedThreadPool(READERS);
+        final ExecutorService writers = Executors.newFixedThreadPool(2);
+        final CountDownLatch start = new CountDownLatch(1);
+        final Future<?>[] readFutures = new Future<?>[READERS];
+        final long[] latencies = new long[READERS * READS_PER_READER];
+        for (int r = 0; r < READERS; ++r) {
+            final int reader = r;
+            readFutures[r] = readers.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    start.await();
+                    try (Connection connection = open()) {
+                        for (int i = 0; i < READS_PER_READER; ++i) {
+                            final long begin = System.nanoTime();
+                            readHistory(connection, i);
+                            latencies[reader * READS_PER_READER + i] = System.nanoTime() - begin;
+                        }
+                    }
+                    return null;
+                }
+            });
+        }
+        final Future<?>[] writeFutures = new Future<?>[2];
+        for (int w = 0; w < 2; ++w) {
+            final int offset = w * WRITES;
+            writeFutures[w] = writers.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    start.await();
+                    for (int i = 0; i < WRITES; ++i) {
+                        final int id = offset + i;
+                        mWriter.run(new Runnable() {
+                            @Override
+                            public void run() {
+                                writePicture(id);
+                            }
+                        });
+                    }
+                    return null;
+                }
+            });
+        }
+        start.countDown();
+        for (Future<?> future : readFutures) future.get(60, TimeUnit.SECONDS);
+        for (Future<?> future : writeFutures) future.get(60, TimeUnit.SECONDS);
+        readers.shutdown();
+        writers.shutdown();
+
+        System.out.println(String.format(Locale.US, "%d reads: p50 %d us, p99 %d us, max %d us",
+                latencies.length, percentile(latencies, 0.5) / 1000,
+                percentile(latencies, 0.99) / 1000, percentile(latencies, 1) / 1000));
+        try (Statement st = mWriteConnection.createStatement();
+             ResultSet rs = st.executeQuery("SELECT count(*) FROM media_table")) {
+            rs.next();
+            assertEquals(2 * WRITES, rs.getInt(1));
+        }
+    }
+}
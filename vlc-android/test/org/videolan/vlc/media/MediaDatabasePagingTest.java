@@ -0,0 +1,152 @@
+package org.videolan.vlc.media;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the media table paging queries on a plain JVM SQLite to compare keyset
+ * paging with the former LIMIT/OFFSET one.
+ */
+public class MediaDatabasePagingTest {
+
+    private static final int CHUNK_SIZE = 50;
+    private static final String OFFSET_PAGE_QUERY = "SELECT * FROM media_table LIMIT ? OFFSET ?";
+
+    private Connection mConnection;
+
+    @Before
+    public void setUp() throws SQLException {
+        mConnection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement st = mConnection.createStatement()) {
+            st.execute("CREATE TABLE media_table (_id TEXT PRIMARY KEY NOT NULL, time INTEGER, "
+                    + "length INTEGER, type INTEGER, picture BLOB, title TEXT, artist TEXT, "
+                    + "genre TEXT, album TEXT, albumartist TEXT, width INTEGER, height INTEGER, "
+                    + "artwork_url TEXT, audio_track INTEGER, spu_track INTEGER, "
+                    + "track_number INTEGER, disc_number INTEGER, last_modified INTEGER)");
+        }
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        mConnection.close();
+    }
+
+    private void fill(int from, int to) throws SQLException {
+        mConnection.setAutoCommit(false);
+        try (PreparedStatement st = mConnection.prepareStatement(
+                "INSERT INTO media_table (_id, time, length, type, title) VALUES (?, ?, ?, ?, ?)")) {
+            for (int i = from; i < to; ++i) {
+                st.setString(1, String.format(Locale.US, "file:///sdcard/Music/%08d.mp3", i));
+                st.setLong(2, i);
+                st.setLong(3, 1000L * i);
+                st.setInt(4, i % 2);
+                st.setString(5, "title " + i);
+                st.addBatch();
+            }
+            st.executeBatch();
+        }
+        mConnection.commit();
+        mConnection.setAutoCommit(true);
+    }
+
+    private int loadWithKeyset() throws SQLException {
+        int total = 0, count;
+        String lastKey = "";
+        try (PreparedStatement st = mConnection.prepareStatement(MediaDatabase.MEDIA_PAGE_QUERY)) {
+            do {
+                count = 0;
+                st.setString(1, lastKey);
+                try (ResultSet rs = st.executeQuery()) {
+                    while (rs.next()) {
+                        final String key = rs.getString(1);
+                        assertTrue(key.compareTo(lastKey) > 0);
+                        lastKey = key;
+                        ++count;
+                    }
+                }
+                total += count;
+            } while (count == CHUNK_SIZE);
+        }
+        return total;
+    }
+
+    private int loadWithOffset() throws SQLException {
+        int total = 0, count;
+        try (PreparedStatement st = mConnection.prepareStatement(OFFSET_PAGE_QUERY)) {
+            do {
+                count = 0;
+                st.setInt(1, CHUNK_SIZE);
+                st.setInt(2, total);
+                try (ResultSet rs = st.executeQuery()) {
+                    while (rs.next())
+                        ++count;
+                }
+                total += count;
+            } while (count == CHUNK_SIZE);
+        }
+        return total;
+    }
+
+    @Test
+    public void testKeysetLoadsEveryRowOnce() throws SQLException {
+        fill(0, 1234);
+        assertEquals(1234, loadWithKeyset());
+    }
+
+    @Test
+    public void testVideoTimesPaging() throws SQLException {
+        fill(0, 321);
+        int total = 0, count;
+        String lastKey = "";
+        try (PreparedStatement st = mConnection.prepareStatement(MediaDatabase.VIDEO_TIMES_PAGE_QUERY)) {
+            do {
+                count = 0;
+                st.setString(1, "1");
+                st.setString(2, lastKey);
+                try (ResultSet rs = st.executeQuery()) {
+                    while (rs.next()) {
+                        lastKey = rs.getString(1);
+                        assertEquals(1, rs.getLong(2) % 2);
+                        ++count;
+                    }
+                }
+                total += count;
+            } while (count == CHUNK_SIZE);
+        }
+        assertEquals(160, total);
+    }
+
+    @Test
+    public void benchLoadTime() throws SQLException {
+        final int[] sizes = { 5000, 10000, 20000, 40000 };
+        final long[] keysetTimes = new long[sizes.length];
+        int filled = 0;
+        loadWithKeyset(); // warm up
+        for (int i = 0; i < sizes.length; ++i) {
+            fill(filled, sizes[i]);
+            filled = sizes[i];
+            long start = System.nanoTime();
+            assertEquals(sizes[i], loadWithKeyset());
+            keysetTimes[i] = System.nanoTime() - start;
+            start = System.nanoTime();
+            assertEquals(sizes[i], loadWithOffset());
+            final long offsetTime = System.nanoTime() - start;
+            System.out.println(String.format(Locale.US, "%6d rows: keyset %5d ms, offset %5d ms",
+                    sizes[i], keysetTimes[i] / 1000000, offsetTime / 1000000));
+        }
+        // 8 times more rows must not cost quadratically more
+        assertTrue(keysetTimes[sizes.length - 1] < 24 * Math.max(keysetTimes[0], 1000000));
+    }
+}
@@ -0,0 +1,97 @@
+package org.videolan.vlc.media;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks the playlist reordering statements on a plain JVM SQLite.
+ */
+public class MediaDatabasePlaylistTest {
+
+    private static final String PLAYLIST = "playlist";
+
+    private Connection mConnection;
+
+    @Before
+    public void setUp() throws SQLException {
+        mConnection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement st = mConnection.createStatement()) {
+            st.execute("CREATE TABLE playlist_media_table (id INTEGER PRIMARY KEY AUTOINCREMENT, "
+                    + "playlist_name VARCHAR(200) NOT NULL, media_location TEXT NOT NULL, "
+                    + "playlist_order INTEGER NOT NULL)");
+        }
+        insert(0, "a", "b", "c", "d", "e");
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        mConnection.close();
+    }
+
+    private void execute(String sql, Object... args) throws SQLException {
+        try (PreparedStatement st = mConnection.prepareStatement(sql)) {
+            for (int i = 0; i < args.length; ++i)
+                st.setObject(i + 1, args[i]);
+            st.executeUpdate();
+        }
+    }
+
+    private void insert(int position, String... mrls) throws SQLException {
+        execute(MediaDatabase.PLAYLIST_SHIFT_QUERY, mrls.length, PLAYLIST, position);
+        for (int i = 0; i < mrls.length; ++i)
+            execute(MediaDatabase.PLAYLIST_INSERT_QUERY, PLAYLIST, mrls[i], position + i);
+    }
+
+    private void move(int from, int to) throws SQLException {
+        execute(MediaDatabase.PLAYLIST_MOVE_QUERY, from, to, from < to ? -1 : 1,
+                PLAYLIST, Math.min(from, to), Math.max(from, to));
+    }
+
+    private List<String> items() throws SQLException {
+        final List<String> items = new ArrayList<>();
+        try (Statement st = mConnection.createStatement();
+             ResultSet rs = st.executeQuery("SELECT media_location, playlist_order FROM playlist_media_table ORDER BY playlist_order")) {
+            while (rs.next()) {
+                assertEquals(items.size(), rs.getInt(2));
+                items.add(rs.getString(1));
+            }
+        }
+        return items;
+    }
+
+    @Test
+    public void testInsert() throws SQLException {
+        insert(0, "x");
+        insert(3, "y", "z");
+        assertEquals(Arrays.asList("x", "a", "b", "y", "z", "c", "d", "e"), items());
+    }
+
+    @Test
+    public void testMove() throws SQLException {
+        move(0, 3);
+        assertEquals(Arrays.asList("b", "c", "d", "a", "e"), items());
+        move(4, 1);
+        assertEquals(Arrays.asList("b", "e", "c", "d", "a"), items());
+    }
+
+    @Test
+    public void testRemoveRange() throws SQLException {
+        execute("DELETE FROM playlist_media_table WHERE playlist_name=? AND playlist_order>=? AND playlist_order<?",
+                PLAYLIST, 1, 3);
+        execute(MediaDatabase.PLAYLIST_SHIFT_QUERY, -2, PLAYLIST, 3);
+        assertEquals(Arrays.asList("a", "d", "e"), items());
+    }
+}
@@ -0,0 +1,145 @@
+package org.videolan.vlc.media;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PlayQueueStoreTest {
+
+    private File mFile;
+
+    @Before
+    public void setUp() throws IOException {
+        mFile = File.createTempFile("queue", "");
+        mFile.delete();
+    }
+
+    @After
+    public void tearDown() {
+        mFile.delete();
+        new File(mFile.getPath() + ".tmp").delete();
+    }
+
+    private static List<PlayQueueStore.Entry> entries(int count) {
+        final List<PlayQueueStore.Entry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i)
+            entries.add(new PlayQueueStore.Entry(i + 1, "file:///sdcard/Music/track%20" + i + ".mp3"));
+        return entries;
+    }
+
+    private static void assertQueue(List<PlayQueueStore.Entry> expected, List<PlayQueueStore.Entry> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); ++i) {
+            assertEquals(expected.get(i).id, actual.get(i).id);
+            assertEquals(expected.get(i).uri, actual.get(i).uri);
+        }
+    }
+
+    @Test
+    public void testEmpty() {
+        assertTrue(new PlayQueueStore(mFile).load().isEmpty());
+    }
+
+    @Test
+    public void testEditsAreReplayed() {
+        final List<PlayQueueStore.Entry> expected = entries(100);
+        final PlayQueueStore store = new PlayQueueStore(mFile);
+        store.replace(expected);
+        final Random random = new Random(42);
+        for (int i = 0; i < 50; ++i) {
+            switch (random.nextInt(3)) {
+                case 0: {
+                    final int index = random.nextInt(expected.size() + 1);
+                    final PlayQueueStore.Entry entry = new PlayQueueStore.Entry(1000 + i, "http://host/stream" + i);
+                    expected.add(index, entry);
+                    store.add(index, entry.id, entry.uri);
+                    break;
+                }
+                case 1: {
+                    final int index = random.nextInt(expected.size());
+                    expected.remove(index);
+                    store.remove(index);
+                    break;
+                }
+                default: {
+                    final int from = random.nextInt(expected.size());
+                    final int to = random.nextInt(expected.size() + 1);
+                    final PlayQueueStore.Entry entry = expected.remove(from);
+                    expected.add(from >= to ? to : to - 1, entry);
+                    store.move(from, to);
+                }
+            }
+        }
+        store.close();
+        assertQueue(expected, new PlayQueueStore(mFile).load());
+    }
+
+    @Test
+    public void testEditAppendsToFile() {
+        final PlayQueueStore store = new PlayQueueStore(mFile);
+        store.replace(entries(1000));
+        final long snapshotSize = mFile.length();
+        store.remove(10);
+        // Opcode and index
+        assertEquals(snapshotSize + 5, mFile.length());
+        store.close();
+    }
+
+    @Test
+    public void testJournalIsCompacted() {
+        final PlayQueueStore store = new PlayQueueStore(mFile);
+        store.replace(entries(10));
+        final long snapshotSize = mFile.length();
+        for (int i = 0; i < 1000; ++i)
+            store.move(0, 10);
+        store.close();
+        assertTrue(mFile.length() < 2 * snapshotSize + 64 * 9);
+        assertEquals(10, new PlayQueueStore(mFile).load().size());
+    }
+
+    @Test
+    public void testTruncatedRecordIsIgnored() throws IOException {
+        final List<PlayQueueStore.Entry> expected = entries(10);
+        final PlayQueueStore store = new PlayQueueStore(mFile);
+        store.replace(expected);
+        store.add(0, 42, "file:///last");
+        store.close();
+        // Crash while writing the last record
+        final RandomAccessFile raf = new RandomAccessFile(mFile, "rw");
+        raf.setLength(raf.length() - 3);
+        raf.close();
+        final PlayQueueStore reopened = new PlayQueueStore(mFile);
+        assertQueue(expected, reopened.load());
+        // And it can be edited again
+        reopened.remove(0);
+        reopened.close();
+        assertQueue(expected.subList(1, 10), new PlayQueueStore(mFile).load());
+    }
+
+    @Test
+    public void benchmarkLoad() {
+        final int count = 10000;
+        final PlayQueueStore store = new PlayQueueStore(mFile);
+        store.replace(entries(count));
+        for (int i = 0; i < 100; ++i)
+            store.move(i, count - i);
+        store.close();
+        final long start = System.nanoTime();
+        final List<PlayQueueStore.Entry> loaded = new PlayQueueStore(mFile).load();
+        final long elapsed = System.nanoTime() - start;
+        assertEquals(count, loaded.size());
+        System.out.println(String.format(Locale.US, "Loaded %d entries (%d bytes) in %.1f ms",
+                count, mFile.length(), elapsed / 1e6));
+    }
+}
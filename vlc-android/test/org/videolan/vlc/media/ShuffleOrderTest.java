@@ -0,0 +1,193 @@
+package org.videolan.vlc.media;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ShuffleOrderTest {
+
+    private final ShuffleOrder mOrder = new ShuffleOrder(new Random(42));
+
+    /**
+     * @return the items played from current until the end of the cycle
+     */
+    private List<Integer> playCycle(int current) {
+        final List<Integer> played = new ArrayList<>();
+        for (int item = current; item != -1; item = mOrder.next(item))
+            played.add(item);
+        return played;
+    }
+
+    private static void assertPermutation(List<Integer> played, int size) {
+        assertEquals(size, played.size());
+        final Set<Integer> items = new HashSet<>(played);
+        assertEquals(size, items.size());
+        for (int i = 0; i < size; ++i)
+            assertTrue(items.contains(i));
+    }
+
+    @Test
+    public void testFullCycleCoverage() {
+        mOrder.reset(10000, 1234);
+        final List<Integer> played = playCycle(1234);
+        assertEquals(Integer.valueOf(1234), played.get(0));
+        assertPermutation(played, 10000);
+        assertEquals(-1, mOrder.previous(1234));
+        for (int i = played.size() - 1; i > 0; --i)
+            assertEquals(played.get(i - 1).intValue(), mOrder.previous(played.get(i)));
+    }
+
+    @Test
+    public void testRepeatAllReshuffles() {
+        final int size = 50;
+        mOrder.reset(size, 0);
+        List<Integer> cycle = playCycle(0);
+        for (int i = 0; i < 5; ++i) {
+            final int last = cycle.get(size - 1);
+            // End of cycle, reshuffle the way PlaylistManager does with REPEAT_ALL
+            assertEquals(-1, mOrder.next(last));
+            mOrder.reset(size, last);
+            final List<Integer> next = playCycle(last);
+            assertPermutation(next, size);
+            assertNotEquals(cycle, next);
+            cycle = next;
+        }
+    }
+
+    @Test
+    public void testSelectKeepsRemainingOrder() {
+        mOrder.reset(20, 0);
+        final List<Integer> cycle = playCycle(0);
+        final int jump = cycle.get(10);
+        mOrder.select(0, jump);
+        assertEquals(jump, mOrder.next(0));
+        assertPermutation(playCycle(0), 20);
+        // Already played items are not moved
+        mOrder.select(jump, 0);
+        assertEquals(0, mOrder.previous(jump));
+    }
+
+    @Test
+    public void testItemAdded() {
+        mOrder.reset(100, 0);
+        final List<Integer> cycle = playCycle(0);
+        final int current = cycle.get(50);
+        final List<Integer> played = new ArrayList<>(cycle.subList(0, 51));
+        // Insert at index 10, items from 10 are shifted
+        mOrder.onItemAdded(10, current >= 10 ? current + 1 : current);
+        assertEquals(101, mOrder.getSize());
+        final int newCurrent = current >= 10 ? current + 1 : current;
+        final List<Integer> remaining = playCycle(newCurrent);
+        // New item is played in this cycle, after the current one
+        assertTrue(remaining.contains(10));
+        final List<Integer> all = new ArrayList<>();
+        for (int item : played)
+            all.add(item >= 10 ? item + 1 : item);
+        all.remove(all.size() - 1);
+        all.addAll(remaining);
+        assertPermutation(all, 101);
+    }
+
+    @Test
+    public void testItemRemoved() {
+        mOrder.reset(100, 0);
+        final List<Integer> cycle = playCycle(0);
+        final int removed = cycle.get(30);
+        final int before = cycle.get(29);
+        final int after = cycle.get(31);
+        mOrder.onItemRemoved(removed);
+        assertEquals(99, mOrder.getSize());
+        final int shiftedBefore = before > removed ? before - 1 : before;
+        final int shiftedAfter = after > removed ? after - 1 : after;
+        assertEquals(shiftedAfter, mOrder.next(shiftedBefore));
+        assertPermutation(playCycle(cycle.get(0) > removed ? cycle.get(0) - 1 : cycle.get(0)), 99);
+    }
+
+    @Test
+    public void testFirstItemRemoved() {
+        mOrder.reset(100, 0);
+        final List<Integer> cycle = playCycle(0);
+        // Removing the playing item, first of its cycle, goes on with its successor
+        final int successor = mOrder.next(0);
+        mOrder.onItemRemoved(0);
+        final int shifted = successor - 1;
+        assertEquals(-1, mOrder.previous(shifted));
+        assertEquals(cycle.get(2) - 1, mOrder.next(shifted));
+        assertPermutation(playCycle(shifted), 99);
+    }
+
+    @Test
+    public void testItemMoved() {
+        final int size = 30;
+        mOrder.reset(size, 0);
+        final List<Integer> cycle = playCycle(0);
+        // Same semantics as MediaWrapperList.move(5, 20): item 5 ends up at index 19
+        final List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < size; ++i) list.add(i);
+        list.add(19, list.remove(5));
+        mOrder.onItemMoved(5, 20);
+        final List<Integer> moved = playCycle(list.indexOf(cycle.get(0)));
+        assertEquals(size, moved.size());
+        // Same play order, expressed with the new indices
+        for (int i = 0; i < size; ++i)
+            assertEquals(cycle.get(i), list.get(moved.get(i)));
+
+        // And backwards
+        list.add(2, list.remove(25));
+        mOrder.onItemMoved(25, 2);
+        final List<Integer> movedBack = playCycle(list.indexOf(cycle.get(0)));
+        for (int i = 0; i < size; ++i)
+            assertEquals(cycle.get(i), list.get(movedBack.get(i)));
+    }
+
+    @Test
+    public void testEditsKeepPermutation() {
+        final Random random = new Random(7);
+        int size = 200;
+        int current = 0;
+        mOrder.reset(size, current);
+        for (int i = 0; i < 1000; ++i) {
+            switch (random.nextInt(3)) {
+                case 0: {
+                    final int index = random.nextInt(size + 1);
+                    if (current >= index) ++current;
+                    mOrder.onItemAdded(index, current);
+                    ++size;
+                    break;
+                }
+                case 1: {
+                    final int index = random.nextInt(size);
+                    if (index == current) break;
+                    mOrder.onItemRemoved(index);
+                    if (current > index) --current;
+                    --size;
+                    break;
+                }
+                default: {
+                    final int from = random.nextInt(size);
+                    final int to = random.nextInt(size + 1);
+                    mOrder.onItemMoved(from, to);
+                    if (current == from) current = to > from ? to - 1 : to;
+                    else if (current >= to && current < from) ++current;
+                    else if (current > from && current < to) --current;
+                }
+            }
+            assertEquals(size, mOrder.getSize());
+            // Walk back to the beginning of the cycle, then play it all
+            int first = current;
+            while (mOrder.previous(first) != -1)
+                first = mOrder.previous(first);
+            assertPermutation(playCycle(first), size);
+        }
+        assertFalse(size == 200 && current == 0);
+    }
+}
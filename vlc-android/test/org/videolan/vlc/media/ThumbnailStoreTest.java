@@ -0,0 +1,95 @@
+package org.videolan.vlc.media;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ThumbnailStoreTest {
+
+    private File mDir;
+
+    @Before
+    public void setUp() throws IOException {
+        mDir = Files.createTempDirectory("thumbnails").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        for (File file : mDir.listFiles())
+            file.delete();
+        mDir.delete();
+    }
+
+    private static byte[] picture(int seed, int size) {
+        final byte[] data = new byte[size];
+        Arrays.fill(data, (byte) seed);
+        return data;
+    }
+
+    @Test
+    public void testContentAddressing() throws IOException {
+        final ThumbnailStore store = new ThumbnailStore(mDir, 1000);
+        final String key = store.put(picture(1, 100));
+        assertEquals(key, store.put(picture(1, 100)));
+        assertEquals(100, store.getSize());
+        final File file = store.get(key);
+        assertNotNull(file);
+        assertTrue(Arrays.equals(picture(1, 100), Files.readAllBytes(file.toPath())));
+        assertNull(store.get("0000000000000000000000000000000000000000"));
+        store.close();
+    }
+
+    @Test
+    public void testLruEviction() throws IOException {
+        final ThumbnailStore store = new ThumbnailStore(mDir, 300);
+        final String a = store.put(picture(1, 100));
+        final String b = store.put(picture(2, 100));
+        final String c = store.put(picture(3, 100));
+        assertNotNull(store.get(a));
+        store.put(picture(4, 100));
+        assertNull(store.get(b));
+        assertNotNull(store.get(a));
+        assertNotNull(store.get(c));
+        assertEquals(300, store.getSize());
+        store.close();
+    }
+
+    @Test
+    public void testIndexIsPersisted() throws IOException {
+        ThumbnailStore store = new ThumbnailStore(mDir, 300);
+        final String a = store.put(picture(1, 100));
+        final String b = store.put(picture(2, 100));
+        final String c = store.put(picture(3, 100));
+        store.get(a);
+        store.close();
+
+        store = new ThumbnailStore(mDir, 300);
+        assertEquals(300, store.getSize());
+        store.put(picture(4, 100));
+        assertNull(store.get(b));
+        assertNotNull(store.get(a));
+        assertNotNull(store.get(c));
+        store.close();
+    }
+
+    @Test
+    public void testIndexGrows() throws IOException {
+        final ThumbnailStore store = new ThumbnailStore(mDir, Long.MAX_VALUE);
+        final String[] keys = new String[600];
+        for (int i = 0; i < keys.length; ++i)
+            keys[i] = store.put(new byte[] { (byte) i, (byte) (i >> 8), 42 });
+        for (String key : keys)
+            assertNotNull(store.get(key));
+        store.close();
+    }
+}
@@ -0,0 +1,191 @@
+package org.videolan.vlc.media;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TitleGrouperTest {
+
+    private static final String[] SHOWS = {"Breaking Bad", "Game of Thrones", "The Wire", "Sherlock",
+            "The Office", "Friends", "Lost", "Doctor Who", "Fargo", "True Detective"};
+
+    /**
+     * Previous MediaGroup.insertInto algorithm, comparing each title with all groups
+     */
+    private static final class LinearGroup {
+        String title;
+        final List<String> items = new ArrayList<>();
+
+        LinearGroup(String title) {
+            this.title = title;
+            items.add(title);
+        }
+    }
+
+    private static List<LinearGroup> linearGroup(List<String> titles, int minLength) {
+        final List<LinearGroup> groups = new ArrayList<>();
+        for (String item : titles) {
+            boolean inserted = false;
+            for (LinearGroup linearGroup : groups) {
+                final String group = linearGroup.title.toLowerCase();
+                String title = item.toLowerCase();
+                int groupOffset = group.startsWith("the ") ? 4 : 0;
+                if (title.startsWith("the "))
+                    title = title.substring(4);
+                int commonLength = 0;
+                final String groupTitle = group.substring(groupOffset);
+                final int min = Math.min(groupTitle.length(), title.length());
+                while (commonLength < min && groupTitle.charAt(commonLength) == title.charAt(commonLength))
+                    ++commonLength;
+                if (commonLength >= minLength && minLength != 0) {
+                    linearGroup.items.add(item);
+                    linearGroup.title = group.substring(0, commonLength + groupOffset);
+                    inserted = true;
+                    break;
+                }
+            }
+            if (!inserted)
+                groups.add(new LinearGroup(item));
+        }
+        return groups;
+    }
+
+    private static List<String> titles(int count, long seed) {
+        final Random random = new Random(seed);
+        final List<String> titles = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            switch (random.nextInt(4)) {
+                case 0:
+                    // Unique movie titles
+                    titles.add("Movie " + Long.toString(random.nextLong() & Long.MAX_VALUE, 36));
+                    break;
+                case 1:
+                    titles.add(Integer.toString(random.nextInt(100)));
+                    break;
+                default: {
+                    final String show = SHOWS[random.nextInt(SHOWS.length)] + random.nextInt(count / 50 + 1);
+                    titles.add(String.format(Locale.US, "%s S%02dE%02d", show, random.nextInt(10), random.nextInt(25)));
+                }
+            }
+        }
+        return titles;
+    }
+
+    private static void assertSameGroups(List<LinearGroup> expected, TitleGrouper<String> grouper) {
+        assertEquals(expected.size(), grouper.getGroupCount());
+        int i = 0;
+        for (TitleGrouper.Group<String> group : grouper.getGroups()) {
+            final LinearGroup linearGroup = expected.get(i++);
+            assertEquals(linearGroup.items, group.getItems());
+            assertEquals(linearGroup.title.toLowerCase(), group.getTitle().toLowerCase());
+        }
+    }
+
+    private static TitleGrouper<String> group(List<String> titles, int minLength) {
+        final TitleGrouper<String> grouper = new TitleGrouper<>(minLength);
+        for (String title : titles)
+            grouper.add(title, title);
+        return grouper;
+    }
+
+    @Test
+    public void testSameGroupsAsLinearGrouping() {
+        for (int minLength : new int[] {0, 1, 3, 6, 10}) {
+            final List<String> titles = titles(2000, minLength);
+            assertSameGroups(linearGroup(titles, minLength), group(titles, minLength));
+        }
+    }
+
+    @Test
+    public void testGroupTitle() {
+        final TitleGrouper<String> grouper = group(Arrays.asList("The Office S01E01", "the office S01E02",
+                "Office S02E01", "Theater One", "Theater Two", "Short"), 6);
+        final List<TitleGrouper.Group<String>> groups = new ArrayList<>(grouper.getGroups());
+        assertEquals(3, groups.size());
+        assertEquals(3, groups.get(0).size());
+        // Case and "The " of the first title are kept
+        assertEquals("The Office S0", groups.get(0).getTitle());
+        // "Thea" is not an article
+        assertEquals("Theater ", groups.get(1).getTitle());
+        assertEquals("Short", groups.get(2).getTitle());
+    }
+
+    @Test
+    public void testAddAndRemove() {
+        final List<String> titles = titles(3000, 1);
+        final TitleGrouper<String> grouper = group(titles, 6);
+        final List<String> remaining = new ArrayList<>(titles);
+        final Random random = new Random(2);
+        for (int i = 0; i < 1000; ++i) {
+            final String title = remaining.remove(random.nextInt(remaining.size()));
+            assertNotNull(grouper.remove(title, title));
+        }
+        assertNull(grouper.remove("Not grouped", "Not grouped"));
+        // Removing then adding back gives the groups of the resulting list
+        final List<String> added = titles(500, 3);
+        for (String title : added)
+            grouper.add(title, title);
+        remaining.addAll(added);
+        final List<LinearGroup> expected = linearGroup(remaining, 6);
+        assertEquals(expected.size(), grouper.getGroupCount());
+        int items = 0;
+        for (TitleGrouper.Group<String> group : grouper.getGroups()) {
+            items += group.size();
+            for (String title : group.getItems())
+                assertTrue(title.toLowerCase().startsWith(group.getTitle().toLowerCase()));
+        }
+        assertEquals(remaining.size(), items);
+    }
+
+    @Test
+    public void testGroupTitleGrowsBackOnRemove() {
+        final TitleGrouper<String> grouper = group(Arrays.asList("Doctor Who S01", "Doctor Who S02", "Doctor Strange"), 6);
+        final TitleGrouper.Group<String> group = grouper.getGroups().iterator().next();
+        assertEquals("Doctor ", group.getTitle());
+        grouper.remove("Doctor Strange", "Doctor Strange");
+        assertEquals("Doctor Who S0", group.getTitle());
+        grouper.remove("Doctor Who S01", "Doctor Who S01");
+        assertEquals("Doctor Who S02", group.getTitle());
+    }
+
+    @Test
+    public void benchmarkGrouping() {
+        final int minLength = 6;
+        for (int count : new int[] {1000, 5000, 15000}) {
+            final List<String> titles = titles(count, count);
+            Collections.shuffle(titles, new Random(count));
+            // Warm up
+            linearGroup(titles, minLength);
+            group(titles, minLength);
+
+            long start = System.nanoTime();
+            final List<LinearGroup> linear = linearGroup(titles, minLength);
+            final long linearTime = System.nanoTime() - start;
+            start = System.nanoTime();
+            final TitleGrouper<String> grouper = group(titles, minLength);
+            final long trieTime = System.nanoTime() - start;
+            assertSameGroups(linear, grouper);
+
+            start = System.nanoTime();
+            for (int i = 0; i < 100; ++i) {
+                final String title = titles.get(i);
+                grouper.remove(title, title);
+                grouper.add(title, title);
+            }
+            final long editTime = System.nanoTime() - start;
+            System.out.println(String.format(Locale.US,
+                    "%d titles, %d groups: linear %.1f ms, trie %.1f ms, single edit %.1f us",
+                    count, grouper.getGroupCount(), linearTime / 1e6, trieTime / 1e6, editTime / 200 / 1e3));
+        }
+    }
+}
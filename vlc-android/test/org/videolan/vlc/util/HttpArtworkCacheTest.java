@@ -0,0 +1,209 @@
+package org.videolan.vlc.util;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link HttpArtworkCache} against a local HTTP stub server
+ */
+public class HttpArtworkCacheTest {
+
+    private static final String ETAG = "\"v1\"";
+
+    private HttpServer mServer;
+    private File mDirectory;
+    private volatile byte[] mContent = "cover v1".getBytes();
+    private volatile String mEtag = ETAG;
+    private volatile int mDelay;
+    private final AtomicInteger mRequests = new AtomicInteger();
+    private final AtomicInteger mNotModified = new AtomicInteger();
+    private final AtomicInteger mRunning = new AtomicInteger();
+    private final AtomicInteger mMaxRunning = new AtomicInteger();
+
+    @Before
+    public void setUp() throws IOException {
+        mDirectory = File.createTempFile("artwork", "");
+        mDirectory.delete();
+        mServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        mServer.setExecutor(Executors.newCachedThreadPool());
+        mServer.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                mRequests.incrementAndGet();
+                final int running = mRunning.incrementAndGet();
+                int max;
+                while ((max = mMaxRunning.get()) < running && !mMaxRunning.compareAndSet(max, running));
+                try {
+                    if (mDelay > 0) Thread.sleep(mDelay);
+                } catch (InterruptedException ignored) {}
+                mRunning.decrementAndGet();
+                if (mEtag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                    mNotModified.incrementAndGet();
+                    exchange.sendResponseHeaders(304, -1);
+                    exchange.close();
+                    return;
+                }
+                exchange.getResponseHeaders().add("ETag", mEtag);
+                exchange.sendResponseHeaders(200, mContent.length);
+                final OutputStream out = exchange.getResponseBody();
+                out.write(mContent);
+                out.close();
+            }
+        });
+        mServer.start();
+    }
+
+    @After
+    public void tearDown() {
+        mServer.stop(0);
+        final File[] files = mDirectory.listFiles();
+        if (files != null)
+            for (File file : files) file.delete();
+        mDirectory.delete();
+    }
+
+    private String url(String path) {
+        return "http://127.0.0.1:" + mServer.getAddress().getPort() + "/" + path;
+    }
+
+    private static byte[] read(File file) throws IOException {
+        final RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            final byte[] data = new byte[(int) raf.length()];
+            raf.readFully(data);
+            return data;
+        } finally {
+            raf.close();
+        }
+    }
+
+    @Test
+    public void testFreshEntryIsServedFromDisk() throws IOException {
+        final HttpArtworkCache cache = new HttpArtworkCache(mDirectory, 1 << 20, 2);
+        final File first = cache.get(url("cover.png"));
+        assertArrayEquals(mContent, read(first));
+        final File second = new HttpArtworkCache(mDirectory, 1 << 20, 2).get(url("cover.png"));
+        assertEquals(first, second);
+        assertEquals(1, mRequests.get());
+    }
+
+    @Test
+    public void testStaleEntryIsRevalidated() throws IOException {
+        final HttpArtworkCache cache = new HttpArtworkCache(mDirectory, 1 << 20, 2, 0);
+        cache.get(url("cover.png"));
+        assertArrayEquals("cover v1".getBytes(), read(cache.get(url("cover.png"))));
+        assertEquals(2, mRequests.get());
+        assertEquals(1, mNotModified.get());
+
+        mContent = "cover v2".getBytes();
+        mEtag = "\"v2\"";
+        assertArrayEquals("cover v2".getBytes(), read(cache.get(url("cover.png"))));
+        assertEquals(3, mRequests.get());
+        assertEquals(1, mNotModified.get());
+    }
+
+    @Test
+    public void testStaleEntryIsServedOffline() throws IOException {
+        final HttpArtworkCache cache = new HttpArtworkCache(mDirectory, 1 << 20, 2, 0);
+        final String url = url("cover.png");
+        cache.get(url);
+        mServer.stop(0);
+        assertArrayEquals(mContent, read(cache.get(url)));
+    }
+
+    @Test(expected = IOException.class)
+    public void testMissingEntryOffline() throws IOException {
+        final String url = url("cover.png");
+        mServer.stop(0);
+        new HttpArtworkCache(mDirectory, 1 << 20, 2).get(url);
+    }
+
+    @Test
+    public void testSizeLimit() throws IOException {
+        mContent = new byte[1000];
+        final HttpArtworkCache cache = new HttpArtworkCache(mDirectory, 3500, 2);
+        for (int i = 0; i < 10; ++i)
+            cache.get(url("cover" + i + ".png"));
+        long size = 0;
+        int entries = 0;
+        for (File file : mDirectory.listFiles()) {
+            if (file.getName().endsWith(".meta")) continue;
+            size += file.length();
+            ++entries;
+        }
+        assertTrue(size <= 3500);
+        assertEquals(3, entries);
+        // Most recent one is kept
+        cache.get(url("cover9.png"));
+        assertEquals(10, mRequests.get());
+    }
+
+    @Test
+    public void testDownloadsPerHostAreLimited() throws Exception {
+        mDelay = 50;
+        final HttpArtworkCache cache = new HttpArtworkCache(mDirectory, 1 << 20, 2);
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        final List<Future<File>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; ++i) {
+            final String url = url("cover" + i + ".png");
+            futures.add(executor.submit(new Callable<File>() {
+                @Override
+                public File call() throws IOException {
+                    return cache.get(url);
+                }
+            }));
+        }
+        for (Future<File> future : futures)
+            assertTrue(future.get(10, TimeUnit.SECONDS).exists());
+        executor.shutdown();
+        assertEquals(8, mRequests.get());
+        assertTrue(mMaxRunning.get() <= 2);
+    }
+
+    @Test
+    public void testConcurrentDownloadsOfSameUrl() throws Exception {
+        mContent = new byte[256 * 1024];
+        for (int i = 0; i < mContent.length; ++i)
+            mContent[i] = (byte) i;
+        final HttpArtworkCache cache = new HttpArtworkCache(mDirectory, 1 << 24, 2, 0);
+        final String url = url("cover.png");
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        final List<Future<File>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; ++i) {
+            futures.add(executor.submit(new Callable<File>() {
+                @Override
+                public File call() throws IOException {
+                    return cache.get(url);
+                }
+            }));
+        }
+        for (Future<File> future : futures)
+            assertArrayEquals(mContent, read(future.get(10, TimeUnit.SECONDS)));
+        executor.shutdown();
+        for (File file : mDirectory.listFiles())
+            assertTrue(file.getName(), !file.getName().endsWith(".tmp"));
+    }
+}
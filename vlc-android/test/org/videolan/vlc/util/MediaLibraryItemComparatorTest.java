@@ -0,0 +1,119 @@
+package org.videolan.vlc.util;
+
+import org.junit.Test;
+import org.videolan.medialibrary.media.MediaLibraryItem;
+import org.videolan.medialibrary.media.MediaWrapper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class MediaLibraryItemComparatorTest {
+
+    private static final class Item extends MediaLibraryItem {
+        Item(long id, String title) {
+            super(id, title);
+        }
+
+        @Override
+        public MediaWrapper[] getTracks() {
+            return new MediaWrapper[0];
+        }
+
+        @Override
+        public int getItemType() {
+            return TYPE_ARTIST;
+        }
+    }
+
+    /**
+     * Title comparison as it was done before sort keys
+     */
+    private static final Comparator<MediaLibraryItem> LEGACY_TITLE_COMPARATOR = new Comparator<MediaLibraryItem>() {
+        @Override
+        public int compare(MediaLibraryItem item1, MediaLibraryItem item2) {
+            return item1.getTitle().toUpperCase(Locale.ENGLISH).compareTo(item2.getTitle().toUpperCase(Locale.ENGLISH));
+        }
+    };
+
+    private static List<MediaLibraryItem> items(int count) {
+        final Random random = new Random(count);
+        final String[] words = {"love", "The", "night", "Blue", "song", "DREAM", "away", "Heart", "fire", "é"};
+        final List<MediaLibraryItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            final StringBuilder title = new StringBuilder();
+            for (int j = random.nextInt(4); j >= 0; --j)
+                title.append(words[random.nextInt(words.length)]).append(' ');
+            title.append(random.nextInt(100));
+            items.add(new Item(i + 1, title.toString()));
+        }
+        return items;
+    }
+
+    private static void assertSameOrder(List<MediaLibraryItem> expected, List<MediaLibraryItem> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); ++i)
+            assertSame(expected.get(i), actual.get(i));
+    }
+
+    @Test
+    public void testSameOrderAsCompare() {
+        final MediaLibraryItemComparator comparator = new MediaLibraryItemComparator(MediaLibraryItemComparator.class);
+        final List<MediaLibraryItem> items = items(2000);
+        items.add(500, null);
+        for (int direction : new int[] {1, -1}) {
+            comparator.sortBy(MediaLibraryItemComparator.SORT_BY_TITLE, direction);
+            final List<MediaLibraryItem> expected = new ArrayList<>(items);
+            Collections.sort(expected, comparator);
+            final List<MediaLibraryItem> sorted = new ArrayList<>(items);
+            comparator.sort(sorted);
+            assertSameOrder(expected, sorted);
+        }
+    }
+
+    @Test
+    public void testKeyFollowsTitle() {
+        final Item item = new Item(1, "abc");
+        assertEquals("ABC", item.getTitleSortKey());
+        item.setTitle("def");
+        assertEquals("DEF", item.getTitleSortKey());
+    }
+
+    @Test
+    public void benchmarkTitleSort() {
+        final int count = 30000;
+        final MediaLibraryItemComparator comparator = new MediaLibraryItemComparator(MediaLibraryItemComparator.class);
+        final List<MediaLibraryItem> items = items(count);
+        // Warm up, on other items so that their keys are not computed yet
+        comparator.sortBy(MediaLibraryItemComparator.SORT_BY_TITLE, 1);
+        for (int i = 0; i < 5; ++i) {
+            Collections.sort(new ArrayList<>(items), LEGACY_TITLE_COMPARATOR);
+            comparator.sort(items(count));
+        }
+
+        final List<MediaLibraryItem> legacy = new ArrayList<>(items);
+        long start = System.nanoTime();
+        Collections.sort(legacy, LEGACY_TITLE_COMPARATOR);
+        final long legacyTime = System.nanoTime() - start;
+
+        final List<MediaLibraryItem> sorted = new ArrayList<>(items);
+        start = System.nanoTime();
+        comparator.sort(sorted);
+        final long firstTime = System.nanoTime() - start;
+        assertSameOrder(legacy, sorted);
+
+        // Direction toggle, keys are already computed
+        comparator.sortBy(MediaLibraryItemComparator.SORT_BY_TITLE, -1);
+        start = System.nanoTime();
+        comparator.sort(sorted);
+        final long toggleTime = System.nanoTime() - start;
+        System.out.println(String.format(Locale.US, "Sorted %d titles: legacy %.1f ms, keys %.1f ms, toggle %.1f ms",
+                count, legacyTime / 1e6, firstTime / 1e6, toggleTime / 1e6));
+    }
+}
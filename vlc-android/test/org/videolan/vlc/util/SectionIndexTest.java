@@ -0,0 +1,55 @@
+package org.videolan.vlc.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SectionIndexTest {
+
+    @Test
+    public void testSameAsBackwardScan() {
+        final Random random = new Random(1);
+        // Headers are "#n", items are plain numbers
+        final List<String> list = new ArrayList<>();
+        final SectionIndex.Builder builder = new SectionIndex.Builder();
+        for (int i = 0; i < 3; ++i)
+            list.add(String.valueOf(i));
+        for (int section = 0; section < 500; ++section) {
+            builder.add(list.size(), "#" + section);
+            list.add("#" + section);
+            for (int i = random.nextInt(20); i > 0; --i)
+                list.add(String.valueOf(i));
+        }
+        final SectionIndex index = builder.build(list);
+
+        assertTrue(index.isFor(list));
+        assertFalse(index.isFor(new ArrayList<>(list)));
+        assertEquals(500, index.getSectionCount());
+        for (int position = 0; position < list.size(); ++position) {
+            String expected = "";
+            for (int i = position; i >= 0; --i) {
+                if (list.get(i).startsWith("#")) {
+                    expected = list.get(i);
+                    break;
+                }
+            }
+            assertEquals(expected, index.getLabelForPosition(position));
+            final int section = index.getSectionForPosition(position);
+            if (section >= 0)
+                assertEquals(list.get(index.getPositionForSection(section)), index.getLabel(section));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnorderedSections() {
+        final SectionIndex.Builder builder = new SectionIndex.Builder();
+        builder.add(3, "b");
+        builder.add(1, "a");
+    }
+}
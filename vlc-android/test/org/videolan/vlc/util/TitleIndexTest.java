@@ -0,0 +1,126 @@
+package org.videolan.vlc.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TitleIndexTest {
+
+    private static final String[] WORDS = {"love", "the", "night", "blue", "song", "dream", "away", "heart",
+            "fire", "of", "la", "vie", "en", "rose", "live", "remix", "part", "ii", "été", "001"};
+
+    private static List<String> titles(int count, long seed) {
+        final Random random = new Random(seed);
+        final List<String> titles = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            final StringBuilder title = new StringBuilder();
+            for (int j = random.nextInt(5); j >= 0; --j) {
+                final String word = WORDS[random.nextInt(WORDS.length)];
+                title.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length()).append(' ');
+            }
+            title.append(random.nextInt(1000));
+            titles.add(title.toString());
+        }
+        titles.add(null);
+        return titles;
+    }
+
+    /**
+     * Previous MediaItemFilter search, scanning all titles
+     */
+    private static List<String> linearSearch(List<String> titles, String[] query) {
+        final List<String> results = new ArrayList<>();
+        for (String title : titles) {
+            for (String word : query) {
+                if (word.length() < 2)
+                    continue;
+                if (title != null && title.toLowerCase().contains(word)) {
+                    results.add(title);
+                    break;
+                }
+            }
+        }
+        return results;
+    }
+
+    private static String[] query(String typed) {
+        return typed.trim().toLowerCase().split(" ");
+    }
+
+    @Test
+    public void testSameResultsAsLinearSearch() {
+        final List<String> titles = titles(5000, 1);
+        final TitleIndex<String> index = new TitleIndex<>(titles, titles);
+        final String[] queries = {"l", "lo", "lov", "love", "love ", "love n", "love ni", "love night", "love nig",
+                "ove", "xyz", "été", "ÉTÉ 1", "00", "001", "heart of", "of heart", "  ", "1", "12", "123"};
+        for (String typed : queries) {
+            final String[] query = query(typed);
+            assertEquals(typed, linearSearch(titles, query), index.search(query));
+        }
+    }
+
+    @Test
+    public void testAddAndRemove() {
+        final List<String> titles = new ArrayList<>(titles(1000, 2));
+        final TitleIndex<String> index = new TitleIndex<>(titles, titles);
+        final String[] query = query("fire");
+        index.search(query("fir"));
+        final Random random = new Random(3);
+        for (int i = 0; i < 600; ++i) {
+            final String title = titles.remove(random.nextInt(titles.size() - 1));
+            assertTrue(index.remove(title));
+        }
+        for (String title : titles(200, 4).subList(0, 200)) {
+            titles.add(title);
+            index.add(title, title);
+        }
+        assertEquals(titles.size(), index.size());
+        assertEquals(linearSearch(titles, query), index.search(query));
+        assertEquals(Arrays.asList("Fire Blue 1"), new TitleIndex<>(Arrays.asList("Fire Blue 1"),
+                Arrays.asList("Fire Blue 1")).search(query("blu")));
+    }
+
+    @Test
+    public void benchmarkTyping() {
+        final int count = 50000;
+        final List<String> titles = titles(count, count);
+        final String typed = "heart of the ni";
+        // Warm up
+        final List<String> other = titles(count, 0);
+        for (int round = 0; round < 3; ++round) {
+            final TitleIndex<String> index = new TitleIndex<>(other, other);
+            for (int i = 1; i <= typed.length(); ++i) {
+                linearSearch(other, query(typed.substring(0, i)));
+                index.search(query(typed.substring(0, i)));
+            }
+        }
+
+        long start = System.nanoTime();
+        for (int i = 1; i <= typed.length(); ++i)
+            linearSearch(titles, query(typed.substring(0, i)));
+        final long linearTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        final TitleIndex<String> index = new TitleIndex<>(titles, titles);
+        final long buildTime = System.nanoTime() - start;
+        long maxKeystroke = 0;
+        start = System.nanoTime();
+        for (int i = 1; i <= typed.length(); ++i) {
+            final long keystroke = System.nanoTime();
+            final String[] query = query(typed.substring(0, i));
+            index.search(query);
+            maxKeystroke = Math.max(maxKeystroke, System.nanoTime() - keystroke);
+        }
+        final long indexTime = System.nanoTime() - start;
+        System.out.println(String.format(Locale.US,
+                "%d titles, %d keystrokes: linear %.1f ms, index build %.1f ms, search %.1f ms (slowest keystroke %.2f ms)",
+                count, typed.length(), linearTime / 1e6, buildTime / 1e6, indexTime / 1e6, maxKeystroke / 1e6));
+    }
+}
@@ -2,11 +2,15 @@ package org.videolan.vlc.util;
 
 
 import org.junit.Test;
+import org.videolan.medialibrary.media.MediaLibraryItem;
+import org.videolan.medialibrary.media.MediaWrapper;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 public class UtilTest {
 
@@ -26,4 +30,40 @@ public class UtilTest {
         assertEquals(true, list.get(1) == b2);
         assertEquals(list.get(2), c);
     }
+
+    private static final class Item extends MediaLibraryItem {
+        Item(long id, String title) {
+            super(id, title);
+        }
+
+        @Override
+        public MediaWrapper[] getTracks() {
+            return new MediaWrapper[0];
+        }
+
+        @Override
+        public int getItemType() {
+            return TYPE_ALBUM;
+        }
+    }
+
+    @Test
+    public void testUpdateItemsSameAsInsertOrUpdate() {
+        final Random random = new Random(1);
+        final List<MediaLibraryItem> dataset = new ArrayList<>();
+        for (int i = 0; i < 2000; ++i)
+            dataset.add(new Item(random.nextInt(3000), "old " + i));
+        final MediaLibraryItem[] items = new MediaLibraryItem[500];
+        for (int i = 0; i < items.length; ++i)
+            items[i] = new Item(random.nextInt(3000), "new " + i);
+
+        final List<MediaLibraryItem> expected = new ArrayList<>(dataset);
+        Util.insertOrUdpate(expected, items);
+        final List<MediaLibraryItem> list = new ArrayList<>(dataset);
+        list.addAll(Util.updateItems(list, items));
+
+        assertEquals(expected.size(), list.size());
+        for (int i = 0; i < expected.size(); ++i)
+            assertSame(expected.get(i), list.get(i));
+    }
 }